@@ -1,14 +1,15 @@
 package com.thedan17.salesnet.core.controller;
 
 import com.thedan17.salesnet.core.dao.AccGroupLinkRepository;
-import com.thedan17.salesnet.core.dao.GroupRepository;
 import com.thedan17.salesnet.core.object.dto.*;
 import com.thedan17.salesnet.core.object.entity.AccGroupLink;
 import com.thedan17.salesnet.core.object.entity.Account;
 import com.thedan17.salesnet.core.object.entity.Group;
 import com.thedan17.salesnet.core.service.AccGroupLinkService;
 import com.thedan17.salesnet.exception.InvalidRequestBodyException;
+import com.thedan17.salesnet.util.CommonUtil;
 import com.thedan17.salesnet.util.EntityMapper;
+import com.thedan17.salesnet.util.NdjsonStreamWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -16,13 +17,13 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
-import java.util.ArrayList;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /** Контроллер для создания и удаления связей между {@link Group} и {@link Account}. */
 @Tag(
@@ -35,22 +36,31 @@ public class AccGroupLinkController {
   @Autowired
   AccGroupLinkService accGroupLinkService;
 
-  @Autowired
-  GroupRepository groupRepository;
   @Autowired
   AccGroupLinkRepository accGroupLinkRepository;
   @Autowired
   EntityMapper entityMapper;
+  @Autowired
+  NdjsonStreamWriter ndjsonStreamWriter;
 
+  /** Получение всех связей; при указании {@code afterId} или {@code limit} - страница по курсору. */
   @GetMapping("/links")
-  public ResponseEntity<List<AccGroupLinkDto>> getAllLinks() {
-    return ResponseEntity.ok(
-            accGroupLinkRepository
-                    .findAll()
-                    .stream()
-                    .map(entityMapper::linkToDto)
-                    .toList()
-    );
+  public ResponseEntity<List<AccGroupLinkDto>> getAllLinks(
+          @RequestParam(required = false) Long afterId,
+          @Valid @Min(1) @RequestParam(required = false) Integer limit) {
+    List<AccGroupLink> links =
+            afterId == null && limit == null
+                    ? accGroupLinkRepository.findAll()
+                    : accGroupLinkRepository.findByIdGreaterThanOrderByIdAsc(
+                            afterId == null ? 0L : afterId, CommonUtil.pageLimit(limit));
+    return ResponseEntity.ok(links.stream().map(entityMapper::linkToDto).toList());
+  }
+
+  /** Получение всех связей потоком NDJSON по возрастанию id. */
+  @GetMapping("/links/stream")
+  public ResponseEntity<StreamingResponseBody> streamAllLinks() {
+    return ndjsonStreamWriter.response(
+            accGroupLinkRepository::streamAllOrderById, entityMapper::linkToDto);
   }
 
   @PostMapping("/links")
@@ -68,19 +78,17 @@ public class AccGroupLinkController {
     return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
   }
 
+  /**
+   * Получение всех групп с участниками; при указании {@code afterId} или {@code limit} - страница
+   * групп по курсору.
+   *
+   * @see AccGroupLinkService#getAllGroupsAccounts(Long, Integer)
+   */
   @GetMapping("/links/allgroupswithaccounts")
-  public ResponseEntity<List<GroupAccountsDto>> getAllGroupsAccounts() {
-    List<Group> groups = groupRepository.findAll();
-    List<GroupAccountsDto> dtos = new ArrayList<>();
-    for (Group group : groups) {
-      GroupAccountsDto dto = entityMapper.groupToGroupAccounts(group);
-      List<AccGroupLink> groupAccs = accGroupLinkRepository.findByGroup(group);
-      for (AccGroupLink link : groupAccs) {
-        dto.getAccounts().add(entityMapper.accountToInfoDto(link.getAccount()));
-      }
-      dtos.add(dto);
-    }
-    return ResponseEntity.ok(dtos);
+  public ResponseEntity<List<GroupAccountsDto>> getAllGroupsAccounts(
+          @RequestParam(required = false) Long afterId,
+          @Valid @Min(1) @RequestParam(required = false) Integer limit) {
+    return ResponseEntity.ok(accGroupLinkService.getAllGroupsAccounts(afterId, limit));
   }
 
   /**
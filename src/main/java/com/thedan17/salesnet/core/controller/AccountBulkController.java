@@ -1,15 +1,27 @@
 package com.thedan17.salesnet.core.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.thedan17.salesnet.core.object.data.BulkResultDetailed;
+import com.thedan17.salesnet.core.object.data.BulkResultShort;
 import com.thedan17.salesnet.core.object.dto.AccountSignupDto;
 import com.thedan17.salesnet.core.service.AccountBulkService;
+import com.thedan17.salesnet.util.BulkImportReader;
 import com.thedan17.salesnet.util.BulkResultResponseFactory;
+import com.thedan17.salesnet.util.NdjsonStreamWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -22,9 +34,17 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api")
 public class AccountBulkController {
   @Autowired AccountBulkService accountBulkService;
+  @Autowired BulkImportReader bulkImportReader;
+  private final ObjectWriter objectWriter;
 
-  public AccountBulkController(AccountBulkService accountBulkService) {
+  /** Конструктор для автопривязки Spring. */
+  public AccountBulkController(
+      AccountBulkService accountBulkService,
+      BulkImportReader bulkImportReader,
+      ObjectMapper objectMapper) {
     this.accountBulkService = accountBulkService;
+    this.bulkImportReader = bulkImportReader;
+    this.objectWriter = objectMapper.writer();
   }
 
   /**
@@ -68,4 +88,52 @@ public class AccountBulkController {
     BulkResultDetailed addAccountsResult = accountBulkService.addAccountsBulk(accountsData);
     return BulkResultResponseFactory.fromResult(addAccountsResult);
   }
+
+  /**
+   * Потоковое массовое создание аккаунтов из NDJSON или CSV. Делегирует операцию {@link
+   * AccountBulkService}.
+   *
+   * <p>Результат каждого элемента пишется в ответ отдельной NDJSON-строкой по мере обработки
+   * пакетов, последняя строка - итог {@link BulkResultShort}. Код ответа всегда 200, так как
+   * заголовки отправляются до обработки.
+   *
+   * @see AccountBulkService#addAccountsStream
+   */
+  @Operation(
+      summary = "Потоково создать множество аккаунтов",
+      description =
+          "Тело - NDJSON или CSV с заголовком; ответ - NDJSON с результатом каждого элемента и "
+              + "итоговой строкой")
+  @ApiResponses({
+    @ApiResponse(responseCode = "200", description = "Результаты переданы потоком"),
+    @ApiResponse(responseCode = "415", description = "Неподдерживаемый формат тела")
+  })
+  @PostMapping(
+      value = "/accounts/bulk-stream",
+      consumes = {"application/x-ndjson", "text/csv"},
+      produces = "application/x-ndjson")
+  void addAccountsBulkStream(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    MediaType contentType = MediaType.parseMediaType(request.getContentType());
+    response.setContentType(NdjsonStreamWriter.NDJSON.toString());
+    OutputStream out = response.getOutputStream();
+    try (MappingIterator<AccountSignupDto> items =
+        bulkImportReader.read(request.getInputStream(), contentType, AccountSignupDto.class)) {
+      BulkResultShort total =
+          accountBulkService.addAccountsStream(items, results -> writeLines(out, results));
+      writeLines(out, List.of(total));
+    }
+  }
+
+  private void writeLines(OutputStream out, List<?> lines) {
+    try {
+      for (Object line : lines) {
+        out.write(objectWriter.writeValueAsBytes(line));
+        out.write('\n');
+      }
+      out.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
 }
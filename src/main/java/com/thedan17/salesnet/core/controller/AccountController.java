@@ -5,11 +5,14 @@ import com.thedan17.salesnet.core.object.dto.AccountInfoDto;
 import com.thedan17.salesnet.core.object.dto.AccountSignupDto;
 import com.thedan17.salesnet.core.object.dto.AccountUpdateDto;
 import com.thedan17.salesnet.core.object.dto.GroupIdDto;
+import com.thedan17.salesnet.core.object.entity.Account;
 import com.thedan17.salesnet.core.service.AccountService;
 import com.thedan17.salesnet.exception.ContentNotFoundException;
 import com.thedan17.salesnet.exception.ExceptionCommonLiterals;
 import com.thedan17.salesnet.exception.InvalidRequestBodyException;
+import com.thedan17.salesnet.util.CommonUtil;
 import com.thedan17.salesnet.util.EntityMapper;
+import com.thedan17.salesnet.util.NdjsonStreamWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -30,7 +33,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /** Контроллер для запросов, связанных с таблицей аккаунтов. */
 @Tag(name = "Account API", description = "Операции, связанные напрямую с аккаунтами.")
@@ -41,12 +46,35 @@ public class AccountController {
   @Autowired private AccountRepository accountRepository;
   @Autowired private EntityMapper entityMapper;
 
-  @Operation(summary = "Получить все аккаунты")
+  @Autowired private NdjsonStreamWriter ndjsonStreamWriter;
+
+  /**
+   * Получение всех аккаунтов; при указании {@code afterId} или {@code limit} - страница по курсору.
+   */
+  @Operation(
+      summary = "Получить все аккаунты",
+      description = "Без параметров возвращает всю таблицу; для постраничного чтения передайте "
+          + "afterId (id последнего полученного аккаунта) и limit.")
   @ApiResponses({@ApiResponse(responseCode = "200", description = "Список получен")})
   @GetMapping
-  public ResponseEntity<List<AccountInfoDto>> getAllAccounts() {
-    return ResponseEntity.ok(
-        accountRepository.findAll().stream().map(entityMapper::accountToInfoDto).toList());
+  public ResponseEntity<List<AccountInfoDto>> getAllAccounts(
+      @RequestParam(required = false) Long afterId,
+      @Valid @Min(1) @RequestParam(required = false) Integer limit) {
+    List<Account> accounts =
+        afterId == null && limit == null
+            ? accountRepository.findAll()
+            : accountRepository.findByIdGreaterThanOrderByIdAsc(
+                afterId == null ? 0L : afterId, CommonUtil.pageLimit(limit));
+    return ResponseEntity.ok(accounts.stream().map(entityMapper::accountToInfoDto).toList());
+  }
+
+  /** Получение всех аккаунтов потоком NDJSON по возрастанию id. */
+  @Operation(summary = "Получить все аккаунты потоком (NDJSON)")
+  @ApiResponses({@ApiResponse(responseCode = "200", description = "Поток начат")})
+  @GetMapping("/stream")
+  public ResponseEntity<StreamingResponseBody> streamAllAccounts() {
+    return ndjsonStreamWriter.response(
+        accountRepository::streamAllOrderById, entityMapper::accountToInfoDto);
   }
 
   /** Конструктор для привязки соответствующего сервисного слоя. */
@@ -1,14 +1,22 @@
 package com.thedan17.salesnet.core.controller;
 
+import com.thedan17.salesnet.core.object.data.LatencyStatistics;
+import com.thedan17.salesnet.core.object.data.LatencyWindow;
+import com.thedan17.salesnet.core.object.dto.UrlStatDto;
 import com.thedan17.salesnet.core.service.CounterService;
+import com.thedan17.salesnet.core.service.UrlStatsService;
 import com.thedan17.salesnet.exception.ContentNotFoundException;
+import com.thedan17.salesnet.exception.InvalidSearchParameterException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,9 +26,11 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/stats/url")
 public class CounterController {
   @Autowired private final CounterService counterService;
+  @Autowired private final UrlStatsService urlStatsService;
 
-  public CounterController(CounterService counterService) {
+  public CounterController(CounterService counterService, UrlStatsService urlStatsService) {
     this.counterService = counterService;
+    this.urlStatsService = urlStatsService;
   }
 
   @Operation(summary = "Получение всех счётчиков либо одного конкретного по шаблону endpoint.")
@@ -29,16 +39,62 @@ public class CounterController {
     @ApiResponse(responseCode = "404", description = "Такого URL нет в статистике")
   })
   @GetMapping
-  ResponseEntity<Map<String, Integer>> getAllCounters(@RequestParam(required = false) String path) {
+  ResponseEntity<Map<String, Long>> getAllCounters(@RequestParam(required = false) String path) {
     if (path == null) {
       return ResponseEntity.status(HttpStatus.OK).body(counterService.getAllUrlCounters());
     }
     var counter = counterService.getCurrentUrlCounter(path);
     if (counter.isPresent()) {
-      Map<String, Integer> founded = new HashMap<>();
+      Map<String, Long> founded = new HashMap<>();
       founded.put(counter.get().getFirst(), counter.get().getSecond());
       return ResponseEntity.ok(founded);
     }
     throw new ContentNotFoundException("Optional with url counter is empty");
   }
+
+  @Operation(summary = "Перцентили длительности запросов (p50/p95/p99/max) и статусы ответов по шаблонам endpoint.")
+  @ApiResponses({
+    @ApiResponse(responseCode = "200", description = "Успешно получена статистика"),
+    @ApiResponse(responseCode = "400", description = "Неизвестное окно времени"),
+    @ApiResponse(responseCode = "404", description = "Такого URL нет в статистике")
+  })
+  @GetMapping("/latency")
+  ResponseEntity<Map<String, LatencyStatistics>> getLatency(
+      @RequestParam(required = false) String path,
+      @RequestParam(required = false, defaultValue = "1m") String window) {
+    LatencyWindow latencyWindow =
+        LatencyWindow.fromCode(window)
+            .orElseThrow(() -> new InvalidSearchParameterException(
+                    "Unknown window '%s', expected 1m, 5m or all".formatted(window)));
+    if (path == null) {
+      return ResponseEntity.ok(counterService.getAllLatencyStatistics(latencyWindow));
+    }
+    var statistics = counterService.getLatencyStatistics(path, latencyWindow);
+    if (statistics.isPresent()) {
+      Map<String, LatencyStatistics> founded = new HashMap<>();
+      founded.put(path, statistics.get());
+      return ResponseEntity.ok(founded);
+    }
+    throw new ContentNotFoundException("No latency statistics for url " + path);
+  }
+
+  @Operation(summary = "История обращений по интервалам времени из сохранённой статистики, по умолчанию за последние сутки.")
+  @ApiResponses({
+    @ApiResponse(responseCode = "200", description = "Успешно получена история"),
+    @ApiResponse(responseCode = "400", description = "Начало периода не раньше его конца")
+  })
+  @GetMapping("/history")
+  ResponseEntity<List<UrlStatDto>> getHistory(
+      @RequestParam(required = false) String path,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime to) {
+    LocalDateTime end = to == null ? LocalDateTime.now() : to;
+    LocalDateTime start = from == null ? end.minusDays(1) : from;
+    if (!start.isBefore(end)) {
+      throw new InvalidSearchParameterException("'from' must be before 'to'");
+    }
+    return ResponseEntity.ok(urlStatsService.getHistory(path, start, end));
+  }
 }
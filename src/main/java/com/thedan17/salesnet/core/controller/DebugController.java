@@ -1,6 +1,21 @@
 package com.thedan17.salesnet.core.controller;
 
+import ch.qos.logback.classic.Level;
+import com.thedan17.salesnet.core.object.data.CacheStatistics;
+import com.thedan17.salesnet.core.object.data.EntityCacheStatistics;
+import com.thedan17.salesnet.core.object.data.HashingStatistics;
+import com.thedan17.salesnet.core.object.data.LogSlice;
+import com.thedan17.salesnet.core.object.data.LoggingStatistics;
+import com.thedan17.salesnet.core.object.data.MembershipIndexStatistics;
 import com.thedan17.salesnet.core.service.DebugService;
+import com.thedan17.salesnet.core.service.EntityCacheService;
+import com.thedan17.salesnet.core.service.GroupSearchCacheService;
+import com.thedan17.salesnet.core.service.LogQueryService;
+import com.thedan17.salesnet.core.service.MembershipService;
+import com.thedan17.salesnet.exception.InvalidSearchParameterException;
+import com.thedan17.salesnet.util.AppLoggerCore;
+import com.thedan17.salesnet.util.LogFileResponseFactory;
+import com.thedan17.salesnet.util.PasswordHasher;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -9,17 +24,23 @@ import jakarta.persistence.EntityManagerFactory;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import java.io.IOException;
+import java.nio.channels.Channels;
 import java.nio.file.Path;
 import java.time.DateTimeException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /** Контроллер для отладочных действий на время разработки до релиза. */
 @Tag(name = "Debug API", description = "Запросы преимущественно для разработчиков")
@@ -28,10 +49,30 @@ import org.springframework.web.bind.annotation.*;
 public class DebugController {
   @Autowired private final EntityManagerFactory entityManagerFactory;
   @Autowired private final DebugService debugService;
+  @Autowired private final GroupSearchCacheService groupSearchCacheService;
+  @Autowired private final AppLoggerCore appLoggerCore;
+  @Autowired private final LogQueryService logQueryService;
+  @Autowired private final PasswordHasher passwordHasher;
+  @Autowired private final EntityCacheService entityCacheService;
+  @Autowired private final MembershipService membershipService;
 
-  public DebugController(DebugService debugService, EntityManagerFactory entityManagerFactory) {
+  public DebugController(
+      DebugService debugService,
+      EntityManagerFactory entityManagerFactory,
+      GroupSearchCacheService groupSearchCacheService,
+      AppLoggerCore appLoggerCore,
+      LogQueryService logQueryService,
+      PasswordHasher passwordHasher,
+      EntityCacheService entityCacheService,
+      MembershipService membershipService) {
     this.debugService = debugService;
     this.entityManagerFactory = entityManagerFactory;
+    this.groupSearchCacheService = groupSearchCacheService;
+    this.appLoggerCore = appLoggerCore;
+    this.logQueryService = logQueryService;
+    this.passwordHasher = passwordHasher;
+    this.entityCacheService = entityCacheService;
+    this.membershipService = membershipService;
   }
 
   /** Метод, который должен очищать кэш 2L-уровня (сохраняемый между сессиями). */
@@ -43,6 +84,46 @@ public class DebugController {
     return ResponseEntity.ok().build();
   }
 
+  /** Статистика кэша второго уровня JPA по регионам сущностей и кэшу запросов. */
+  @Operation(summary = "Получение статистики кэша второго уровня JPA")
+  @ApiResponse(responseCode = "200", description = "Статистика получена")
+  @GetMapping("/entity-cache/stats")
+  public ResponseEntity<Map<String, EntityCacheStatistics>> getEntityCacheStatistics() {
+    return ResponseEntity.ok(entityCacheService.getStatistics());
+  }
+
+  /** Статистика кэшей поиска групп: попадания, промахи, вытеснения и отклонённые ключи. */
+  @Operation(summary = "Получение статистики кэшей поиска групп")
+  @ApiResponse(responseCode = "200", description = "Статистика получена")
+  @GetMapping("/search-cache/stats")
+  public ResponseEntity<Map<String, CacheStatistics>> getSearchCacheStatistics() {
+    return ResponseEntity.ok(groupSearchCacheService.getCacheStatistics());
+  }
+
+  /** Состояние очереди асинхронной записи лога: размер, отброшенные и записанные события. */
+  @Operation(summary = "Получение статистики асинхронной записи лога")
+  @ApiResponse(responseCode = "200", description = "Статистика получена")
+  @GetMapping("/logging/stats")
+  public ResponseEntity<LoggingStatistics> getLoggingStatistics() {
+    return ResponseEntity.ok(appLoggerCore.getStatistics());
+  }
+
+  /** Состояние пула хеширования паролей: очередь, занятые потоки, отказы и среднее время хеша. */
+  @Operation(summary = "Получение статистики хеширования паролей")
+  @ApiResponse(responseCode = "200", description = "Статистика получена")
+  @GetMapping("/password-hashing/stats")
+  public ResponseEntity<HashingStatistics> getHashingStatistics() {
+    return ResponseEntity.ok(passwordHasher.getStatistics());
+  }
+
+  /** Состояние индекса членства: количество связей и оценка памяти на миллион связей. */
+  @Operation(summary = "Получение статистики индекса членства в группах")
+  @ApiResponse(responseCode = "200", description = "Статистика получена")
+  @GetMapping("/membership-index/stats")
+  public ResponseEntity<MembershipIndexStatistics> getMembershipIndexStatistics() {
+    return ResponseEntity.ok(membershipService.getStatistics());
+  }
+
   /**
    * Поиск файла с необходимой датой. Делегирует вызов {@link DebugService}
    *
@@ -50,14 +131,17 @@ public class DebugController {
    */
   @Operation(summary = "Получение лога сервера на конкретную дату в виде строки. Если произошла ошибка, строка пустая")
   @ApiResponses({
-    @ApiResponse(responseCode = "200", description = "Лог найден и возвращен"),
+    @ApiResponse(responseCode = "200", description = "Лог найден и возвращен; архив отдаётся"
+        + " сжатым (Content-Encoding: gzip), если клиент принимает gzip"),
     @ApiResponse(responseCode = "404", description = "Лог для такой даты не найден")
   })
   @GetMapping("/log")
   public ResponseEntity<Resource> getLogByData(
       @Valid @Min(1970) @RequestParam(required = true) Short year,
       @Valid @Min(1) @Max(12) @RequestParam(required = true) Short month,
-      @Valid @Min(1) @Max(31) @RequestParam(required = true) Short day) {
+      @Valid @Min(1) @Max(31) @RequestParam(required = true) Short day,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding)
+      throws IOException {
     LocalDate taskParams;
     try {
       taskParams = LocalDate.of(year, month, day);
@@ -68,11 +152,43 @@ public class DebugController {
     if (filePath == null) {
       return ResponseEntity.notFound().build();
     }
-    Resource resource = new FileSystemResource(filePath.toFile());
-    String headerValue = "attachment; filename=%s".formatted(filePath.getFileName());
-    return ResponseEntity.ok()
-            .header(HttpHeaders.CONTENT_DISPOSITION, headerValue)
-            .contentType(MediaType.TEXT_PLAIN)
-            .body(resource);
+    return LogFileResponseFactory.fromFile(filePath, acceptEncoding);
+  }
+
+  /**
+   * События лога за интервал {@code [from, to)}, по умолчанию за последний час. Без фильтров
+   * передаются только нужные диапазоны файлов, см. {@link LogQueryService}.
+   */
+  @Operation(summary = "Получение событий лога за интервал времени с фильтром по уровню (не ниже) и логгеру")
+  @ApiResponses({
+    @ApiResponse(responseCode = "200", description = "События лога переданы"),
+    @ApiResponse(responseCode = "400", description = "Неверный интервал или уровень")
+  })
+  @GetMapping("/log/query")
+  public ResponseEntity<StreamingResponseBody> queryLog(
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime to,
+      @RequestParam(required = false) String level,
+      @RequestParam(required = false) String logger) throws IOException {
+    LocalDateTime end = to == null ? LocalDateTime.now() : to;
+    LocalDateTime start = from == null ? end.minusHours(1) : from;
+    if (!start.isBefore(end)) {
+      throw new InvalidSearchParameterException("'from' must be before 'to'");
+    }
+    Level minLevel = level == null ? null : Level.toLevel(level, null);
+    if (level != null && minLevel == null) {
+      throw new InvalidSearchParameterException("Unknown log level " + level);
+    }
+    var response = ResponseEntity.ok().contentType(MediaType.TEXT_PLAIN);
+    if (minLevel == null && logger == null) {
+      List<LogSlice> slices = logQueryService.findSlices(start, end);
+      long length = slices.stream().mapToLong(LogSlice::length).sum();
+      return response
+          .contentLength(length)
+          .body(out -> logQueryService.transferSlices(slices, Channels.newChannel(out)));
+    }
+    return response.body(out -> logQueryService.writeFiltered(start, end, minLevel, logger, out));
   }
 }
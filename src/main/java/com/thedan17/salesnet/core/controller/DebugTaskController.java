@@ -2,13 +2,16 @@ package com.thedan17.salesnet.core.controller;
 
 import com.thedan17.salesnet.core.object.data.AsyncTaskInfo;
 import com.thedan17.salesnet.core.service.DebugTaskService;
+import com.thedan17.salesnet.util.LogFileResponseFactory;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.time.DateTimeException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -17,13 +20,14 @@ import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cglib.core.Local;
-import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Tag(name = "Debug Task API", description = "Запросы для разработчиков, требующие обработки")
 @RestController
@@ -38,7 +42,8 @@ public class DebugTaskController {
   @Operation(summary = "Создание задачи получения лог-файла по дате")
   @ApiResponses({
     @ApiResponse(responseCode = "201", description = "Задача создана"),
-    @ApiResponse(responseCode = "400", description = "Дата невалидна")
+    @ApiResponse(responseCode = "400", description = "Дата невалидна"),
+    @ApiResponse(responseCode = "429", description = "Очередь задач заполнена, см. Retry-After")
   })
   @PostMapping("/log/create_task")
   public ResponseEntity<Integer> createGetLogTask(
@@ -62,6 +67,54 @@ public class DebugTaskController {
     return ResponseEntity.ok(debugTaskService.getAllTasks());
   }
 
+  @Operation(summary = "Получение информации по задаче, включая прогресс выполнения")
+  @ApiResponses({
+    @ApiResponse(responseCode = "200", description = "Информация получена"),
+    @ApiResponse(responseCode = "404", description = "Задачи с таким ID не существует")
+  })
+  @GetMapping("/log/get_task")
+  public ResponseEntity<AsyncTaskInfo<LocalDate, Path>> getTask(
+      @Valid @Min(1) @RequestParam Integer taskId) {
+    return ResponseEntity.ok(debugTaskService.getTaskInfo(taskId));
+  }
+
+  @Operation(summary = "Отмена задачи; завершённая задача не меняется")
+  @ApiResponses({
+    @ApiResponse(responseCode = "200", description = "Задача отменена или уже была завершена"),
+    @ApiResponse(responseCode = "404", description = "Задачи с таким ID не существует")
+  })
+  @PostMapping("/log/cancel_task")
+  public ResponseEntity<AsyncTaskInfo<LocalDate, Path>> cancelTask(
+      @Valid @Min(1) @RequestParam Integer taskId) {
+    return ResponseEntity.ok(debugTaskService.cancelTask(taskId));
+  }
+
+  @Operation(
+      summary = "Ожидание изменения статуса задачи (long-poll)",
+      description = "Ответ приходит, как только статус отличается от status (по умолчанию -"
+          + " текущего), или через timeout секунд с текущим состоянием задачи")
+  @ApiResponses({
+    @ApiResponse(responseCode = "200", description = "Состояние задачи получено"),
+    @ApiResponse(responseCode = "404", description = "Задачи с таким ID не существует")
+  })
+  @GetMapping("/log/await_task")
+  public DeferredResult<AsyncTaskInfo<LocalDate, Path>> awaitTask(
+      @Valid @Min(1) @RequestParam Integer taskId,
+      @RequestParam(required = false) AsyncTaskInfo.Status status,
+      @Valid @Min(1) @Max(120) @RequestParam(defaultValue = "30") Integer timeout) {
+    return debugTaskService.awaitStatusChange(taskId, status, Duration.ofSeconds(timeout));
+  }
+
+  @Operation(summary = "Поток событий (SSE) с состоянием задачи при каждом изменении статуса")
+  @ApiResponses({
+    @ApiResponse(responseCode = "200", description = "Поток открыт, закрывается по завершении"),
+    @ApiResponse(responseCode = "404", description = "Задачи с таким ID не существует")
+  })
+  @GetMapping(value = "/log/task_events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter taskEvents(@Valid @Min(1) @RequestParam Integer taskId) {
+    return debugTaskService.streamStatus(taskId);
+  }
+
   @Operation(summary = "Получение статуса конкретной задачи")
   @ApiResponses({
     @ApiResponse(responseCode = "200", description = "Статус получен"),
@@ -80,16 +133,14 @@ public class DebugTaskController {
     @ApiResponse(responseCode = "404", description = "Задача с таким ID не существует")
   })
   @GetMapping("/log/get_result")
-  public ResponseEntity<Resource> downloadFile(@Valid @Min(1) @RequestParam Integer taskId) {
+  public ResponseEntity<Resource> downloadFile(
+      @Valid @Min(1) @RequestParam Integer taskId,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding)
+      throws IOException {
     Path filePath = debugTaskService.getLogFile(taskId);
     if (filePath == null) {
       return ResponseEntity.noContent().build();
     }
-    Resource resource = new FileSystemResource(filePath.toFile());
-    String headerValue = "attachment; filename=%s".formatted(filePath.getFileName());
-    return ResponseEntity.ok()
-        .header(HttpHeaders.CONTENT_DISPOSITION, headerValue)
-        .contentType(MediaType.TEXT_PLAIN)
-        .body(resource);
+    return LogFileResponseFactory.fromFile(filePath, acceptEncoding);
   }
 }
@@ -5,8 +5,11 @@ import com.thedan17.salesnet.core.object.dto.AccountInfoDto;
 import com.thedan17.salesnet.core.object.dto.GroupCreateDto;
 import com.thedan17.salesnet.core.object.dto.GroupDto;
 import com.thedan17.salesnet.core.object.dto.GroupIdDto;
+import com.thedan17.salesnet.core.object.entity.Group;
 import com.thedan17.salesnet.core.service.GroupService;
+import com.thedan17.salesnet.util.CommonUtil;
 import com.thedan17.salesnet.util.EntityMapper;
+import com.thedan17.salesnet.util.NdjsonStreamWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -28,7 +31,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /** Контроллер для операций, связанных непосредственно с сущностью {@code Group}. */
 @Tag(name = "Group API", description = "Операции, связанные напрямую с группами")
@@ -40,12 +45,33 @@ public class GroupController {
   @Autowired private GroupRepository groupRepository;
   @Autowired private EntityMapper entityMapper;
 
-  @Operation(summary = "Получить все группы")
+  @Autowired private NdjsonStreamWriter ndjsonStreamWriter;
+
+  /** Получение всех групп; при указании {@code afterId} или {@code limit} - страница по курсору. */
+  @Operation(
+      summary = "Получить все группы",
+      description = "Без параметров возвращает всю таблицу; для постраничного чтения передайте "
+          + "afterId (id последней полученной группы) и limit.")
   @ApiResponses({@ApiResponse(responseCode = "200", description = "Список получен")})
   @GetMapping
-  public ResponseEntity<List<GroupIdDto>> getAllAccounts() {
-    return ResponseEntity.ok(
-        groupRepository.findAll().stream().map(entityMapper::groupToIdDto).toList());
+  public ResponseEntity<List<GroupIdDto>> getAllAccounts(
+      @RequestParam(required = false) Long afterId,
+      @Valid @Min(1) @RequestParam(required = false) Integer limit) {
+    List<Group> groups =
+        afterId == null && limit == null
+            ? groupRepository.findAll()
+            : groupRepository.findByIdGreaterThanOrderByIdAsc(
+                afterId == null ? 0L : afterId, CommonUtil.pageLimit(limit));
+    return ResponseEntity.ok(groups.stream().map(entityMapper::groupToIdDto).toList());
+  }
+
+  /** Получение всех групп потоком NDJSON по возрастанию id. */
+  @Operation(summary = "Получить все группы потоком (NDJSON)")
+  @ApiResponses({@ApiResponse(responseCode = "200", description = "Поток начат")})
+  @GetMapping("/stream")
+  public ResponseEntity<StreamingResponseBody> streamAllGroups() {
+    return ndjsonStreamWriter.response(
+        groupRepository::streamAllOrderById, entityMapper::groupToIdDto);
   }
 
   /**
@@ -1,18 +1,47 @@
 package com.thedan17.salesnet.core.dao;
 
+import com.thedan17.salesnet.core.object.data.MembershipRow;
 import com.thedan17.salesnet.core.object.entity.AccGroupLink;
 import com.thedan17.salesnet.core.object.entity.Account;
 import com.thedan17.salesnet.core.object.entity.Group;
+import jakarta.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 /** Интерфейс для хранения Entity {@code AccGroupLink} в базе данных. */
 public interface AccGroupLinkRepository extends JpaRepository<AccGroupLink, Long> {
   /** Определение дополнительного метода интерфейса, который сгенерирует Spring. */
   Optional<AccGroupLink> findByAccountIdAndGroupId(Long accountId, Long groupId);
 
+  /** Проверка связи по уникальному индексу {@code (account_id, group_id)} без загрузки сущности. */
+  boolean existsByAccountIdAndGroupId(Long accountId, Long groupId);
+
   List<AccGroupLink> findByAccount(Account account);
 
   List<AccGroupLink> findByGroup(Group group);
+
+  /** Идентификаторы аккаунтов-участников группы без загрузки самих аккаунтов. */
+  @Query("SELECT l.account.id FROM AccGroupLink l WHERE l.group.id = :groupId")
+  List<Long> findAccountIdsByGroupId(@Param("groupId") Long groupId);
+
+  /** Страница по курсору: записи с id больше {@code afterId} по возрастанию id. */
+  List<AccGroupLink> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+  /** Страница связей по курсору в виде id, без загрузки аккаунтов и групп. */
+  @Query(
+      "SELECT new com.thedan17.salesnet.core.object.data.MembershipRow(l.id, l.account.id, "
+          + "l.group.id) FROM AccGroupLink l WHERE l.id > :afterId ORDER BY l.id")
+  List<MembershipRow> findMembershipRowsAfter(@Param("afterId") Long afterId, Limit limit);
+
+  /** Потоковое чтение всей таблицы по возрастанию id с ограниченным размером выборки из БД. */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT e FROM AccGroupLink e ORDER BY e.id")
+  Stream<AccGroupLink> streamAllOrderById();
 }
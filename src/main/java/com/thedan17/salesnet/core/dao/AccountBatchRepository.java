@@ -0,0 +1,63 @@
+package com.thedan17.salesnet.core.dao;
+
+import com.thedan17.salesnet.core.object.entity.Account;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Пакетные операции с таблицей аккаунтов напрямую через JDBC.
+ *
+ * <p>{@code Account} использует {@code GenerationType.IDENTITY}, при котором Hibernate не
+ * группирует вставки, поэтому массовая регистрация пишет строки через {@code batchUpdate}.
+ */
+@Repository
+public class AccountBatchRepository {
+  private static final String INSERT_ACCOUNT =
+      "INSERT INTO accounts "
+          + "(login, email, password_hash, first_name, second_name, type, created_at) "
+          + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+  private static final String SELECT_EXISTING_LOGINS =
+      "SELECT login FROM accounts WHERE login IN (:logins)";
+  private final JdbcTemplate jdbcTemplate;
+  private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+  /** Конструктор для автопривязки Spring. */
+  public AccountBatchRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+  }
+
+  /** Логины из переданных, которые уже заняты, одним запросом. */
+  public Set<String> findExistingLogins(Collection<String> logins) {
+    if (logins.isEmpty()) {
+      return new HashSet<>();
+    }
+    return new HashSet<>(
+        namedJdbcTemplate.queryForList(
+            SELECT_EXISTING_LOGINS, Map.of("logins", logins), String.class));
+  }
+
+  /** Вставка аккаунтов одним JDBC-пакетом; id аккаунтам не присваиваются. */
+  public void insertAll(List<Account> accounts) {
+    jdbcTemplate.batchUpdate(
+        INSERT_ACCOUNT,
+        accounts,
+        accounts.size(),
+        (statement, account) -> {
+          statement.setString(1, account.getLogin());
+          statement.setString(2, account.getEmail());
+          statement.setString(3, account.getPasswordHash());
+          statement.setString(4, account.getFirstName());
+          statement.setString(5, account.getSecondName());
+          statement.setString(6, account.getType());
+          statement.setTimestamp(7, Timestamp.valueOf(account.getCreatedAt()));
+        });
+  }
+}
@@ -1,9 +1,24 @@
 package com.thedan17.salesnet.core.dao;
 
 import com.thedan17.salesnet.core.object.entity.Account;
+import jakarta.persistence.QueryHint;
+import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 /** Интерфейс для хранения Entity {@code Account} в базе данных. */
 public interface AccountRepository extends JpaRepository<Account, Long>,
-        JpaSpecificationExecutor<Account> {}
+        JpaSpecificationExecutor<Account> {
+  /** Страница по курсору: записи с id больше {@code afterId} по возрастанию id. */
+  List<Account> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+  /** Потоковое чтение всей таблицы по возрастанию id с ограниченным размером выборки из БД. */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT e FROM Account e ORDER BY e.id")
+  Stream<Account> streamAllOrderById();
+}
@@ -1,9 +1,45 @@
 package com.thedan17.salesnet.core.dao;
 
+import com.thedan17.salesnet.core.object.data.GroupMemberRow;
 import com.thedan17.salesnet.core.object.entity.Group;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 /** Интерфейс для хранения Entity {@code Group} в базе данных. */
 public interface GroupRepository extends JpaRepository<Group, Long>,
-        JpaSpecificationExecutor<Group> {}
+        JpaSpecificationExecutor<Group> {
+  /** Страница по курсору: записи с id больше {@code afterId} по возрастанию id. */
+  List<Group> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+  /** Потоковое чтение всей таблицы по возрастанию id с ограниченным размером выборки из БД. */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query("SELECT e FROM Group e ORDER BY e.id")
+  Stream<Group> streamAllOrderById();
+
+  /** Id групп страницы по курсору, без загрузки самих групп. */
+  @Query("SELECT g.id FROM Group g WHERE g.id > :afterId ORDER BY g.id")
+  List<Long> findIdsAfter(@Param("afterId") Long afterId, Limit limit);
+
+  /** Все группы с участниками одним запросом, строки упорядочены по id группы. */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query(
+      "SELECT new com.thedan17.salesnet.core.object.data.GroupMemberRow(g, a) FROM Group g "
+          + "LEFT JOIN g.members l LEFT JOIN l.account a ORDER BY g.id, a.id")
+  Stream<GroupMemberRow> streamGroupsWithMembers();
+
+  /** Группы с указанными id и их участники одним запросом, строки упорядочены по id группы. */
+  @Query(
+      "SELECT new com.thedan17.salesnet.core.object.data.GroupMemberRow(g, a) FROM Group g "
+          + "LEFT JOIN g.members l LEFT JOIN l.account a WHERE g.id IN :groupIds "
+          + "ORDER BY g.id, a.id")
+  List<GroupMemberRow> findGroupsWithMembers(@Param("groupIds") Collection<Long> groupIds);
+}
@@ -1,26 +1,44 @@
 package com.thedan17.salesnet.core.dao;
 
 import com.thedan17.salesnet.core.object.entity.Group;
+import jakarta.persistence.QueryHint;
 import java.util.Set;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-/** Репозиторий для кастомных запросов поиска групп. */
+/**
+ * Репозиторий для кастомных запросов поиска групп.
+ *
+ * <p>Результаты запросов хранятся в кэше запросов Hibernate. Для native SQL таблицы указаны явно
+ * ({@link HibernateHints#HINT_NATIVE_SPACES}), иначе Hibernate не узнает, когда результат устарел.
+ */
 @Repository
 public interface GroupSearchRepository extends JpaRepository<Group, Long> {
   /** Обычный поиск в таблице по критериям на native SQL. */
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+    @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "groups")
+  })
   @Query(
       value = "SELECT * FROM groups g WHERE g.name ILIKE '%' || :substr || '%';",
       nativeQuery = true)
   public Set<Group> findByNameSubstringPsql(@Param("substr") String substring);
 
   /** Обычный поиск в таблице по критериям на JPQL. */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   @Query("SELECT g FROM Group g WHERE LOWER(g.name) LIKE LOWER(CONCAT(CONCAT('%', :substr), '%'))")
   public Set<Group> findByNameSubstringJpql(@Param("substr") String substring);
 
   /** Поиск в смежных таблицах по критериям на native SQL. */
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+    @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "groups"),
+    @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "acc_group_link")
+  })
   @Query(
       value =
           "SELECT grp.* FROM (SELECT * FROM acc_group_link WHERE account_id = :accId) links "
@@ -30,8 +48,35 @@ public interface GroupSearchRepository extends JpaRepository<Group, Long> {
   public Set<Group> findByNameInAccPsql(@Param("substr") String substr, @Param("accId") Long accId);
 
   /** Поиск в смежных таблицах по критериям на JPQL. */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   @Query(
       "SELECT link.group FROM AccGroupLink link WHERE link.account.id = :accId "
           + "AND LOWER(link.group.name) LIKE LOWER(CONCAT(CONCAT('%', :substr), '%'))")
   public Set<Group> findByNameInAccJpql(@Param("substr") String substr, @Param("accId") Long accId);
+
+  /** Поиск по подстроке, использующий триграммный индекс по {@code lower(name)} в PostgreSQL. */
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+    @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "groups")
+  })
+  @Query(
+      value = "SELECT * FROM groups g WHERE lower(g.name) LIKE '%' || lower(:substr) || '%'",
+      nativeQuery = true)
+  public Set<Group> findByNameSubstringTrigram(@Param("substr") String substring);
+
+  /** Поиск в смежных таблицах, использующий триграммный индекс по {@code lower(name)}. */
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+    @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "groups"),
+    @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "acc_group_link")
+  })
+  @Query(
+      value =
+          "SELECT grp.* FROM acc_group_link links "
+              + "INNER JOIN groups grp ON links.group_id = grp.id "
+              + "WHERE links.account_id = :accId "
+              + "AND lower(grp.name) LIKE '%' || lower(:substr) || '%'",
+      nativeQuery = true)
+  public Set<Group> findByNameInAccTrigram(
+      @Param("substr") String substr, @Param("accId") Long accId);
 }
@@ -0,0 +1,28 @@
+package com.thedan17.salesnet.core.dao;
+
+import com.thedan17.salesnet.core.object.entity.UrlStat;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/** Интерфейс для хранения Entity {@code UrlStat} в базе данных. */
+public interface UrlStatRepository extends JpaRepository<UrlStat, Long> {
+  /** Записи указанных шаблонов за один интервал. */
+  List<UrlStat> findByBucketStartAndPatternIn(LocalDateTime bucketStart, Collection<String> patterns);
+
+  /** Суммарное количество обращений по каждому шаблону за всё время: пары (шаблон, количество). */
+  @Query("SELECT s.pattern, SUM(s.hits) FROM UrlStat s GROUP BY s.pattern")
+  List<Object[]> sumHitsByPattern();
+
+  /** Записи интервалов из {@code [from, to)}, для одного шаблона или всех, если он {@code null}. */
+  @Query(
+      "SELECT s FROM UrlStat s WHERE s.bucketStart >= :from AND s.bucketStart < :to"
+          + " AND (:pattern IS NULL OR s.pattern = :pattern) ORDER BY s.bucketStart, s.pattern")
+  List<UrlStat> findHistory(
+      @Param("pattern") String pattern,
+      @Param("from") LocalDateTime from,
+      @Param("to") LocalDateTime to);
+}
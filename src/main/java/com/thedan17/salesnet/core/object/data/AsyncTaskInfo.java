@@ -6,11 +6,19 @@ import lombok.Data;
 
 @Data
 public class AsyncTaskInfo<I, O> {
+  /** Время хранения завершённой задачи, если не задано иное. */
+  public static final Duration DEFAULT_RETENTION = Duration.ofMinutes(5);
+
   private final Integer id;
   private volatile Status status;
   private final I params;
   private O result;
+  /** Выполненная часть задачи в процентах. */
+  private volatile int progress;
+  /** Причина завершения со статусом {@code FAILED} или {@code CANCELLED}. */
+  private String error;
   private Instant completedAt;
+  private Instant expiresAt;
   private Long minutesUntilDeletion;
 
   public AsyncTaskInfo(Integer id, I params) {
@@ -21,14 +29,21 @@ public class AsyncTaskInfo<I, O> {
   }
 
   public void calcDuration() {
-    Instant deletionTime = completedAt.plus(Duration.ofMinutes(5));
-    Instant now = Instant.now();
-    Duration time = Duration.between(now, deletionTime);
+    if (expiresAt == null) {
+      return;
+    }
+    Duration time = Duration.between(Instant.now(), expiresAt);
     this.minutesUntilDeletion = time.toMinutes();
   }
 
   public void setCompletedAt(Instant completedAt) {
+    setCompletedAt(completedAt, DEFAULT_RETENTION);
+  }
+
+  /** Время завершения и время, через которое задача будет удалена. */
+  public void setCompletedAt(Instant completedAt, Duration retention) {
     this.completedAt = completedAt;
+    this.expiresAt = completedAt.plus(retention);
     calcDuration();
   }
 
@@ -36,10 +51,16 @@ public class AsyncTaskInfo<I, O> {
     return this.minutesUntilDeletion;
   }
 
+  /** Завершена ли задача (результат больше не изменится). */
+  public boolean isFinished() {
+    return status == Status.DONE || status == Status.FAILED || status == Status.CANCELLED;
+  }
+
   public enum Status {
     PENDING,
     RUNNING,
     DONE,
-    FAILED
+    FAILED,
+    CANCELLED
   }
-}
\ No newline at end of file
+}
@@ -2,22 +2,47 @@ package com.thedan17.salesnet.core.object.data;
 
 import com.thedan17.salesnet.core.validation.ValidationError;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.function.Function;
 
 import lombok.*;
 import lombok.experimental.Accessors;
 import org.springframework.data.util.Pair;
 
-/** Класс для представления результатов обработки элементов. */
+/**
+ * Класс для представления результатов обработки элементов.
+ *
+ * <p>Результаты хранятся в порядке добавления и дополнительно по индексу элемента, поэтому
+ * добавление и обновление не зависят от количества элементов. Методы изменения синхронизированы,
+ * результаты параллельных обработчиков можно объединять через {@link #merge(BulkResultDetailed)}.
+ */
 @Getter
 @Accessors(chain = true)
 public class BulkResultDetailed {
   private Integer totalAmount = 0;
   private Integer successAmount = 0;
   private Integer failureAmount = 0;
-  private final List<ElementResult> results = new ArrayList<>();
+  private final List<ElementResult> results;
+
+  @Getter(AccessLevel.NONE)
+  private final Map<Long, ElementResult> resultsByIndex;
+
+  /** Конструктор пустого результата. */
+  public BulkResultDetailed() {
+    this(16);
+  }
+
+  /**
+   * Конструктор с ожидаемым количеством элементов, чтобы не перестраивать структуры при росте.
+   *
+   * @param expectedSize ожидаемое количество элементов
+   */
+  public BulkResultDetailed(int expectedSize) {
+    this.results = new ArrayList<>(expectedSize);
+    this.resultsByIndex = new HashMap<>((int) (expectedSize / 0.75f) + 1);
+  }
 
   /** Внутренний класс для представления результата обработки каждого элемента. */
   @Data
@@ -48,17 +73,6 @@ public class BulkResultDetailed {
     return new ElementError(error.getSource(), error.getMessage());
   }
 
-  /** Присваивание количества элементов с помощью StreamAPI на основе имеющихся результатов. */
-  private void initAmounts() {
-    this.totalAmount = this.results.size();
-    this.successAmount =
-        Math.toIntExact(
-            this.results.stream()
-                .filter(elem -> elem.getStatus() == ElementStatus.SUCCESS)
-                .count());
-    this.failureAmount = totalAmount - successAmount;
-  }
-
   /** Увеличение характеристик кол-ва элементов при итеративном подходе. */
   private void increaseAmounts(boolean isSuccess) {
     if (Boolean.TRUE.equals(isSuccess)) {
@@ -69,47 +83,48 @@ public class BulkResultDetailed {
     this.totalAmount++;
   }
 
-  private void updateResult(ElementResult elem) {
-    Optional<ElementResult> result =
-        this.results.stream().filter(item -> item.getIndex().equals(elem.getIndex())).findFirst();
-    if (result.isPresent()) {
-      if (elem.status == ElementStatus.FAILURE) {
-        result.get().status = elem.status;
-        result.get().errors.addAll(elem.errors);
+  /** Обновление существующего результата: ошибки добавляются, успех становится неудачей. */
+  private void updateResult(ElementResult result, ElementResult elem) {
+    if (elem.status == ElementStatus.FAILURE) {
+      if (result.status == ElementStatus.SUCCESS) {
+        this.successAmount--;
+        this.failureAmount++;
       }
-    } else {
-      throw new IllegalStateException(
-          "Impossible for an object to be missing when calling 'updateResult' method.");
+      result.status = elem.status;
+      result.errors.addAll(elem.errors);
     }
   }
 
   /**
-   * Обёртка для добавления результата, с удобной активацией подсчёта элементов.
+   * Добавление результата с подсчётом элементов.
    *
    * <p>Если объект с таким индексом уже существует, обновляет его.
    *
-   * @see BulkResultDetailed#updateResult(ElementResult)
+   * @see BulkResultDetailed#updateResult(ElementResult, ElementResult)
    */
-  private void addResult(ElementResult result, boolean isUpdateAmounts) {
-    Optional<ElementResult> elem =
-        this.results.stream().filter(item -> item.getIndex().equals(result.getIndex())).findFirst();
-    if (elem.isPresent()) {
-      updateResult(result);
+  public synchronized void addResult(ElementResult result) {
+    ElementResult existing = this.resultsByIndex.putIfAbsent(result.getIndex(), result);
+    if (existing != null) {
+      updateResult(existing, result);
     } else {
       this.results.add(result);
-      if (isUpdateAmounts) {
-        increaseAmounts(result.status == ElementStatus.SUCCESS);
-      }
+      increaseAmounts(result.status == ElementStatus.SUCCESS);
     }
   }
 
   /**
-   * Перегруженный метод для значения по умолчанию, реализует неявный вызов {@code increaseAmounts}.
+   * Объединение с результатами другого обработчика, например параллельного.
    *
-   * @see BulkResultDetailed#addResult(ElementResult, boolean)
+   * <p>Результаты {@code other} добавляются в порядке их добавления в {@code other}.
    */
-  public void addResult(ElementResult elementResult) {
-    this.addResult(elementResult, true);
+  public void merge(BulkResultDetailed other) {
+    List<ElementResult> otherResults;
+    synchronized (other) {
+      otherResults = new ArrayList<>(other.results);
+    }
+    synchronized (this) {
+      otherResults.forEach(this::addResult);
+    }
   }
 
   /** Инъекция зависимости для автоматизированной обработки одного элемента. */
@@ -132,19 +147,17 @@ public class BulkResultDetailed {
   /**
    * Обёртка для прямого добавления результата {@link BulkResultDetailed#createResult}.
    *
-   * <p>При добавлении результат передаётся в {@link #addResult(ElementResult, boolean)} с флагом
-   * {@code isUpdateAmounts = true}.
+   * <p>Результат передаётся в {@link #addResult(ElementResult)}.
    */
   public <T> void addResult(long index, T item, Function<T, List<ValidationError>> processor) {
-    this.addResult(createResult(index, item, processor), true);
+    this.addResult(createResult(index, item, processor));
   }
 
   /** Аналог {@link BulkResultDetailed#addResult(long, Object, Function)}, но для списка целиком. */
   public <T> void addResults(
       List<Pair<Long, T>> indexItems, Function<T, List<ValidationError>> processor) {
     indexItems.forEach(
-        pair -> addResult(createResult(pair.getFirst(), pair.getSecond(), processor), false));
-    initAmounts();
+        pair -> addResult(createResult(pair.getFirst(), pair.getSecond(), processor)));
   }
 
   /** Получение процента успешных элементов на основе уже имеющихся значений. */
@@ -0,0 +1,23 @@
+package com.thedan17.salesnet.core.object.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/** Снимок статистики работы одного кэша {@link com.thedan17.salesnet.util.CacheIdManager}. */
+@Data
+@AllArgsConstructor
+public class CacheStatistics {
+  private String evictionPolicy;
+  private Long size;
+  private Long maxSize;
+  private Long hitCount;
+  private Long missCount;
+  private Long evictionCount;
+  private Long rejectedCount;
+
+  /** Доля попаданий среди всех обращений, от 0 до 1. */
+  public Double getHitRate() {
+    long total = hitCount + missCount;
+    return total == 0 ? 0.0 : (double) hitCount / total;
+  }
+}
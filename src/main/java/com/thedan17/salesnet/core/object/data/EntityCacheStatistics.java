@@ -0,0 +1,22 @@
+package com.thedan17.salesnet.core.object.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/** Снимок статистики одного региона кэша второго уровня Hibernate. */
+@Data
+@AllArgsConstructor
+public class EntityCacheStatistics {
+  /** Количество записей региона, {@code null}, если провайдер его не сообщает. */
+  private Long size;
+  private Long maxSize;
+  private Long hitCount;
+  private Long missCount;
+  private Long putCount;
+
+  /** Доля попаданий среди всех обращений, от 0 до 1. */
+  public Double getHitRate() {
+    long total = hitCount + missCount;
+    return total == 0 ? 0.0 : (double) hitCount / total;
+  }
+}
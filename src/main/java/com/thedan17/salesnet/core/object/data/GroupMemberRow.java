@@ -0,0 +1,12 @@
+package com.thedan17.salesnet.core.object.data;
+
+import com.thedan17.salesnet.core.object.entity.Account;
+import com.thedan17.salesnet.core.object.entity.Group;
+
+/**
+ * Строка выборки "группа - участник" одним запросом с соединением таблиц.
+ *
+ * @param group группа
+ * @param account участник группы или {@code null}, если у группы нет участников
+ */
+public record GroupMemberRow(Group group, Account account) {}
@@ -0,0 +1,23 @@
+package com.thedan17.salesnet.core.object.data;
+
+/**
+ * Способ выполнения поиска групп по подстроке имени в БД.
+ *
+ * <p>Задаётся свойством {@code salesnet.search.group.strategy}.
+ */
+public enum GroupSearchStrategy {
+  /** {@code LOWER(name) LIKE} на JPQL, работает на любой БД, индексы не используются. */
+  JPQL,
+  /** {@code ILIKE} на native SQL, только PostgreSQL. */
+  NATIVE_ILIKE,
+  /**
+   * {@code lower(name) LIKE} на native SQL, который PostgreSQL выполняет по GIN-индексу
+   * {@code pg_trgm}, созданному при старте приложения.
+   */
+  TRIGRAM_INDEX,
+  /**
+   * Поиск по {@link com.thedan17.salesnet.util.NgramIndex} в памяти приложения; до окончания его
+   * построения и для поиска среди групп аккаунта используется JPQL.
+   */
+  IN_MEMORY_INDEX
+}
@@ -0,0 +1,23 @@
+package com.thedan17.salesnet.core.object.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/** Снимок состояния пула хеширования паролей. */
+@Data
+@AllArgsConstructor
+public class HashingStatistics {
+  /** Итерации PBKDF2 для новых хешей. */
+  private Integer iterations;
+  private Integer workers;
+  /** Хешей, вычисляемых на момент снимка, включая массовую регистрацию. */
+  private Integer active;
+  private Integer queueCapacity;
+  /** Паролей в очереди пула и в ожидании разрешения на момент снимка. */
+  private Integer queued;
+  /** Вычисленных хешей, включая хеширование массовой регистрации. */
+  private Long hashedCount;
+  /** Отклонённых из-за заполненной очереди запросов. */
+  private Long rejectedCount;
+  private Double averageMillis;
+}
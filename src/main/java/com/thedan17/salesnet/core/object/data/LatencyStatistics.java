@@ -0,0 +1,24 @@
+package com.thedan17.salesnet.core.object.data;
+
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Снимок статистики длительности запросов одного endpoint'а за окно времени.
+ *
+ * <p>Длительности в микросекундах с относительной погрешностью до 1/16, считаются только по
+ * попавшим в выборку запросам.
+ */
+@Data
+@AllArgsConstructor
+public class LatencyStatistics {
+  private Long requestCount;
+  private Long sampledCount;
+  private Long p50Micros;
+  private Long p95Micros;
+  private Long p99Micros;
+  private Long maxMicros;
+  /** Количество ответов по HTTP-статусам. */
+  private Map<Integer, Long> statusCounts;
+}
@@ -0,0 +1,25 @@
+package com.thedan17.salesnet.core.object.data;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** Окно времени, за которое выдаётся статистика длительности запросов. */
+@Getter
+@AllArgsConstructor
+public enum LatencyWindow {
+  ONE_MINUTE("1m", Duration.ofMinutes(1)),
+  FIVE_MINUTES("5m", Duration.ofMinutes(5)),
+  /** Всё время работы приложения. */
+  ALL("all", null);
+
+  private final String code;
+  private final Duration duration;
+
+  /** Поиск окна по коду из запроса ({@code 1m}, {@code 5m}, {@code all}). */
+  public static Optional<LatencyWindow> fromCode(String code) {
+    return Arrays.stream(values()).filter(w -> w.code.equalsIgnoreCase(code)).findFirst();
+  }
+}
@@ -0,0 +1,10 @@
+package com.thedan17.salesnet.core.object.data;
+
+import java.nio.file.Path;
+
+/** Непрерывный диапазон байт {@code [start, end)} файла лога. */
+public record LogSlice(Path file, long start, long end) {
+  public long length() {
+    return end - start;
+  }
+}
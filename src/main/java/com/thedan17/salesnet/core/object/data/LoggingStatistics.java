@@ -0,0 +1,19 @@
+package com.thedan17.salesnet.core.object.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/** Снимок состояния асинхронной записи лога приложения. */
+@Data
+@AllArgsConstructor
+public class LoggingStatistics {
+  private String overflowPolicy;
+  private Integer capacity;
+  /** Событий в очереди на момент снимка. */
+  private Integer queued;
+  private Long enqueuedCount;
+  private Long droppedCount;
+  private Long writtenCount;
+  /** Количество пакетов записи; каждый пакет завершается одним сбросом буферов на диск. */
+  private Long batchCount;
+}
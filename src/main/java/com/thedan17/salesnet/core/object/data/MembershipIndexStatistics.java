@@ -0,0 +1,19 @@
+package com.thedan17.salesnet.core.object.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/** Снимок состояния индекса членства в памяти. */
+@Data
+@AllArgsConstructor
+public class MembershipIndexStatistics {
+  /** Построен ли индекс; до этого проверки идут в БД. */
+  private Boolean ready;
+  private Integer accounts;
+  private Integer groups;
+  private Long links;
+  /** Оценка занимаемой памяти в байтах. */
+  private Long estimatedBytes;
+  /** Оценка памяти на миллион связей в байтах. */
+  private Long bytesPerMillionLinks;
+}
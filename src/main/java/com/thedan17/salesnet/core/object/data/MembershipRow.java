@@ -0,0 +1,4 @@
+package com.thedan17.salesnet.core.object.data;
+
+/** Связь аккаунта с группой без загрузки сущностей, для построения индекса членства. */
+public record MembershipRow(Long id, Long accountId, Long groupId) {}
@@ -0,0 +1,19 @@
+package com.thedan17.salesnet.core.object.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDateTime;
+import lombok.Data;
+
+/** Проекция сущности {@code UrlStat} для выдачи истории обращений. */
+@Schema(description = "Количество обращений к шаблону endpoint за интервал времени")
+@Data
+public class UrlStatDto {
+  @Schema(description = "Шаблон endpoint")
+  private String pattern;
+
+  @Schema(description = "Начало интервала")
+  private LocalDateTime bucketStart;
+
+  @Schema(description = "Количество обращений за интервал")
+  private Long hits;
+}
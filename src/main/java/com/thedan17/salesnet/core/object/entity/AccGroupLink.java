@@ -7,6 +7,8 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Класс для хранения в БД связей между {@code Account} и {@code Group}.
@@ -17,6 +19,8 @@ import lombok.Setter;
 @Entity
 @Getter
 @Setter
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "acc-group-link")
 @Table(
     name = "acc_group_link",
     uniqueConstraints = {@UniqueConstraint(columnNames = {"account_id", "group_id"})})
@@ -8,10 +8,14 @@ import java.util.Set;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /** Сущность для представления существующей группы, в которому могут вступать {@code Account}. */
 @Entity
 @Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "group")
 @Table(
     name = "groups",
     indexes = {@Index(columnList = "customId", unique = true)})
@@ -0,0 +1,34 @@
+package com.thedan17.salesnet.core.object.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** Количество обращений к шаблону endpoint'а за один интервал времени. */
+@Entity
+@Getter
+@Setter
+@Table(
+    name = "url_stats",
+    uniqueConstraints = {@UniqueConstraint(columnNames = {"pattern", "bucket_start"})},
+    indexes = {@Index(columnList = "bucket_start")})
+@AllArgsConstructor
+@NoArgsConstructor
+public class UrlStat {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private String pattern;
+
+  /** Начало интервала, к которому отнесены обращения. */
+  @Column(name = "bucket_start", nullable = false)
+  private LocalDateTime bucketStart;
+
+  @Column(nullable = false)
+  private Long hits;
+}
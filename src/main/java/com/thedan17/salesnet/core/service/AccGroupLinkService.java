@@ -3,15 +3,23 @@ package com.thedan17.salesnet.core.service;
 import com.thedan17.salesnet.core.dao.AccountRepository;
 import com.thedan17.salesnet.core.dao.GroupRepository;
 import com.thedan17.salesnet.core.object.dto.AccGroupLinkCreateDto;
+import com.thedan17.salesnet.core.object.data.GroupMemberRow;
 import com.thedan17.salesnet.core.object.dto.AccGroupLinkDto;
+import com.thedan17.salesnet.core.object.dto.GroupAccountsDto;
 import com.thedan17.salesnet.core.object.entity.AccGroupLink;
 import com.thedan17.salesnet.core.object.entity.Account;
 import com.thedan17.salesnet.core.object.entity.Group;
 import com.thedan17.salesnet.exception.ContentNotFoundException;
+import com.thedan17.salesnet.util.CommonUtil;
 import com.thedan17.salesnet.util.EntityMapper;
 import jakarta.persistence.EntityNotFoundException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,21 +30,31 @@ public class AccGroupLinkService {
   @Autowired private final AccountRepository accountRepository;
   @Autowired private final com.thedan17.salesnet.core.dao.AccGroupLinkRepository accGroupLinkRepository;
   @Autowired private final EntityMapper entityMapper;
+  @Autowired private final MembershipService membershipService;
 
   /** Конструктор сервисного класса для автопривязки Spring. */
   public AccGroupLinkService(
       GroupRepository groupRepository,
       AccountRepository accountRepository,
       com.thedan17.salesnet.core.dao.AccGroupLinkRepository accGroupLinkRepository,
-      EntityMapper entityMapper) {
+      EntityMapper entityMapper,
+      MembershipService membershipService) {
     this.groupRepository = groupRepository;
     this.accountRepository = accountRepository;
     this.accGroupLinkRepository = accGroupLinkRepository;
     this.entityMapper = entityMapper;
+    this.membershipService = membershipService;
   }
 
-  /** Добавление уникальной связи между {@code Account} и {@code Group}, GET запрос. */
-  @Transactional
+  /**
+   * Добавление уникальной связи между {@code Account} и {@code Group}, GET запрос.
+   *
+   * <p>Коллекция участников группы не загружается: повтор отсекается проверкой членства по индексу,
+   * а одновременные запросы - уникальным ограничением {@code (account_id, group_id)}; другие
+   * нарушения целостности (аккаунт или группа удалены после проверки) дают {@link
+   * ContentNotFoundException}. Поэтому метод без общей транзакции: нарушение ограничения
+   * откатывает только транзакцию сохранения.
+   */
   public Optional<AccGroupLinkDto> linkAccWithGroup(AccGroupLinkCreateDto dto) {
     Optional<Account> accountOptional = accountRepository.findById(dto.getAccountId());
     Optional<Group> groupOptional = groupRepository.findById(dto.getGroupId());
@@ -46,18 +64,23 @@ public class AccGroupLinkService {
     if (accountOptional.isEmpty()) {
       throw new ContentNotFoundException("Account with such ID not found");
     }
-    Group group = groupOptional.get();
-    Account account = accountOptional.get();
-
-    if (group.getMembers().stream().anyMatch(link -> link.getAccount().equals(account))) {
+    if (membershipService.isMember(dto.getAccountId(), dto.getGroupId())) {
       return Optional.empty();
     }
     AccGroupLink accGroupLink = entityMapper.createDtoToLink(dto);
-    accGroupLink.setAccount(account);
-    accGroupLink.setGroup(group);
-    accGroupLink = accGroupLinkRepository.save(accGroupLink);
-    // Synchronize
-    group.getMembers().add(accGroupLink);
+    accGroupLink.setAccount(accountOptional.get());
+    accGroupLink.setGroup(groupOptional.get());
+    try {
+      accGroupLink = accGroupLinkRepository.save(accGroupLink);
+    } catch (DataIntegrityViolationException e) {
+      // повтор - только нарушение уникальности; иначе аккаунт или группа удалены после проверки
+      if (accGroupLinkRepository.existsByAccountIdAndGroupId(
+          dto.getAccountId(), dto.getGroupId())) {
+        return Optional.empty();
+      }
+      throw new ContentNotFoundException("Account or group with such ID not found");
+    }
+    membershipService.linkAdded(dto.getAccountId(), dto.getGroupId());
     return Optional.of(entityMapper.linkToDto(accGroupLink));
   }
 
@@ -67,8 +90,9 @@ public class AccGroupLinkService {
         accGroupLinkRepository
             .findById(linkId)
             .orElseThrow(() -> new ContentNotFoundException("Link (group-account) ID=" + linkId + " not found"));
-    accGroupLink.getGroup().getMembers().remove(accGroupLink);
     accGroupLinkRepository.delete(accGroupLink);
+    membershipService.linkRemoved(
+        accGroupLink.getAccount().getId(), accGroupLink.getGroup().getId());
   }
 
   /** Удаление существующей связи между {@code Account} и {@code Group}, DELETE запрос. */
@@ -78,7 +102,46 @@ public class AccGroupLinkService {
         accGroupLinkRepository
             .findByAccountIdAndGroupId(accId, groupId)
             .orElseThrow(() -> new EntityNotFoundException("Связь не найдена"));
-    accGroupLink.getGroup().getMembers().remove(accGroupLink);
     accGroupLinkRepository.delete(accGroupLink);
+    membershipService.linkRemoved(accId, groupId);
+  }
+
+  /**
+   * Все группы со списками участников.
+   *
+   * <p>Без параметров выполняется один потоковый запрос с соединением таблиц; при указании {@code
+   * afterId} или {@code limit} возвращается страница групп по курсору за два запроса.
+   */
+  @Transactional(readOnly = true)
+  public List<GroupAccountsDto> getAllGroupsAccounts(Long afterId, Integer limit) {
+    if (afterId == null && limit == null) {
+      try (Stream<GroupMemberRow> rows = groupRepository.streamGroupsWithMembers()) {
+        return groupRows(rows);
+      }
+    }
+    List<Long> groupIds =
+        groupRepository.findIdsAfter(afterId == null ? 0L : afterId, CommonUtil.pageLimit(limit));
+    if (groupIds.isEmpty()) {
+      return new ArrayList<>();
+    }
+    return groupRows(groupRepository.findGroupsWithMembers(groupIds).stream());
+  }
+
+  /** Сборка DTO за один проход по строкам, упорядоченным по id группы. */
+  private List<GroupAccountsDto> groupRows(Stream<GroupMemberRow> rows) {
+    List<GroupAccountsDto> results = new ArrayList<>();
+    GroupAccountsDto current = null;
+    Iterator<GroupMemberRow> iterator = rows.iterator();
+    while (iterator.hasNext()) {
+      GroupMemberRow row = iterator.next();
+      if (current == null || !current.getId().equals(row.group().getId())) {
+        current = entityMapper.groupToGroupAccounts(row.group());
+        results.add(current);
+      }
+      if (row.account() != null) {
+        current.getAccounts().add(entityMapper.accountToInfoDto(row.account()));
+      }
+    }
+    return results;
   }
 }
@@ -1,90 +1,383 @@
 package com.thedan17.salesnet.core.service;
 
-import com.thedan17.salesnet.core.dao.AccountRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.thedan17.salesnet.core.dao.AccountBatchRepository;
 import com.thedan17.salesnet.core.object.data.BulkResultDetailed;
 import com.thedan17.salesnet.core.object.data.BulkResultShort;
 import com.thedan17.salesnet.core.object.dto.AccountSignupDto;
 import com.thedan17.salesnet.core.object.entity.Account;
 import com.thedan17.salesnet.core.validation.validator.AccountLoginDtoValidator;
 import com.thedan17.salesnet.exception.InvalidRequestBodyException;
-import com.thedan17.salesnet.util.CommonUtil;
 import com.thedan17.salesnet.util.EntityMapper;
+import com.thedan17.salesnet.util.PasswordHasher;
+import jakarta.annotation.PreDestroy;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.IntStream;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.util.Pair;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * Сервис массовой регистрации аккаунтов.
+ *
+ * <p>Элементы обрабатываются пакетами по {@code salesnet.bulk.batch-size} строк: пакет валидируется
+ * параллельно, занятые логины проверяются одним запросом, пакет вставляется одной транзакцией, а
+ * при её ошибке - построчно, чтобы определить виновные элементы.
+ *
+ * <p>Валидация и хеширование паролей выполняются на собственном {@link ForkJoinPool} из {@code
+ * salesnet.bulk.parallelism} потоков, а не на общем пуле, и не зависят от остальных параллельных
+ * задач приложения. Результаты пишутся в массивы по индексу элемента, поэтому порядок не теряется.
+ * Сохранение идёт в вызывающем потоке строго по порядку пакетов; пока пакет сохраняется, пул уже
+ * готовит следующий.
+ */
 @Component
 @Service
 public class AccountBulkService {
-  @Autowired
-  AccountRepository accountRepository;
+  static final String DATABASE_SAVING_SOURCE = "database_saving";
+  static final String LOGIN_EXISTS_MESSAGE = "Login already exists";
+  static final String PARSING_SOURCE = "parsing";
+  /** Минимальное количество элементов одной подзадачи пула. */
+  private static final int MIN_SPLIT = 16;
+  @Autowired AccountBatchRepository accountBatchRepository;
   EntityMapper entityMapper;
+  private final PasswordHasher passwordHasher;
+  private final TransactionTemplate transactionTemplate;
+  private final int batchSize;
+  /** Пул валидации и хеширования. */
+  private final ForkJoinPool pool;
+
+  /** Конструктор с пулом на все доступные процессоры. */
+  public AccountBulkService(
+      AccountBatchRepository accountBatchRepository,
+      EntityMapper entityMapper,
+      PasswordHasher passwordHasher,
+      PlatformTransactionManager transactionManager,
+      int batchSize) {
+    this(accountBatchRepository, entityMapper, passwordHasher, transactionManager, batchSize, 0);
+  }
 
-  public AccountBulkService(AccountRepository accountRepository, EntityMapper entityMapper) {
-    this.accountRepository = accountRepository;
+  /**
+   * Конструктор для автопривязки Spring.
+   *
+   * @param batchSize количество строк в одном JDBC-пакете и одной транзакции
+   * @param parallelism количество потоков валидации и хеширования, {@code 0} - по числу процессоров
+   */
+  @Autowired
+  public AccountBulkService(
+      AccountBatchRepository accountBatchRepository,
+      EntityMapper entityMapper,
+      PasswordHasher passwordHasher,
+      PlatformTransactionManager transactionManager,
+      @Value("${salesnet.bulk.batch-size:1000}") int batchSize,
+      @Value("${salesnet.bulk.parallelism:0}") int parallelism) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be positive");
+    }
+    if (parallelism < 0) {
+      throw new IllegalArgumentException("Bulk parallelism must not be negative");
+    }
+    this.accountBatchRepository = accountBatchRepository;
     this.entityMapper = entityMapper;
+    this.passwordHasher = passwordHasher;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.batchSize = batchSize;
+    this.pool =
+        new ForkJoinPool(
+            parallelism == 0 ? Runtime.getRuntime().availableProcessors() : parallelism,
+            forkJoinPool -> {
+              ForkJoinWorkerThread thread =
+                  ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+              thread.setName("bulk-prepare-" + thread.getPoolIndex());
+              return thread;
+            },
+            null,
+            false);
+  }
+
+  /** Остановка пула; незавершённые запросы получат ошибку. */
+  @PreDestroy
+  public void shutdown() {
+    pool.shutdownNow();
   }
 
   private Account makeAccount(AccountSignupDto accountSignupDto) {
     Account account = entityMapper.loginDtoToAccount(accountSignupDto);
-    account.setPasswordHash(CommonUtil.hashWithSha256(accountSignupDto.getPassword()));
+    // хеширование в потоке пакета, но с разрешением хешера: не больше hash-workers ядер сразу
+    account.setPasswordHash(passwordHasher.encode(accountSignupDto.getPassword()));
     return account;
   }
 
-  @Transactional
-  private void saveAccount(Account account) {
-    accountRepository.save(account);
-  }
-
+  /** Регистрация всех аккаунтов одной транзакцией: либо все, либо ни одного. */
   public void addAccountsBulkWhole(List<AccountSignupDto> accountsDto) {
-    List<Account> accs = accountsDto
-            .stream()
-            .map(this::makeAccount)
-            .toList();
+    Account[] accounts = new Account[accountsDto.size()];
+    forEachIndex(accounts.length, i -> accounts[i] = makeAccount(accountsDto.get(i)));
+    List<Account> accs = Arrays.asList(accounts);
     try {
-      accountRepository.saveAll(accs);
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            for (int from = 0; from < accs.size(); from += batchSize) {
+              accountBatchRepository.insertAll(
+                  accs.subList(from, Math.min(accs.size(), from + batchSize)));
+            }
+          });
     } catch (Exception e) {
       throw new InvalidRequestBodyException("Exception occured in bulk saving: " + e.getMessage());
     }
   }
 
+  /** Регистрация аккаунтов с результатом по каждому элементу. */
   public BulkResultDetailed addAccountsBulk(List<AccountSignupDto> accountsDto) {
-    BulkResultDetailed processResult = new BulkResultDetailed();
-    IntStream.range(0, accountsDto.size())
-            .mapToObj(dtoIndex -> {
-              AccountSignupDto dto = accountsDto.get(dtoIndex);
-              return Pair.of(
-                  makeAccount(dto),
-                  BulkResultDetailed.createResult(dtoIndex, dto, AccountLoginDtoValidator::validate)
-              );
-            })
-            .peek(pair -> processResult.addResult(pair.getSecond()))
-            .filter(pair ->
-                    pair.getSecond().getStatus() == BulkResultDetailed.ElementStatus.SUCCESS)
-            .forEach(pair -> {
-              try {
-                saveAccount(pair.getFirst());
-              } catch (RuntimeException e) {
-                List<BulkResultDetailed.ElementError> errors = new ArrayList<>();
-
-                String msg = ExceptionUtils.getRootCauseMessage(e);
-                int dotIndex = msg.indexOf('.');
-                msg = dotIndex > 0 ? msg.substring(0, msg.indexOf('.')).trim() : msg;
-
-                errors.add(new BulkResultDetailed.ElementError("database_saving", msg));
-                processResult.addResult(new BulkResultDetailed.ElementResult(
-                        pair.getSecond().getIndex(),
-                        BulkResultDetailed.ElementStatus.FAILURE,
-                        errors
-                ));
-              }
-            });
+    int size = accountsDto.size();
+    BulkResultDetailed processResult = new BulkResultDetailed(size);
+    ForkJoinTask<PreparedChunk> next = size > 0 ? prepareFrom(accountsDto, 0) : null;
+    for (int from = 0; from < size; from += batchSize) {
+      PreparedChunk current = next.join();
+      int nextFrom = from + batchSize;
+      next = nextFrom < size ? prepareFrom(accountsDto, nextFrom) : null;
+      persistChunk(current).forEach(processResult::addResult);
+    }
     return processResult;
   }
+
+  private ForkJoinTask<PreparedChunk> prepareFrom(List<AccountSignupDto> accountsDto, int from) {
+    return prepareChunk(
+        accountsDto.subList(from, Math.min(accountsDto.size(), from + batchSize)), from);
+  }
+
+  /**
+   * Потоковая регистрация аккаунтов: элементы читаются из {@code items} пакетами по {@code
+   * batchSize}, результаты каждого пакета сразу передаются в {@code sink}.
+   *
+   * <p>В памяти одновременно находится не больше одного пакета. Элемент, который не удалось
+   * разобрать, получает ошибку {@code parsing}; после ошибки синтаксиса чтение прекращается.
+   *
+   * @return итоговое количество успешных и неуспешных элементов
+   */
+  public BulkResultShort addAccountsStream(
+      Iterator<AccountSignupDto> items, Consumer<List<BulkResultDetailed.ElementResult>> sink) {
+    long[] amounts = new long[2];
+    Consumer<List<BulkResultDetailed.ElementResult>> countingSink =
+        results -> {
+          for (BulkResultDetailed.ElementResult result : results) {
+            amounts[result.getStatus() == BulkResultDetailed.ElementStatus.SUCCESS ? 0 : 1]++;
+          }
+          sink.accept(results);
+        };
+    List<AccountSignupDto> chunk = new ArrayList<>(batchSize);
+    long chunkStart = 0;
+    long index = 0;
+    boolean hasNext = true;
+    while (hasNext) {
+      AccountSignupDto dto = null;
+      String parsingError = null;
+      try {
+        hasNext = items.hasNext();
+        if (hasNext) {
+          dto = items.next();
+        }
+      } catch (RuntimeJsonMappingException e) {
+        parsingError = parsingMessage(e);
+      } catch (RuntimeException e) {
+        parsingError = parsingMessage(e);
+        hasNext = false;
+      }
+      if (dto != null) {
+        chunk.add(dto);
+        index++;
+      }
+      boolean isChunkReady = chunk.size() == batchSize || !hasNext || parsingError != null;
+      if (isChunkReady && !chunk.isEmpty()) {
+        countingSink.accept(persistChunk(prepareChunk(chunk, chunkStart).join()));
+        chunk.clear();
+      }
+      if (parsingError != null) {
+        countingSink.accept(
+            List.of(
+                new BulkResultDetailed.ElementResult(
+                    index,
+                    BulkResultDetailed.ElementStatus.FAILURE,
+                    new ArrayList<>(
+                        List.of(
+                            new BulkResultDetailed.ElementError(
+                                PARSING_SOURCE, parsingError))))));
+        index++;
+      }
+      if (chunk.isEmpty()) {
+        chunkStart = index;
+      }
+    }
+    BulkResultShort total = new BulkResultShort();
+    total.setSuccessElements(Math.toIntExact(amounts[0]));
+    total.setFailureElements(Math.toIntExact(amounts[1]));
+    return total;
+  }
+
+  /** Пакет после валидации и хеширования; аккаунт есть только у валидных элементов. */
+  private record PreparedChunk(BulkResultDetailed.ElementResult[] results, Account[] accounts) {}
+
+  /**
+   * Запуск валидации и хеширования пакета на пуле.
+   *
+   * @param firstIndex индекс первого элемента пакета во всём запросе
+   */
+  private ForkJoinTask<PreparedChunk> prepareChunk(List<AccountSignupDto> chunk, long firstIndex) {
+    int size = chunk.size();
+    PreparedChunk prepared =
+        new PreparedChunk(new BulkResultDetailed.ElementResult[size], new Account[size]);
+    return pool.submit(
+        () -> {
+          new IndexRangeAction(
+                  0,
+                  size,
+                  splitThreshold(size),
+                  dtoIndex -> {
+                    AccountSignupDto dto = chunk.get(dtoIndex);
+                    BulkResultDetailed.ElementResult result =
+                        BulkResultDetailed.createResult(
+                            firstIndex + dtoIndex, dto, AccountLoginDtoValidator::validate);
+                    prepared.results()[dtoIndex] = result;
+                    if (result.getStatus() == BulkResultDetailed.ElementStatus.SUCCESS) {
+                      prepared.accounts()[dtoIndex] = makeAccount(dto);
+                    }
+                  })
+              .invoke();
+          return prepared;
+        });
+  }
+
+  /** Выполнение {@code body} для индексов {@code [0, size)} на пуле с ожиданием завершения. */
+  private void forEachIndex(int size, IntConsumer body) {
+    pool.invoke(new IndexRangeAction(0, size, splitThreshold(size), body));
+  }
+
+  private int splitThreshold(int size) {
+    return Math.max(MIN_SPLIT, size / (pool.getParallelism() * 4));
+  }
+
+  /** Обработка индексов {@code [from, to)} делением диапазона пополам до {@code threshold}. */
+  private static final class IndexRangeAction extends RecursiveAction {
+    private final int from;
+    private final int to;
+    private final int threshold;
+    private final IntConsumer body;
+
+    private IndexRangeAction(int from, int to, int threshold, IntConsumer body) {
+      this.from = from;
+      this.to = to;
+      this.threshold = threshold;
+      this.body = body;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= threshold) {
+        for (int i = from; i < to; i++) {
+          body.accept(i);
+        }
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(
+          new IndexRangeAction(from, middle, threshold, body),
+          new IndexRangeAction(middle, to, threshold, body));
+    }
+  }
+
+  /**
+   * Сохранение подготовленного пакета: проверка логинов и вставка.
+   *
+   * <p>Повторы логина внутри пакета отклоняются здесь по порядку элементов, а повторы из уже
+   * сохранённых пакетов находит проверка занятых логинов в БД.
+   *
+   * @return результаты в порядке элементов пакета
+   */
+  private List<BulkResultDetailed.ElementResult> persistChunk(PreparedChunk prepared) {
+    BulkResultDetailed.ElementResult[] results = prepared.results();
+    Account[] accounts = prepared.accounts();
+    int size = results.length;
+    Set<String> chunkLogins = new HashSet<>();
+    List<Integer> batch = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      if (accounts[i] == null) {
+        continue;
+      }
+      if (chunkLogins.add(accounts[i].getLogin())) {
+        batch.add(i);
+      } else {
+        markFailure(results[i], AccountSignupDto.Fields.login, LOGIN_EXISTS_MESSAGE);
+      }
+    }
+    if (!batch.isEmpty()) {
+      saveBatch(batch, accounts, results);
+    }
+    return Arrays.asList(results);
+  }
+
+  /** Сохранение одного пакета с предварительной проверкой логинов. */
+  private void saveBatch(
+      List<Integer> batch, Account[] accounts, BulkResultDetailed.ElementResult[] results) {
+    Set<String> existingLogins =
+        accountBatchRepository.findExistingLogins(
+            batch.stream().map(index -> accounts[index].getLogin()).toList());
+    List<Integer> toInsert = new ArrayList<>(batch.size());
+    for (Integer index : batch) {
+      if (existingLogins.contains(accounts[index].getLogin())) {
+        markFailure(results[index], AccountSignupDto.Fields.login, LOGIN_EXISTS_MESSAGE);
+      } else {
+        toInsert.add(index);
+      }
+    }
+    if (toInsert.isEmpty()) {
+      return;
+    }
+    try {
+      List<Account> batchAccounts = toInsert.stream().map(index -> accounts[index]).toList();
+      transactionTemplate.executeWithoutResult(
+          status -> accountBatchRepository.insertAll(batchAccounts));
+    } catch (RuntimeException batchException) {
+      // пакет откатился целиком, ищем виновные строки по одной
+      for (Integer index : toInsert) {
+        try {
+          transactionTemplate.executeWithoutResult(
+              status -> accountBatchRepository.insertAll(List.of(accounts[index])));
+        } catch (RuntimeException e) {
+          markFailure(results[index], DATABASE_SAVING_SOURCE, shortRootCauseMessage(e));
+        }
+      }
+    }
+  }
+
+  private static void markFailure(
+      BulkResultDetailed.ElementResult result, String source, String message) {
+    result.setStatus(BulkResultDetailed.ElementStatus.FAILURE);
+    result.getErrors().add(new BulkResultDetailed.ElementError(source, message));
+  }
+
+  private static String parsingMessage(RuntimeException e) {
+    Throwable cause = e.getCause() != null ? e.getCause() : e;
+    return cause instanceof JsonProcessingException jsonException
+        ? jsonException.getOriginalMessage()
+        : ExceptionUtils.getRootCauseMessage(e);
+  }
+
+  private static String shortRootCauseMessage(RuntimeException e) {
+    String msg = ExceptionUtils.getRootCauseMessage(e);
+    int dotIndex = msg.indexOf('.');
+    return dotIndex > 0 ? msg.substring(0, dotIndex).trim() : msg;
+  }
 }
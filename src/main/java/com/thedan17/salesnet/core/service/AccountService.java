@@ -2,20 +2,24 @@ package com.thedan17.salesnet.core.service;
 
 import com.thedan17.salesnet.core.dao.AccGroupLinkRepository;
 import com.thedan17.salesnet.core.dao.AccountRepository;
+import com.thedan17.salesnet.core.dao.GroupRepository;
 import com.thedan17.salesnet.core.object.dto.AccountInfoDto;
 import com.thedan17.salesnet.core.object.dto.AccountSignupDto;
 import com.thedan17.salesnet.core.object.dto.AccountUpdateDto;
 import com.thedan17.salesnet.core.object.dto.GroupIdDto;
 import com.thedan17.salesnet.core.object.entity.AccGroupLink;
 import com.thedan17.salesnet.core.object.entity.Account;
+import com.thedan17.salesnet.core.object.entity.Group;
 import com.thedan17.salesnet.exception.ContentNotFoundException;
 import com.thedan17.salesnet.exception.SuchElementExistException;
-import com.thedan17.salesnet.util.CommonUtil;
 import com.thedan17.salesnet.util.EntityMapper;
+import com.thedan17.salesnet.util.PasswordHasher;
 import jakarta.persistence.criteria.Predicate;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.jpa.domain.Specification;
@@ -28,22 +32,38 @@ public class AccountService {
   @Autowired private final AccountRepository dao;
   @Autowired private final EntityMapper entityMapper;
   @Autowired private final AccGroupLinkRepository accGroupLinkRepository;
+  @Autowired private final PasswordHasher passwordHasher;
+  @Autowired private final GroupRepository groupRepository;
+  @Autowired private final MembershipService membershipService;
 
   /** Конструктор для автопривязки необходимых классов. */
-  public AccountService(AccountRepository repository, EntityMapper entityMapper, AccGroupLinkRepository accGroupLinkRepository) {
+  public AccountService(
+      AccountRepository repository,
+      EntityMapper entityMapper,
+      AccGroupLinkRepository accGroupLinkRepository,
+      PasswordHasher passwordHasher,
+      GroupRepository groupRepository,
+      MembershipService membershipService) {
     this.dao = repository;
     this.entityMapper = entityMapper;
     this.accGroupLinkRepository = accGroupLinkRepository;
+    this.passwordHasher = passwordHasher;
+    this.groupRepository = groupRepository;
+    this.membershipService = membershipService;
   }
 
-  /** Метод создания и добавления {@code Account} в бд по информации пользователя. */
-  @Transactional
+  /**
+   * Метод создания и добавления {@code Account} в бд по информации пользователя.
+   *
+   * <p>Без общей транзакции: пароль хешируется до обращения к бд, и соединение не занято на время
+   * хеширования; сохранение выполняется своей транзакцией репозитория.
+   */
   public Optional<AccountInfoDto> addAccount(AccountSignupDto accountSignupDto) {
     Account account = entityMapper.loginDtoToAccount(accountSignupDto);
     if (account.getSecondName() == null) {
       account.setSecondName("");
     }
-    account.setPasswordHash(CommonUtil.hashWithSha256(accountSignupDto.getPassword()));
+    account.setPasswordHash(passwordHasher.hash(accountSignupDto.getPassword()));
     try {
       account = dao.save(account);
     } catch (DataIntegrityViolationException e) {
@@ -64,7 +84,12 @@ public class AccountService {
     return Optional.of(account);
   }
 
-  /** Метод получения списка групп в виде DTO, в которых состоит запрашиваемый {@code Account}. */
+  /**
+   * Метод получения списка групп в виде DTO, в которых состоит запрашиваемый {@code Account}.
+   *
+   * <p>Id групп берутся из индекса членства, а группы загружаются одним запросом по id (в порядке
+   * id); пока индекс не построен, группы читаются через связи аккаунта.
+   */
   @Transactional
   public Optional<List<GroupIdDto>> getAccountGroups(Long id) {
     Optional<Account> account = getAccountEntityById(id);
@@ -72,6 +97,19 @@ public class AccountService {
       return Optional.empty();
     }
     List<GroupIdDto> groupIdDtoList = new ArrayList<>();
+    Optional<long[]> groupIds = membershipService.getGroupIds(id);
+    if (groupIds.isPresent()) {
+      if (groupIds.get().length > 0) {
+        List<Group> groups =
+            new ArrayList<>(
+                groupRepository.findAllById(LongStream.of(groupIds.get()).boxed().toList()));
+        groups.sort(Comparator.comparing(Group::getId));
+        for (Group group : groups) {
+          groupIdDtoList.add(entityMapper.groupToIdDto(group));
+        }
+      }
+      return Optional.of(groupIdDtoList);
+    }
     List<AccGroupLink> links = accGroupLinkRepository.findByAccount(account.get());
     for (var member : links) {
       groupIdDtoList.add(entityMapper.groupToIdDto(member.getGroup()));
@@ -153,6 +191,7 @@ public class AccountService {
     for (var link : links) {
       accGroupLinkRepository.delete(link);
     }
+    membershipService.accountRemoved(id);
     if (this.getAccountEntityById(id).isPresent()) {
       dao.deleteById(id);
       return true;
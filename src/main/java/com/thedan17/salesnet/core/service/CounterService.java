@@ -1,9 +1,16 @@
 package com.thedan17.salesnet.core.service;
 
+import com.thedan17.salesnet.core.object.data.LatencyStatistics;
+import com.thedan17.salesnet.core.object.data.LatencyWindow;
 import com.thedan17.salesnet.util.UrlCounter;
+import com.thedan17.salesnet.util.UrlLatencyRecorder;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.util.Pair;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
@@ -14,35 +21,70 @@ public class CounterService {
   private final UrlCounter urlCounter;
   @Autowired
   private RequestMappingHandlerMapping requestMappingHandlerMapping;
+  private final UrlLatencyRecorder urlLatencyRecorder;
 
   public CounterService(UrlCounter urlCounter) {
+    this(urlCounter, new UrlLatencyRecorder(1.0));
+  }
+
+  /** Конструктор со статистикой длительности запросов. */
+  @Autowired
+  public CounterService(UrlCounter urlCounter, UrlLatencyRecorder urlLatencyRecorder) {
     this.urlCounter = urlCounter;
+    this.urlLatencyRecorder = urlLatencyRecorder;
   }
 
-  public Map<String, Integer> getAllUrlCounters() {
+  public Map<String, Long> getAllUrlCounters() {
     return urlCounter.getAllCounts();
   }
 
   public boolean isEndpointPatternRegistered(String uriPattern) {
+    return getEndpointPatterns().contains(uriPattern);
+  }
+
+  /** Регистрация счётчиков всех шаблонов endpoint'ов, чтобы запросы не создавали их. */
+  @EventListener(ContextRefreshedEvent.class)
+  public void registerEndpointPatterns() {
+    urlCounter.registerAll(getEndpointPatterns());
+  }
+
+  private Set<String> getEndpointPatterns() {
     if (requestMappingHandlerMapping == null) {
-      return false;
+      return Set.of();
     }
     return requestMappingHandlerMapping
             .getHandlerMethods()
             .keySet()
             .stream()
             .flatMap(info -> info.getPatternValues().stream())
-            .anyMatch(pattern -> pattern.equals(uriPattern));
+            .collect(Collectors.toSet());
   }
 
-  public Optional<Pair<String, Integer>> getCurrentUrlCounter(String url) {
-    int result = urlCounter.getCount(url);
+  public Optional<Pair<String, Long>> getCurrentUrlCounter(String url) {
+    long result = urlCounter.getCount(url);
     if (result == -1) {
       if (isEndpointPatternRegistered(url)) {
-        return Optional.of(Pair.of(url, 0));
+        return Optional.of(Pair.of(url, 0L));
       }
       return Optional.empty();
     }
     return Optional.of(Pair.of(url, result));
   }
+
+  /** Статистика длительности запросов всех endpoint'ов, к которым были обращения. */
+  public Map<String, LatencyStatistics> getAllLatencyStatistics(LatencyWindow window) {
+    return urlLatencyRecorder.getAllStatistics(window.getDuration());
+  }
+
+  /**
+   * Статистика длительности запросов одного endpoint'а. Для зарегистрированного шаблона без
+   * обращений возвращается пустая статистика.
+   */
+  public Optional<LatencyStatistics> getLatencyStatistics(String url, LatencyWindow window) {
+    var statistics = urlLatencyRecorder.getStatistics(url, window.getDuration());
+    if (statistics.isEmpty() && isEndpointPatternRegistered(url)) {
+      return Optional.of(new LatencyStatistics(0L, 0L, 0L, 0L, 0L, 0L, Map.of()));
+    }
+    return statistics;
+  }
 }
@@ -3,59 +3,90 @@ package com.thedan17.salesnet.core.service;
 import com.thedan17.salesnet.core.object.data.AsyncTaskInfo;
 import com.thedan17.salesnet.exception.ContentNotFoundException;
 import com.thedan17.salesnet.exception.RequestIgnoreNeededException;
+import com.thedan17.salesnet.exception.TaskQueueFullException;
 import com.thedan17.salesnet.util.AppLoggerCore;
+import com.thedan17.salesnet.util.BlockGzipFile;
+import com.thedan17.salesnet.util.TaskEngine;
+import jakarta.annotation.PreDestroy;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.Instant;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+/**
+ * Фоновые задачи получения файла лога. Задачи выполняются {@link TaskEngine} с ограниченной
+ * очередью, таймаутом и удалением через {@code salesnet.tasks.retention} после завершения.
+ */
 @Service
 public class DebugTaskService {
-  public final Map<Integer, AsyncTaskInfo<LocalDate, Path>> tasks = new ConcurrentHashMap<>();
-  private final AtomicInteger idCounter = new AtomicInteger(0);
+  private static final int PROGRESS_STEPS = 10;
+  private final TaskEngine<LocalDate, Path> taskEngine;
+  /** Длительность имитации долгой задачи. */
+  private final Duration logTaskDelay;
+  /** Максимальное время потока событий одной задачи. */
+  private final Duration taskEventsTimeout;
 
   @Autowired public AppLoggerCore appLoggerCore;
 
-  public void runLogTask(AsyncTaskInfo<LocalDate, Path> taskInfo) {
-    taskInfo.setStatus(AsyncTaskInfo.Status.RUNNING);
-    try {
-      Thread.sleep(15000); // Long task imitation
-      Path filePath = getLogByDate(taskInfo.getParams());
+  /** Конструктор для Spring с параметрами из {@code salesnet.tasks.*}. */
+  @Autowired
+  public DebugTaskService(
+      @Value("${salesnet.tasks.workers:2}") int workers,
+      @Value("${salesnet.tasks.queue-capacity:16}") int queueCapacity,
+      @Value("${salesnet.tasks.timeout:1m}") Duration timeout,
+      @Value("${salesnet.tasks.retention:5m}") Duration retention,
+      @Value("${salesnet.tasks.log-delay:15s}") Duration logTaskDelay,
+      @Value("${salesnet.tasks.events-timeout:10m}") Duration taskEventsTimeout) {
+    this(
+        new TaskEngine<>("debug-task", workers, queueCapacity, timeout, retention),
+        logTaskDelay,
+        taskEventsTimeout);
+  }
 
-      taskInfo.setResult(filePath);
-      taskInfo.setCompletedAt(Instant.now());
-      if (filePath == null) {
-        taskInfo.setStatus(AsyncTaskInfo.Status.FAILED);
-      } else {
-        taskInfo.setStatus(AsyncTaskInfo.Status.DONE);
-      }
-    } catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
+  public DebugTaskService(
+      TaskEngine<LocalDate, Path> taskEngine, Duration logTaskDelay, Duration taskEventsTimeout) {
+    this.taskEngine = taskEngine;
+    this.logTaskDelay = logTaskDelay;
+    this.taskEventsTimeout = taskEventsTimeout;
+  }
+
+  /** Работа задачи: поиск файла лога после имитации долгой обработки. */
+  public Path runLogTask(AsyncTaskInfo<LocalDate, Path> taskInfo) throws InterruptedException {
+    long stepMillis = logTaskDelay.toMillis() / PROGRESS_STEPS;
+    for (int step = 1; step <= PROGRESS_STEPS; step++) {
+      Thread.sleep(stepMillis); // Long task imitation, прерывается отменой и таймаутом
+      taskInfo.setProgress(step * 90 / PROGRESS_STEPS);
     }
+    Path filePath = getLogByDate(taskInfo.getParams());
+    if (filePath == null) {
+      throw new ContentNotFoundException("No such log file");
+    }
+    return filePath;
   }
 
+  /**
+   * Создание задачи получения файла лога.
+   *
+   * @throws TaskQueueFullException если очередь задач заполнена
+   */
   public Integer getLogNewTask(LocalDate date) {
-    int taskId = idCounter.incrementAndGet();
-    AsyncTaskInfo<LocalDate, Path> taskInfo = new AsyncTaskInfo<>(taskId, date);
-    tasks.put(taskId, taskInfo);
-    CompletableFuture.runAsync(() -> runLogTask(taskInfo));
-    return taskId;
+    return taskEngine.submit(date, this::runLogTask).getId();
   }
 
   public AsyncTaskInfo<LocalDate, Path> getTaskInfo(Integer taskId) {
-    AsyncTaskInfo<LocalDate, Path> taskInfo = tasks.get(taskId);
+    AsyncTaskInfo<LocalDate, Path> taskInfo = taskEngine.get(taskId);
     if (taskInfo == null) {
       throw new ContentNotFoundException("Task with such ID don't exist");
     }
@@ -63,17 +94,89 @@ public class DebugTaskService {
   }
 
   public List<AsyncTaskInfo<LocalDate, Path>> getAllTasks() {
-    return tasks.values().stream().toList();
+    return taskEngine.getAll();
   }
 
   public AsyncTaskInfo.Status getTaskStatus(Integer taskId) {
     return getTaskInfo(taskId).getStatus();
   }
 
+  /** Отмена задачи; уже завершённая задача не меняется. */
+  public AsyncTaskInfo<LocalDate, Path> cancelTask(Integer taskId) {
+    taskEngine.cancel(taskId);
+    return getTaskInfo(taskId);
+  }
+
+  /**
+   * Ожидание изменения статуса задачи без занятого потока (long-poll). Результат - состояние
+   * задачи, как только её статус отличается от {@code knownStatus} (по умолчанию - статус на
+   * момент запроса), либо текущее состояние по истечении {@code timeout}.
+   */
+  public DeferredResult<AsyncTaskInfo<LocalDate, Path>> awaitStatusChange(
+      Integer taskId, AsyncTaskInfo.Status knownStatus, Duration timeout) {
+    AsyncTaskInfo.Status awaitedChange =
+        knownStatus != null ? knownStatus : getTaskInfo(taskId).getStatus();
+    DeferredResult<AsyncTaskInfo<LocalDate, Path>> result =
+        new DeferredResult<>(timeout.toMillis());
+    result.onTimeout(() -> {
+      AsyncTaskInfo<LocalDate, Path> taskInfo = taskEngine.get(taskId);
+      if (taskInfo != null) {
+        result.setResult(taskInfo);
+      } else {
+        result.setErrorResult(new ContentNotFoundException("Task with such ID don't exist"));
+      }
+    });
+    Runnable unsubscribe =
+        taskEngine.subscribe(taskId, taskInfo -> {
+          if (taskInfo.getStatus() != awaitedChange) {
+            result.setResult(taskInfo);
+          }
+        });
+    if (unsubscribe == null) {
+      throw new ContentNotFoundException("Task with such ID don't exist");
+    }
+    result.onCompletion(unsubscribe);
+    return result;
+  }
+
+  /**
+   * Поток событий {@code status} с состоянием задачи: текущее сразу и после каждого изменения
+   * статуса; поток закрывается после завершения задачи.
+   */
+  public SseEmitter streamStatus(Integer taskId) {
+    SseEmitter emitter = new SseEmitter(taskEventsTimeout.toMillis());
+    AtomicBoolean closed = new AtomicBoolean(false);
+    Runnable unsubscribe =
+        taskEngine.subscribe(taskId, taskInfo -> {
+          if (closed.get()) {
+            return;
+          }
+          try {
+            emitter.send(SseEmitter.event().name("status").data(taskInfo));
+            if (taskInfo.isFinished() && closed.compareAndSet(false, true)) {
+              emitter.complete();
+            }
+          } catch (IOException e) {
+            closed.set(true);
+            emitter.completeWithError(e);
+          }
+        });
+    if (unsubscribe == null) {
+      throw new ContentNotFoundException("Task with such ID don't exist");
+    }
+    Runnable close = () -> {
+      closed.set(true);
+      unsubscribe.run();
+    };
+    emitter.onCompletion(close);
+    emitter.onTimeout(close);
+    emitter.onError(error -> close.run());
+    return emitter;
+  }
+
   public Path getLogFile(Integer taskId) {
     AsyncTaskInfo<LocalDate, Path> taskInfo = getTaskInfo(taskId);
-    if (taskInfo.getStatus() != AsyncTaskInfo.Status.DONE
-        && taskInfo.getStatus() != AsyncTaskInfo.Status.FAILED) {
+    if (!taskInfo.isFinished()) {
       throw new RequestIgnoreNeededException("Task not ready yet, please wait and try again later");
     }
     return taskInfo.getResult();
@@ -82,13 +185,18 @@ public class DebugTaskService {
   public Path getLogByDate(LocalDate logDate) {
     String logDir = "./logs/"; // Путь к папке с логами
     String fileNamePattern = "log-" + logDate + ".log"; // Например, "log-2023-10-05.log"
+    String archiveName = fileNamePattern + BlockGzipFile.SUFFIX; // после сжатия LogArchiver
 
     try (Stream<Path> paths = Files.list(Paths.get(logDir))) {
+      // несжатый файл предпочтительнее, пока архив ещё дописывается
       Optional<Path> logPath =
           paths
               .filter(Files::isRegularFile)
-              .filter(path -> path.getFileName().toString().equals(fileNamePattern))
-              .findFirst();
+              .filter(path -> {
+                String name = path.getFileName().toString();
+                return name.equals(fileNamePattern) || name.equals(archiveName);
+              })
+              .min(Comparator.comparing(path -> BlockGzipFile.isArchive(path)));
       if (logPath.isPresent()) {
         return logPath.get();
       }
@@ -99,22 +207,8 @@ public class DebugTaskService {
     return null;
   }
 
-  @Scheduled(fixedDelay = 30_000) // 30.000ms = 0.5min
-  public void cleanupOldTasks() {
-    try {
-      Instant cutoff = Instant.now().minusSeconds(300); // 5 minutes
-      tasks
-          .entrySet()
-          .removeIf(
-              entry -> {
-                AsyncTaskInfo<LocalDate, Path> info = entry.getValue();
-                info.calcDuration();
-                return (info.getStatus() == AsyncTaskInfo.Status.DONE
-                        || info.getStatus() == AsyncTaskInfo.Status.FAILED)
-                    && info.getCompletedAt().isBefore(cutoff);
-              });
-    } catch (Exception e) {
-      appLoggerCore.error("Exception while cleanup tasks in DebugTaskService: " + e.getMessage());
-    }
+  @PreDestroy
+  public void shutdown() {
+    taskEngine.close();
   }
 }
@@ -0,0 +1,90 @@
+package com.thedan17.salesnet.core.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.thedan17.salesnet.core.object.data.EntityCacheStatistics;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Статистика кэша второго уровня Hibernate: регионы сущностей и кэш запросов.
+ *
+ * <p>Попадания и промахи берутся из статистики Hibernate, размер регионов - из самих кэшей
+ * Caffeine, так как JCache размер не сообщает.
+ */
+@Service
+public class EntityCacheService {
+  /** Ключ кэша запросов в {@link #getStatistics()}. */
+  public static final String QUERY_RESULTS =
+      RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+
+  @Autowired private final EntityManagerFactory entityManagerFactory;
+
+  public EntityCacheService(EntityManagerFactory entityManagerFactory) {
+    this.entityManagerFactory = entityManagerFactory;
+  }
+
+  /** Статистика по регионам сущностей и кэшу запросов, по имени региона. */
+  public Map<String, EntityCacheStatistics> getStatistics() {
+    SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    Statistics statistics = sessionFactory.getStatistics();
+    Map<String, EntityCacheStatistics> result = new TreeMap<>();
+    for (String region : statistics.getSecondLevelCacheRegionNames()) {
+      CacheRegionStatistics regionStatistics;
+      try {
+        regionStatistics = statistics.getDomainDataRegionStatistics(region);
+      } catch (IllegalArgumentException e) {
+        continue; // регион кэша запросов, добавляется ниже
+      }
+      if (regionStatistics != null) {
+        result.put(region, toStatistics(sessionFactory, region, regionStatistics));
+      }
+    }
+    CacheRegionStatistics queryStatistics = statistics.getQueryRegionStatistics(QUERY_RESULTS);
+    if (queryStatistics != null) {
+      result.put(QUERY_RESULTS, toStatistics(sessionFactory, QUERY_RESULTS, queryStatistics));
+    }
+    return result;
+  }
+
+  private static EntityCacheStatistics toStatistics(
+      SessionFactory sessionFactory, String region, CacheRegionStatistics statistics) {
+    Long size = null;
+    Long maxSize = null;
+    Cache<?, ?> cache = caffeineCache(sessionFactory, region);
+    if (cache != null) {
+      size = cache.estimatedSize();
+      maxSize = cache.policy().eviction().map(Policy.Eviction::getMaximum).orElse(null);
+    }
+    return new EntityCacheStatistics(
+        size,
+        maxSize,
+        statistics.getHitCount(),
+        statistics.getMissCount(),
+        statistics.getPutCount());
+  }
+
+  /** Кэш Caffeine региона или {@code null}, если регион хранится другим провайдером. */
+  private static Cache<?, ?> caffeineCache(
+      SessionFactory sessionFactory, String region) {
+    if (!(sessionFactory.getCache() instanceof CacheImplementor cache)
+        || !(cache.getRegionFactory() instanceof JCacheRegionFactory regionFactory)) {
+      return null;
+    }
+    javax.cache.Cache<?, ?> jcache = regionFactory.getCacheManager().getCache(region);
+    try {
+      return jcache == null ? null : jcache.unwrap(Cache.class);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+}
@@ -2,17 +2,30 @@ package com.thedan17.salesnet.core.service;
 
 import com.thedan17.salesnet.core.dao.AccGroupLinkRepository;
 import com.thedan17.salesnet.core.dao.GroupSearchRepository;
+import com.thedan17.salesnet.core.object.data.CacheStatistics;
+import com.thedan17.salesnet.core.object.data.GroupSearchStrategy;
 import com.thedan17.salesnet.core.object.dto.GroupIdDto;
 import com.thedan17.salesnet.core.object.entity.Group;
+import com.thedan17.salesnet.util.CacheEvictionPolicy;
 import com.thedan17.salesnet.util.CacheIdManager;
 import com.thedan17.salesnet.util.CommonUtil;
 import com.thedan17.salesnet.util.EntityMapper;
+import com.thedan17.salesnet.util.NgramIndex;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.util.Pair;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,43 +35,135 @@ import org.springframework.transaction.annotation.Transactional;
 public class GroupSearchCacheService {
   private final CacheIdManager<String, Group, Long> byNameFromAllCache;
   private final CacheIdManager<Pair<String, Long>, Group, Long> byNameFromAccCache;
+  private final NgramIndex<Group> nameIndex;
   @Autowired private final GroupSearchRepository groupSearchRepository;
   @Autowired private final AccGroupLinkRepository accGroupLinkRepository;
   @Autowired private final EntityMapper entityMapper;
+  @Autowired private final MembershipService membershipService;
+  private static final int INDEX_LOAD_PAGE_SIZE = 10_000;
 
   /** Настройка функциональных частей кэша. */
-  private void setCacheFunctionality() {
+  private void setCacheFunctionality(GroupSearchStrategy strategy) {
     // all cache
-    Function<String, Set<Group>> searchAllFunction = groupSearchRepository::findByNameSubstringJpql;
-    BiPredicate<String, Group> isValidAllFunction =
-        (arg, res) -> res.getName().contains(arg);
-    byNameFromAllCache.setFunctionality(searchAllFunction, isValidAllFunction);
+    Function<String, Set<Group>> searchAllFunction =
+        switch (strategy) {
+          case JPQL -> groupSearchRepository::findByNameSubstringJpql;
+          case NATIVE_ILIKE -> groupSearchRepository::findByNameSubstringPsql;
+          case TRIGRAM_INDEX -> groupSearchRepository::findByNameSubstringTrigram;
+          case IN_MEMORY_INDEX ->
+              name ->
+                  nameIndex.isReady()
+                      ? nameIndex.search(name)
+                      : groupSearchRepository.findByNameSubstringJpql(name);
+        };
+    byNameFromAllCache.setFunctionality(searchAllFunction, this::isNameMatching);
+    byNameFromAllCache.setInvalidationIndex(Function.identity(), Group::getName);
     // acc cache
     Function<Pair<String, Long>, Set<Group>> searchAccFunction =
-        arg -> groupSearchRepository.findByNameInAccJpql(arg.getFirst(), arg.getSecond());
+        switch (strategy) {
+          case JPQL, IN_MEMORY_INDEX ->
+              arg -> groupSearchRepository.findByNameInAccJpql(arg.getFirst(), arg.getSecond());
+          case NATIVE_ILIKE ->
+              arg -> groupSearchRepository.findByNameInAccPsql(arg.getFirst(), arg.getSecond());
+          case TRIGRAM_INDEX ->
+              arg -> groupSearchRepository.findByNameInAccTrigram(arg.getFirst(), arg.getSecond());
+        };
     BiPredicate<Pair<String, Long>, Group> isValidAccFunction =
         (pair, res) -> {
-          if (isValidAllFunction.test(pair.getFirst(), res)) {
-            return accGroupLinkRepository
-                .findByAccountIdAndGroupId(pair.getSecond(), res.getId())
-                .isPresent();
+          if (isNameMatching(pair.getFirst(), res)) {
+            return membershipService.isMember(pair.getSecond(), res.getId());
           }
           return false;
         };
     byNameFromAccCache.setFunctionality(searchAccFunction, isValidAccFunction);
+    byNameFromAccCache.setInvalidationIndex(Pair::getFirst, Group::getName);
+  }
+
+  /** Совпадение ключа поиска (в нижнем регистре) с именем группы, аналогично запросам в БД. */
+  private boolean isNameMatching(String name, Group group) {
+    return group.getName() != null && group.getName().toLowerCase().contains(name);
   }
 
-  /** Конструктор класса. */
+  /** Конструктор класса с политиками вытеснения по умолчанию ({@code LRU}) и поиском на JPQL. */
   public GroupSearchCacheService(
       GroupSearchRepository groupSearchRepository,
       AccGroupLinkRepository accGroupLinkRepository,
-      EntityMapper entityMapper) {
+      EntityMapper entityMapper,
+      MembershipService membershipService) {
+    this(
+        groupSearchRepository,
+        accGroupLinkRepository,
+        entityMapper,
+        membershipService,
+        CacheEvictionPolicy.Type.LRU,
+        CacheEvictionPolicy.Type.LRU,
+        GroupSearchStrategy.JPQL);
+  }
+
+  /**
+   * Конструктор класса, в котором политика вытеснения задаётся отдельно для каждого кэша.
+   *
+   * @param byNameEviction политика кэша поиска среди всех групп
+   * @param byNameInAccEviction политика кэша поиска среди групп аккаунта
+   * @param searchStrategy способ выполнения поиска в БД при промахе кэша
+   */
+  @Autowired
+  public GroupSearchCacheService(
+      GroupSearchRepository groupSearchRepository,
+      AccGroupLinkRepository accGroupLinkRepository,
+      EntityMapper entityMapper,
+      MembershipService membershipService,
+      @Value("${salesnet.search.cache.by-name.eviction:LRU}")
+          CacheEvictionPolicy.Type byNameEviction,
+      @Value("${salesnet.search.cache.by-name-in-acc.eviction:LRU}")
+          CacheEvictionPolicy.Type byNameInAccEviction,
+      @Value("${salesnet.search.group.strategy:JPQL}") GroupSearchStrategy searchStrategy) {
     this.groupSearchRepository = groupSearchRepository;
     this.accGroupLinkRepository = accGroupLinkRepository;
     this.entityMapper = entityMapper;
-    byNameFromAllCache = new CacheIdManager<>(Group::getId, 500L, (short) 10);
-    byNameFromAccCache = new CacheIdManager<>(Group::getId, 500L, (short) 10);
-    setCacheFunctionality();
+    this.membershipService = membershipService;
+    byNameFromAllCache = new CacheIdManager<>(Group::getId, 500L, (short) 10, byNameEviction);
+    byNameFromAccCache =
+        new CacheIdManager<>(Group::getId, 500L, (short) 10, byNameInAccEviction);
+    nameIndex =
+        searchStrategy == GroupSearchStrategy.IN_MEMORY_INDEX
+            ? new NgramIndex<>(Group::getId, Group::getName)
+            : null;
+    setCacheFunctionality(searchStrategy);
+  }
+
+  /**
+   * Построение индекса имён групп в памяти, если выбрана стратегия {@code IN_MEMORY_INDEX}.
+   *
+   * <p>Группы читаются страницами по возрастанию id; до окончания построения поиск идёт в БД.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void buildNameIndex() {
+    if (nameIndex == null) {
+      return;
+    }
+    nameIndex.beginBuild();
+    Page<Group> page;
+    int pageNumber = 0;
+    do {
+      page =
+          groupSearchRepository.findAll(
+              PageRequest.of(pageNumber++, INDEX_LOAD_PAGE_SIZE, Sort.by("id")));
+      nameIndex.load(page.getContent().stream().map(this::detachedCopy).toList());
+    } while (page.hasNext());
+    nameIndex.finishBuild();
+  }
+
+  /** Копия группы без связей, чтобы индекс не удерживал контекст и прокси Hibernate. */
+  private Group detachedCopy(Group group) {
+    return new Group(
+        group.getId(),
+        group.getCustomId(),
+        group.getName(),
+        group.getDescription(),
+        group.getCreatedAt(),
+        null,
+        group.getOwnerId());
   }
 
   /**
@@ -92,9 +197,40 @@ public class GroupSearchCacheService {
     return Optional.of(resultsDto);
   }
 
-  /** Метод обновления кэшей по принципу {@link CacheIdManager#updateCache}. */
+  /**
+   * Метод обновления кэшей по принципу {@link CacheIdManager#updateCache}.
+   *
+   * <p>Участники группы берутся из индекса членства, а пока он не построен - загружаются из БД не
+   * более одного раза за обновление и только если какой-либо ключ кэша аккаунтов совпал по имени.
+   */
   public void updateExistingCache(Group group, CacheIdManager.UpdateReason updateReason) {
+    if (nameIndex != null) {
+      if (updateReason == CacheIdManager.UpdateReason.ENTITY_DELETED) {
+        nameIndex.remove(group.getId());
+      } else {
+        nameIndex.put(detachedCopy(group));
+      }
+    }
     byNameFromAllCache.updateCache(group, updateReason, true);
-    byNameFromAccCache.updateCache(group, updateReason, true);
+    Supplier<Set<Long>> memberIds =
+        CommonUtil.memoize(
+            () -> new HashSet<>(accGroupLinkRepository.findAccountIdsByGroupId(group.getId())));
+    byNameFromAccCache.updateCache(
+        group,
+        updateReason,
+        true,
+        (pair, res) ->
+            isNameMatching(pair.getFirst(), res)
+                && (membershipService.isReady()
+                    ? membershipService.isMember(pair.getSecond(), res.getId())
+                    : memberIds.get().contains(pair.getSecond())));
+  }
+
+  /** Статистика кэшей поиска для подбора политики вытеснения под реальные запросы. */
+  public Map<String, CacheStatistics> getCacheStatistics() {
+    Map<String, CacheStatistics> statistics = new LinkedHashMap<>();
+    statistics.put("byName", byNameFromAllCache.getStatistics());
+    statistics.put("byNameInAccount", byNameFromAccCache.getStatistics());
+    return statistics;
   }
 }
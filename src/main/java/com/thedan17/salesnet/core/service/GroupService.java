@@ -24,6 +24,7 @@ public class GroupService {
   @Autowired private final GroupRepository groupDao;
   @Autowired private final EntityMapper entityMapper;
   @Autowired private final GroupSearchCacheService groupSearchCacheService;
+  @Autowired private final MembershipService membershipService;
 
   /** Внутренний метод для получения сущности {@code Group} напрямую. */
   @Transactional
@@ -36,10 +37,12 @@ public class GroupService {
   public GroupService(
       GroupRepository groupDao,
       EntityMapper entityMapper,
-      GroupSearchCacheService groupSearchCacheService) {
+      GroupSearchCacheService groupSearchCacheService,
+      MembershipService membershipService) {
     this.groupDao = groupDao;
     this.entityMapper = entityMapper;
     this.groupSearchCacheService = groupSearchCacheService;
+    this.membershipService = membershipService;
   }
 
   /** Метод создания нового {@code Group} и возврата информации о нём. */
@@ -66,6 +69,7 @@ public class GroupService {
     Optional<Group> group = groupDao.findById(id);
     if (group.isPresent()) {
       groupDao.deleteById(id);
+      membershipService.groupRemoved(id);
       groupSearchCacheService.updateExistingCache(
           group.get(), CacheIdManager.UpdateReason.ENTITY_DELETED);
     } else {
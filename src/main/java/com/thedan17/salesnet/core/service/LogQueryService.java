@@ -0,0 +1,327 @@
+package com.thedan17.salesnet.core.service;
+
+import ch.qos.logback.classic.Level;
+import com.thedan17.salesnet.core.object.data.LogSlice;
+import com.thedan17.salesnet.util.BlockGzipFile;
+import com.thedan17.salesnet.util.LogFileIndex;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Выборка событий лога приложения за интервал времени.
+ *
+ * <p>Файлы лога ({@code log-yyyy-MM-dd.log}) не читаются целиком: {@link LogFileIndex} даёт
+ * диапазон байт с запасом, точные границы находятся просмотром строк только на его краях, а
+ * середина передаётся через {@link FileChannel#transferTo}. С фильтром по уровню или логгеру
+ * просматриваются все строки диапазона.
+ *
+ * <p>Заархивированные дни ({@code log-yyyy-MM-dd.log.gz}, см. {@link BlockGzipFile}) читаются
+ * распаковкой с ближайшего блока; смещения в {@link LogSlice} для них относятся к исходному файлу.
+ */
+@Service
+public class LogQueryService {
+  private static final String FILE_PREFIX = "log-";
+  private static final String FILE_SUFFIX = ".log";
+  private static final int TIMESTAMP_START = LogFileIndex.ENTRY_PREFIX.length();
+  private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+  private final Path logDir;
+
+  /** Конструктор для Spring с каталогом лога {@code AppLoggerCore}. */
+  @Autowired
+  public LogQueryService() {
+    this(Paths.get("logs"));
+  }
+
+  public LogQueryService(Path logDir) {
+    this.logDir = logDir;
+  }
+
+  /** Точные диапазоны байт событий из {@code [from, to)} по всем файлам лога этих дней. */
+  public List<LogSlice> findSlices(LocalDateTime from, LocalDateTime to) throws IOException {
+    byte[] fromBound = timestampBytes(from);
+    byte[] toBound = timestampBytes(to);
+    List<LogSlice> slices = new ArrayList<>();
+    for (Path file : filesBetween(from.toLocalDate(), to.toLocalDate())) {
+      LogFileIndex index = LogFileIndex.load(file);
+      LogSource source = LogSource.of(file);
+      long start = firstEntryAtOrAfter(source, index.startOffset(toMillis(from)), fromBound);
+      long end = firstEntryAtOrAfter(source, index.startOffset(toMillis(to)), toBound);
+      if (start < end) {
+        slices.add(new LogSlice(file, start, end));
+      }
+    }
+    return slices;
+  }
+
+  /** Передача диапазонов в {@code target} без разбора строк. */
+  public void transferSlices(List<LogSlice> slices, WritableByteChannel target) throws IOException {
+    for (LogSlice slice : slices) {
+      if (BlockGzipFile.isArchive(slice.file())) {
+        copyArchived(slice, target);
+        continue;
+      }
+      try (FileChannel channel = FileChannel.open(slice.file(), StandardOpenOption.READ)) {
+        long position = slice.start();
+        while (position < slice.end()) {
+          position += channel.transferTo(position, slice.end() - position, target);
+        }
+      }
+    }
+  }
+
+  private static void copyArchived(LogSlice slice, WritableByteChannel target) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_BYTES);
+    try (ReadableByteChannel channel = LogSource.of(slice.file()).openAt(slice.start())) {
+      long remaining = slice.length();
+      while (remaining > 0) {
+        buffer.clear().limit((int) Math.min(buffer.capacity(), remaining));
+        int read = channel.read(buffer);
+        if (read < 0) {
+          break;
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+          target.write(buffer);
+        }
+        remaining -= read;
+      }
+    }
+  }
+
+  /**
+   * Запись событий из {@code [from, to)} не ниже уровня {@code minLevel}, у которых имя логгера
+   * содержит {@code logger}. Фильтры, равные {@code null}, не применяются; строки продолжения
+   * (стек исключения) следуют за своим событием.
+   */
+  public void writeFiltered(
+      LocalDateTime from, LocalDateTime to, Level minLevel, String logger, OutputStream target)
+      throws IOException {
+    byte[] fromBound = timestampBytes(from);
+    byte[] toBound = timestampBytes(to);
+    byte[] loggerBytes = logger == null ? null : logger.getBytes(StandardCharsets.UTF_8);
+    for (Path file : filesBetween(from.toLocalDate(), to.toLocalDate())) {
+      LogFileIndex index = LogFileIndex.load(file);
+      LogSource source = LogSource.of(file);
+      long start = index.startOffset(toMillis(from));
+      try (ReadableByteChannel channel = source.openAt(start)) {
+        LineReader reader =
+            new LineReader(channel, start, index.endOffset(toMillis(to), source.size()));
+        boolean matched = false;
+        while (reader.next()) {
+          if (LogFileIndex.isEntryStart(reader.line, 0, reader.length)) {
+            if (compareTimestamp(reader.line, toBound) >= 0) {
+              break;
+            }
+            matched = compareTimestamp(reader.line, fromBound) >= 0
+                && matchesLevelAndLogger(reader.line, reader.length, minLevel, loggerBytes);
+          }
+          if (matched) {
+            target.write(reader.line, 0, reader.length);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Файлы лога за дни из {@code [fromDay, toDay]} по возрастанию даты. Если день есть и в обычном,
+   * и в сжатом виде (архивирование не закончено), берётся обычный файл.
+   */
+  private List<Path> filesBetween(LocalDate fromDay, LocalDate toDay) throws IOException {
+    if (!Files.isDirectory(logDir)) {
+      return List.of();
+    }
+    try (Stream<Path> paths = Files.list(logDir)) {
+      Map<LocalDate, Path> byDay = new TreeMap<>();
+      paths
+          .filter(Files::isRegularFile)
+          .forEach(path -> {
+            LocalDate day = dayOf(path);
+            if (day != null && !day.isBefore(fromDay) && !day.isAfter(toDay)) {
+              byDay.merge(
+                  day, path, (first, second) -> BlockGzipFile.isArchive(first) ? second : first);
+            }
+          });
+      return List.copyOf(byDay.values());
+    }
+  }
+
+  private static LocalDate dayOf(Path file) {
+    String name = file.getFileName().toString();
+    if (name.endsWith(BlockGzipFile.SUFFIX)) {
+      name = name.substring(0, name.length() - BlockGzipFile.SUFFIX.length());
+    }
+    if (!name.startsWith(FILE_PREFIX) || !name.endsWith(FILE_SUFFIX)) {
+      return null;
+    }
+    try {
+      return LocalDate.parse(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  /** Смещение первой строки события с меткой не раньше {@code bound}, либо размер файла. */
+  private static long firstEntryAtOrAfter(LogSource source, long from, byte[] bound)
+      throws IOException {
+    try (ReadableByteChannel channel = source.openAt(from)) {
+      LineReader reader = new LineReader(channel, from, source.size());
+      while (reader.next()) {
+        if (LogFileIndex.isEntryStart(reader.line, 0, reader.length)
+            && compareTimestamp(reader.line, bound) >= 0) {
+          return reader.lineOffset;
+        }
+      }
+    }
+    return source.size();
+  }
+
+  private static boolean matchesLevelAndLogger(
+      byte[] line, int length, Level minLevel, byte[] logger) {
+    // APP [timestamp] [thread] LEVEL logger - message
+    int threadEnd = indexOf(line, length, TIMESTAMP_START + LogFileIndex.TIMESTAMP_LENGTH + 2, "] ");
+    if (threadEnd < 0) {
+      return false;
+    }
+    int levelStart = threadEnd + 2;
+    int levelEnd = indexOf(line, length, levelStart, " ");
+    if (levelEnd < 0) {
+      return false;
+    }
+    if (minLevel != null) {
+      Level level = Level.toLevel(new String(line, levelStart, levelEnd - levelStart, StandardCharsets.US_ASCII), null);
+      if (level == null || !level.isGreaterOrEqual(minLevel)) {
+        return false;
+      }
+    }
+    if (logger == null) {
+      return true;
+    }
+    int loggerEnd = indexOf(line, length, levelEnd, " - ");
+    int found = indexOf(line, loggerEnd < 0 ? length : loggerEnd, levelEnd, logger);
+    return found >= 0;
+  }
+
+  private static int indexOf(byte[] line, int length, int from, String needle) {
+    return indexOf(line, length, from, needle.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  private static int indexOf(byte[] line, int length, int from, byte[] needle) {
+    outer:
+    for (int i = Math.max(0, from); i <= length - needle.length; i++) {
+      for (int j = 0; j < needle.length; j++) {
+        if (line[i + j] != needle[j]) {
+          continue outer;
+        }
+      }
+      return i;
+    }
+    return -1;
+  }
+
+  /** Сравнение метки времени строки события с границей того же формата. */
+  private static int compareTimestamp(byte[] line, byte[] bound) {
+    return Arrays.compare(
+        line, TIMESTAMP_START, TIMESTAMP_START + bound.length, bound, 0, bound.length);
+  }
+
+  private static byte[] timestampBytes(LocalDateTime time) {
+    return LogFileIndex.TIMESTAMP_FORMAT.format(time).getBytes(StandardCharsets.US_ASCII);
+  }
+
+  private static long toMillis(LocalDateTime time) {
+    return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+
+  /** Файл лога, обычный или сжатый, читаемый с произвольного смещения исходного файла. */
+  private record LogSource(Path file, BlockGzipFile archive, long size) {
+    static LogSource of(Path file) throws IOException {
+      if (BlockGzipFile.isArchive(file)) {
+        BlockGzipFile archive = BlockGzipFile.open(file);
+        return new LogSource(file, archive, archive.plainSize());
+      }
+      return new LogSource(file, null, Files.size(file));
+    }
+
+    ReadableByteChannel openAt(long offset) throws IOException {
+      if (archive != null) {
+        return Channels.newChannel(archive.openAt(offset));
+      }
+      FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+      channel.position(offset);
+      return channel;
+    }
+  }
+
+  /** Построчное чтение диапазона файла с сохранением смещения каждой строки. */
+  private static final class LineReader {
+    private final ReadableByteChannel channel;
+    private final long limit;
+    private final ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_BYTES);
+    private long readPosition;
+    private long position;
+    private byte[] line = new byte[512];
+    private int length;
+    private long lineOffset;
+
+    /** {@code channel} должен быть установлен на смещение {@code start}. */
+    LineReader(ReadableByteChannel channel, long start, long limit) {
+      this.channel = channel;
+      this.limit = limit;
+      this.readPosition = start;
+      this.position = start;
+      buffer.limit(0);
+    }
+
+    /** Чтение следующей строки вместе с переводом строки; {@code false} в конце диапазона. */
+    boolean next() throws IOException {
+      lineOffset = position;
+      length = 0;
+      while (position < limit) {
+        if (!buffer.hasRemaining()) {
+          buffer.clear();
+          buffer.limit((int) Math.min(buffer.capacity(), limit - readPosition));
+          int read = channel.read(buffer);
+          buffer.flip();
+          if (read <= 0) {
+            break;
+          }
+          readPosition += read;
+        }
+        byte value = buffer.get();
+        position++;
+        if (length == line.length) {
+          line = Arrays.copyOf(line, length * 2);
+        }
+        line[length++] = value;
+        if (value == '\n') {
+          return true;
+        }
+      }
+      return length > 0;
+    }
+  }
+}
@@ -0,0 +1,132 @@
+package com.thedan17.salesnet.core.service;
+
+import com.thedan17.salesnet.core.dao.AccGroupLinkRepository;
+import com.thedan17.salesnet.core.object.data.MembershipIndexStatistics;
+import com.thedan17.salesnet.core.object.data.MembershipRow;
+import com.thedan17.salesnet.util.MembershipIndex;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Членство аккаунтов в группах из индекса в памяти ({@link MembershipIndex}).
+ *
+ * <p>Индекс строится при запуске приложения; до окончания построения ответы берутся из БД.
+ * Изменения связей применяются к индексу после фиксации транзакции, в которой они сделаны, поэтому
+ * откаченные изменения в индекс не попадают.
+ */
+@Service
+public class MembershipService {
+  private static final int INDEX_LOAD_PAGE_SIZE = 10_000;
+  private final MembershipIndex index = new MembershipIndex();
+  @Autowired private final AccGroupLinkRepository accGroupLinkRepository;
+
+  /** Конструктор для Spring с репозиторием связей, из которого строится индекс. */
+  public MembershipService(AccGroupLinkRepository accGroupLinkRepository) {
+    this.accGroupLinkRepository = accGroupLinkRepository;
+  }
+
+  /** Построение индекса: связи читаются страницами по возрастанию id в виде пар id. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void buildIndex() {
+    index.beginBuild();
+    long[] accountIds = new long[INDEX_LOAD_PAGE_SIZE];
+    long[] groupIds = new long[INDEX_LOAD_PAGE_SIZE];
+    long afterId = 0L;
+    List<MembershipRow> page;
+    do {
+      page =
+          accGroupLinkRepository.findMembershipRowsAfter(
+              afterId, Limit.of(INDEX_LOAD_PAGE_SIZE));
+      for (int i = 0; i < page.size(); i++) {
+        accountIds[i] = page.get(i).accountId();
+        groupIds[i] = page.get(i).groupId();
+      }
+      index.load(accountIds, groupIds, page.size());
+      if (!page.isEmpty()) {
+        afterId = page.get(page.size() - 1).id();
+      }
+    } while (page.size() == INDEX_LOAD_PAGE_SIZE);
+    index.finishBuild();
+  }
+
+  /** Построен ли индекс членства. */
+  public boolean isReady() {
+    return index.isReady();
+  }
+
+  /** Состоит ли аккаунт в группе. */
+  public boolean isMember(Long accountId, Long groupId) {
+    if (index.isReady()) {
+      return index.contains(accountId, groupId);
+    }
+    return accGroupLinkRepository.existsByAccountIdAndGroupId(accountId, groupId);
+  }
+
+  /** Отсортированные id групп аккаунта или {@code Optional.empty()}, пока индекс не построен. */
+  public Optional<long[]> getGroupIds(Long accountId) {
+    return index.isReady() ? Optional.of(index.groupsOf(accountId)) : Optional.empty();
+  }
+
+  /**
+   * Отсортированные id аккаунтов-участников группы или {@code Optional.empty()}, пока индекс не
+   * построен.
+   */
+  public Optional<long[]> getAccountIds(Long groupId) {
+    return index.isReady() ? Optional.of(index.accountsOf(groupId)) : Optional.empty();
+  }
+
+  /** Учёт новой связи после фиксации текущей транзакции. */
+  public void linkAdded(Long accountId, Long groupId) {
+    afterCommit(() -> index.add(accountId, groupId));
+  }
+
+  /** Учёт удалённой связи после фиксации текущей транзакции. */
+  public void linkRemoved(Long accountId, Long groupId) {
+    afterCommit(() -> index.remove(accountId, groupId));
+  }
+
+  /** Учёт удаления группы вместе со всеми её связями после фиксации текущей транзакции. */
+  public void groupRemoved(Long groupId) {
+    afterCommit(() -> index.removeGroup(groupId));
+  }
+
+  /** Учёт удаления аккаунта вместе со всеми его связями после фиксации текущей транзакции. */
+  public void accountRemoved(Long accountId) {
+    afterCommit(() -> index.removeAccount(accountId));
+  }
+
+  /** Выполнение сразу, если транзакции нет, иначе после её успешной фиксации. */
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            action.run();
+          }
+        });
+  }
+
+  /** Снимок состояния индекса членства. */
+  public MembershipIndexStatistics getStatistics() {
+    long links = index.linkCount();
+    long bytes = index.estimatedBytes();
+    return new MembershipIndexStatistics(
+        index.isReady(),
+        index.accountCount(),
+        index.groupCount(),
+        links,
+        bytes,
+        links == 0 ? 0L : Math.round(bytes * 1_000_000.0 / links));
+  }
+}
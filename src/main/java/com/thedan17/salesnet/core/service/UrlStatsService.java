@@ -0,0 +1,152 @@
+package com.thedan17.salesnet.core.service;
+
+import com.thedan17.salesnet.core.dao.UrlStatRepository;
+import com.thedan17.salesnet.core.object.dto.UrlStatDto;
+import com.thedan17.salesnet.core.object.entity.UrlStat;
+import com.thedan17.salesnet.util.AppLoggerCore;
+import com.thedan17.salesnet.util.EntityMapper;
+import com.thedan17.salesnet.util.UrlCounter;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Сохранение счётчиков {@link UrlCounter} в таблицу {@code url_stats} между перезапусками.
+ *
+ * <p>Запросы только увеличивают счётчики в памяти. Раз в {@code salesnet.stats.url.flush-interval}
+ * миллисекунд приросты с прошлого сохранения прибавляются к записям текущего интервала длиной
+ * {@code salesnet.stats.url.bucket}; при старте счётчики восстанавливаются суммой всех записей.
+ * Прирост относится к интервалу, в котором произошло сохранение, а не сам запрос.
+ */
+@Service
+public class UrlStatsService {
+  @Autowired private final UrlCounter urlCounter;
+  @Autowired private final UrlStatRepository urlStatRepository;
+  @Autowired private final EntityMapper entityMapper;
+  @Autowired private AppLoggerCore appLoggerCore;
+  private final TransactionTemplate transactionTemplate;
+  private final long bucketSeconds;
+  /** Значения счётчиков, уже учтённые в БД. */
+  private final Map<String, Long> persistedCounts = new HashMap<>();
+  private volatile boolean restored = false;
+
+  /** Конструктор для Spring. */
+  public UrlStatsService(
+      UrlCounter urlCounter,
+      UrlStatRepository urlStatRepository,
+      EntityMapper entityMapper,
+      PlatformTransactionManager transactionManager,
+      @Value("${salesnet.stats.url.bucket:1h}") Duration bucket) {
+    if (bucket.getSeconds() <= 0) {
+      throw new IllegalArgumentException("URL stats bucket must be at least one second");
+    }
+    this.urlCounter = urlCounter;
+    this.urlStatRepository = urlStatRepository;
+    this.entityMapper = entityMapper;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.bucketSeconds = bucket.getSeconds();
+  }
+
+  /** Восстановление счётчиков из БД; до него приросты не сохраняются. */
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void restoreCounts() {
+    if (restored) {
+      return;
+    }
+    for (Object[] row : urlStatRepository.sumHitsByPattern()) {
+      String pattern = (String) row[0];
+      long hits = ((Number) row[1]).longValue();
+      urlCounter.add(pattern, hits);
+      persistedCounts.merge(pattern, hits, Long::sum);
+    }
+    restored = true;
+  }
+
+  /** Периодическое сохранение приростов. */
+  @Scheduled(
+      fixedDelayString = "${salesnet.stats.url.flush-interval:60000}",
+      initialDelayString = "${salesnet.stats.url.flush-interval:60000}")
+  public void scheduledFlush() {
+    try {
+      flush();
+    } catch (Exception e) {
+      appLoggerCore.error("Exception while flushing url stats: " + e.getMessage());
+    }
+  }
+
+  /** Сохранение оставшихся приростов при остановке приложения. */
+  @PreDestroy
+  public void flushOnShutdown() {
+    scheduledFlush();
+  }
+
+  /**
+   * Прибавление приростов счётчиков к записям текущего интервала одной транзакцией. При ошибке
+   * приросты остаются несохранёнными и попадут в следующее сохранение.
+   *
+   * @return количество шаблонов, у которых был прирост
+   */
+  public synchronized int flush() {
+    if (!restored) {
+      return 0;
+    }
+    Map<String, Long> current = urlCounter.getAllCounts();
+    Map<String, Long> deltas = new HashMap<>();
+    current.forEach((pattern, count) -> {
+      long delta = count - persistedCounts.getOrDefault(pattern, 0L);
+      if (delta > 0) {
+        deltas.put(pattern, delta);
+      }
+    });
+    if (deltas.isEmpty()) {
+      return 0;
+    }
+    LocalDateTime bucketStart = bucketStart(LocalDateTime.now());
+    transactionTemplate.executeWithoutResult(status -> {
+      Map<String, UrlStat> existing =
+          urlStatRepository.findByBucketStartAndPatternIn(bucketStart, deltas.keySet()).stream()
+              .collect(Collectors.toMap(UrlStat::getPattern, Function.identity()));
+      List<UrlStat> changed = deltas.entrySet().stream()
+          .map(delta -> {
+            UrlStat stat = existing.get(delta.getKey());
+            if (stat == null) {
+              return new UrlStat(null, delta.getKey(), bucketStart, delta.getValue());
+            }
+            stat.setHits(stat.getHits() + delta.getValue());
+            return stat;
+          })
+          .toList();
+      urlStatRepository.saveAll(changed);
+    });
+    deltas.forEach((pattern, delta) -> persistedCounts.merge(pattern, delta, Long::sum));
+    return deltas.size();
+  }
+
+  /** История обращений за {@code [from, to)} по интервалам, для одного шаблона или всех. */
+  public List<UrlStatDto> getHistory(String pattern, LocalDateTime from, LocalDateTime to) {
+    return urlStatRepository.findHistory(pattern, from, to).stream()
+        .map(entityMapper::urlStatToDto)
+        .toList();
+  }
+
+  /** Начало интервала, в который попадает момент {@code time}. */
+  LocalDateTime bucketStart(LocalDateTime time) {
+    long seconds = time.toEpochSecond(ZoneOffset.UTC);
+    return LocalDateTime.ofEpochSecond(
+        Math.floorDiv(seconds, bucketSeconds) * bucketSeconds, 0, ZoneOffset.UTC);
+  }
+}
@@ -0,0 +1,257 @@
+package com.thedan17.salesnet.core.validation;
+
+import com.thedan17.salesnet.core.object.dto.AccountSignupDto;
+import com.thedan17.salesnet.util.PasswordCheckUtil;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Правила пароля, проверяемые за один проход по символам без выделения памяти.
+ *
+ * <p>Соседние клавиши берутся из заранее построенной таблицы пар символов рядов клавиатуры. Ряд
+ * считается линией клавиш: символ должен входить не более чем в один ряд (обратный ряд - та же
+ * линия), тогда цепочка соседних пар без разворота совпадает с фрагментом ряда.
+ *
+ * <p>Результат совпадает с проверками {@link PasswordCheckUtil}. Для паролей с не-ASCII символами
+ * (такие пароли и так не проходят правило допустимых символов) последовательности и повторы
+ * проверяются как в {@link PasswordCheckUtil}: с {@link String#toLowerCase()} и регулярным
+ * выражением, учитывающими кодовые точки.
+ */
+public final class PasswordPolicy {
+  /** Правила {@link com.thedan17.salesnet.core.validation.validator.PasswordValidator}. */
+  public static final PasswordPolicy DEFAULT =
+      new PasswordPolicy(
+          PasswordCheckUtil.REQUIRED_PASSWORD_LENGTH,
+          PasswordCheckUtil.REQUIRED_SEQUENCE_LENGTH_DETECT,
+          3,
+          PasswordCheckUtil.KEY_ROWS);
+
+  /** Правила в порядке сообщений об ошибках. */
+  public enum Rule {
+    LENGTH,
+    ALLOWED_CHARS,
+    DIGIT,
+    LOWERCASE,
+    UPPERCASE,
+    SEQUENCES,
+    REPEATED_CHARS;
+
+    /** Бит правила в результате {@link #violations}. */
+    public int bit() {
+      return 1 << ordinal();
+    }
+  }
+
+  private static final Rule[] RULES = Rule.values();
+  private static final int ASCII = 128;
+  private static final int NULL_VIOLATIONS =
+      Rule.LENGTH.bit()
+          | Rule.ALLOWED_CHARS.bit()
+          | Rule.DIGIT.bit()
+          | Rule.LOWERCASE.bit()
+          | Rule.UPPERCASE.bit();
+
+  private final int minLength;
+  private final int sequenceLength;
+  private final int repeatLength;
+  private final List<String> keyRows;
+  /** Битовая таблица пар соседних клавиш {@code (p, c)}, индекс {@code p * 128 + c}. */
+  private final long[] keyPairs = new long[ASCII * ASCII / Long.SIZE];
+  private final Pattern repeatedChars;
+  private final String[] messages;
+
+  /**
+   * Конструктор.
+   *
+   * @param minLength минимальная длина пароля
+   * @param sequenceLength длина запрещённых последовательностей клавиш и символов подряд
+   * @param repeatLength количество одинаковых символов подряд, считающееся повтором
+   * @param keyRows ряды клавиатуры из ASCII символов в нижнем регистре; ряды, кроме обратных друг
+   *     другу, не должны иметь общих символов, иначе {@link IllegalArgumentException}
+   */
+  public PasswordPolicy(int minLength, int sequenceLength, int repeatLength, List<String> keyRows) {
+    if (sequenceLength < 2 || repeatLength < 2) {
+      throw new IllegalArgumentException("Sequence and repeat lengths should be at least 2");
+    }
+    this.minLength = minLength;
+    this.sequenceLength = sequenceLength;
+    this.repeatLength = repeatLength;
+    this.keyRows = List.copyOf(keyRows);
+    checkRowsAreSeparateLines(this.keyRows);
+    for (String row : this.keyRows) {
+      for (int i = 1; i < row.length(); i++) {
+        char previous = row.charAt(i - 1);
+        char current = row.charAt(i);
+        if (previous >= ASCII || current >= ASCII) {
+          throw new IllegalArgumentException("Keyboard rows should contain only ASCII characters");
+        }
+        int index = previous * ASCII + current;
+        keyPairs[index >>> 6] |= 1L << index;
+      }
+    }
+    this.repeatedChars = Pattern.compile("(.)\\1{" + (repeatLength - 1) + ",}");
+    this.messages =
+        new String[] {
+          "Password length should be not less than %s".formatted(minLength),
+          "Password may contain only latin characters, numbers, and underscores",
+          "Password should contain at least one digit",
+          "Password should contain at least one lowercase letter",
+          "Password should contain at least one uppercase letter",
+          "Password should not contain sequences like 'qwerty'",
+          "Password should not contain sequences like '12345'"
+        };
+  }
+
+  /**
+   * Проверка условия таблицы пар: каждый символ входит не более чем в одну линию клавиш и не
+   * повторяется в ней. Ряд и его обратный ряд считаются одной линией.
+   */
+  private static void checkRowsAreSeparateLines(List<String> keyRows) {
+    Set<String> lines = new HashSet<>();
+    boolean[] used = new boolean[ASCII];
+    for (String row : keyRows) {
+      String reversed = new StringBuilder(row).reverse().toString();
+      if (!lines.add(row.compareTo(reversed) <= 0 ? row : reversed)) {
+        continue;
+      }
+      for (int i = 0; i < row.length(); i++) {
+        char c = row.charAt(i);
+        if (c < ASCII && used[c]) {
+          throw new IllegalArgumentException(
+              "Keyboard rows should not share or repeat characters: '" + c + "'");
+        }
+        if (c < ASCII) {
+          used[c] = true;
+        }
+      }
+    }
+  }
+
+  /** Нарушенные правила пароля битами {@link Rule#bit()}; {@code 0}, если пароль подходит. */
+  public int violations(CharSequence password) {
+    if (password == null) {
+      return NULL_VIOLATIONS;
+    }
+    int length = password.length();
+    boolean ascii = true;
+    boolean allowed = length > 0;
+    boolean digit = false;
+    boolean lower = false;
+    boolean upper = false;
+    boolean sequence = false;
+    boolean repeated = false;
+    char previous = 0;
+    char previousLower = 0;
+    char beforePreviousLower = 0;
+    int repeatRun = 0;
+    int keyRun = 0;
+    int increasingRun = 1;
+    int decreasingRun = 1;
+    for (int i = 0; i < length; i++) {
+      char c = password.charAt(i);
+      if (c >= ASCII) {
+        ascii = false;
+        allowed = false;
+        continue;
+      }
+      boolean isDigit = c >= '0' && c <= '9';
+      boolean isLower = c >= 'a' && c <= 'z';
+      boolean isUpper = c >= 'A' && c <= 'Z';
+      digit |= isDigit;
+      lower |= isLower;
+      upper |= isUpper;
+      allowed &= isDigit || isLower || isUpper || c == '_';
+
+      // '.' регулярного выражения не совпадает с переводом строки
+      if (c == '\n' || c == '\r') {
+        repeatRun = 0;
+      } else {
+        repeatRun = i > 0 && c == previous ? repeatRun + 1 : 1;
+      }
+      repeated |= repeatRun >= repeatLength;
+
+      char lowered = isUpper ? (char) (c + ('a' - 'A')) : c;
+      if (i == 0) {
+        keyRun = 1;
+      } else {
+        if (isKeyPair(previousLower, lowered)) {
+          // разворот на ряду (например "wew") начинает новую цепочку с текущей пары
+          keyRun = keyRun >= 2 && lowered == beforePreviousLower ? 2 : keyRun + 1;
+        } else {
+          keyRun = 1;
+        }
+        if (lowered - previousLower == 1) {
+          increasingRun++;
+          decreasingRun = 1;
+        } else if (previousLower - lowered == 1) {
+          decreasingRun++;
+          increasingRun = 1;
+        } else {
+          increasingRun = 1;
+          decreasingRun = 1;
+        }
+      }
+      sequence |=
+          keyRun >= sequenceLength
+              || increasingRun >= sequenceLength
+              || decreasingRun >= sequenceLength;
+
+      previous = c;
+      beforePreviousLower = previousLower;
+      previousLower = lowered;
+    }
+    if (!ascii) {
+      String text = password.toString();
+      sequence = containsSequenceByCodePoints(text);
+      repeated = repeatedChars.matcher(text).find();
+    }
+    int violations = 0;
+    violations |= length >= minLength ? 0 : Rule.LENGTH.bit();
+    violations |= allowed ? 0 : Rule.ALLOWED_CHARS.bit();
+    violations |= digit ? 0 : Rule.DIGIT.bit();
+    violations |= lower ? 0 : Rule.LOWERCASE.bit();
+    violations |= upper ? 0 : Rule.UPPERCASE.bit();
+    violations |= sequence ? Rule.SEQUENCES.bit() : 0;
+    violations |= repeated ? Rule.REPEATED_CHARS.bit() : 0;
+    return violations;
+  }
+
+  private boolean isKeyPair(char previous, char current) {
+    int index = previous * ASCII + current;
+    return (keyPairs[index >>> 6] & (1L << index)) != 0;
+  }
+
+  /** Проверка последовательностей пароля с не-ASCII символами, как в {@link PasswordCheckUtil}. */
+  private boolean containsSequenceByCodePoints(String password) {
+    if (password.length() < sequenceLength) {
+      return false;
+    }
+    String lower = password.toLowerCase();
+    for (String row : keyRows) {
+      for (int i = 0; i + sequenceLength <= row.length(); i++) {
+        if (lower.contains(row.substring(i, i + sequenceLength))) {
+          return true;
+        }
+      }
+    }
+    return PasswordCheckUtil.containsNumericSequence(password, sequenceLength);
+  }
+
+  /** Ошибки валидации пароля в порядке {@link Rule}. */
+  public List<ValidationError> validate(CharSequence password) {
+    int violations = violations(password);
+    if (violations == 0) {
+      return List.of();
+    }
+    List<ValidationError> errors = new ArrayList<>(Integer.bitCount(violations));
+    for (Rule rule : RULES) {
+      if ((violations & rule.bit()) != 0) {
+        errors.add(new ValidationError(AccountSignupDto.Fields.password, messages[rule.ordinal()]));
+      }
+    }
+    return errors;
+  }
+}
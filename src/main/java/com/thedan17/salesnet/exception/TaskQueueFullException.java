@@ -0,0 +1,15 @@
+package com.thedan17.salesnet.exception;
+
+/** Очередь фоновых задач заполнена, задачу стоит отправить повторно позже. */
+public class TaskQueueFullException extends RuntimeException {
+  private final long retryAfterSeconds;
+
+  public TaskQueueFullException(String message, long retryAfterSeconds) {
+    super(message);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  public long getRetryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+}
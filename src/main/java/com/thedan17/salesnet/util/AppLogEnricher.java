@@ -1,48 +1,37 @@
 package com.thedan17.salesnet.util;
 
 import ch.qos.logback.classic.Level;
-import java.util.HashMap;
 import java.util.Map;
-import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.Signature;
-import org.aspectj.lang.annotation.Around;
-import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.util.Pair;
 import org.springframework.stereotype.Component;
 import org.springframework.web.method.HandlerMethod;
 
-/** Аспект для логирования всех методов и исключений пакета проекта. */
-@Aspect
+/**
+ * Компонент для логирования исключений проекта.
+ *
+ * <p>Трассировка вызовов методов вынесена в {@link TracingInterceptor} и включается отдельно.
+ */
 @Component
 public class AppLogEnricher {
-  private static final Map<String, String> packageShortage = new HashMap<>();
+  private static final Map<String, String> packageShortage =
+      Map.of("com.thedan17.salesnet", "SALESNET", "org.springframework", "SPRINGFW");
   @Autowired @Lazy
   AppLoggerCore logger;
 
-  /** Конструктор, задающий вручную сокращения для пакетов. */
+  /** Конструктор для автопривязки Spring. */
   public AppLogEnricher(AppLoggerCore logger) {
     this.logger = logger;
-    packageShortage.put("com.thedan17.salesnet", "SALESNET");
-    packageShortage.put("org.springframework", "SPRINGFW");
   }
 
   /**
-   * Создание сокращённой структуры.
+   * Создание сокращённой сигнатуры.
    *
    * <p>Заключается в создании строки, указывающей полный путь метода, но с заменой некоторых
    * пакетов на сокращения, указанные в {@link AppLogEnricher#packageShortage}
    */
-  private String makeShortSignature(Signature signature) {
-    MethodSignature methodSignature = (MethodSignature) signature;
-    String className = methodSignature.getDeclaringTypeName();
-    String methodName = methodSignature.getName();
-    return makeShortPackages(className, methodName);
-  }
-
-  private String makeShortPackages(String className, String methodName) {
+  static String makeShortPackages(String className, String methodName) {
     for (var pair : packageShortage.entrySet()) {
       className = className.replace(pair.getKey(), pair.getValue());
     }
@@ -59,31 +48,6 @@ public class AppLogEnricher {
     return target.toString();
   }
 
-  /** Перехват выполнения всех методов проекта, для логирования. */
-  @Around("execution(* com.thedan17.salesnet..*.*(..))")
-  public Object logMethod(ProceedingJoinPoint joinPoint) throws Throwable {
-    if (joinPoint.getSignature().getDeclaringType().equals(AppLoggerCore.class)) {
-      return joinPoint.proceed(); // не логируем AppLoggerCore
-    }
-
-    long startTimePoint = System.currentTimeMillis();
-    logger.trace(
-        "start of method \"{}\"  [args:{}, target:{}]",
-        makeShortSignature(joinPoint.getSignature()),
-        joinPoint.getArgs(),
-        makeShortTarget(joinPoint.getTarget()));
-    Object result = joinPoint.proceed();
-
-    long endTimePoint = System.currentTimeMillis();
-    logger.trace(
-        "end of method \"{}\"  [took:{}ms, target:{}]",
-        makeShortSignature(joinPoint.getSignature()),
-        endTimePoint - startTimePoint,
-        makeShortTarget(joinPoint.getTarget()));
-
-    return result;
-  }
-
   /** Получение исключения, возникшего в проекте, для логирования. */
   public void logException(HandlerMethod handlerMethod, Throwable ex) {
     logger.error(
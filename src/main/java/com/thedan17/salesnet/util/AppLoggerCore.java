@@ -7,6 +7,7 @@ import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.ConsoleAppender;
 import ch.qos.logback.core.rolling.RollingFileAppender;
 import ch.qos.logback.core.rolling.TimeBasedRollingPolicy;
+import com.thedan17.salesnet.core.object.data.LoggingStatistics;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
@@ -14,10 +15,16 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
 public class AppLoggerCore {
+  private static final String ASYNC_APPENDER_NAME = "AppAsyncAppender";
+  private static final int ASYNC_QUEUE_CAPACITY = 8192;
+  private static final String APP_ROOT_LOGGER = "com.thedan17";
+
   Logger basicLogger = LoggerFactory.getLogger(AppLoggerCore.class.toString() + "Basic");
   ch.qos.logback.classic.Logger logbackLogger;
 
@@ -38,6 +45,35 @@ public class AppLoggerCore {
     logbackLogger = loggerContext.getLogger(AppLoggerCore.class);
     logbackLogger.setAdditive(false);
 
+    // Компонент создаётся и через new в нескольких классах, appender'ы должны быть одни на всех
+    synchronized (AppLoggerCore.class) {
+      if (logbackLogger.getAppender(ASYNC_APPENDER_NAME) == null) {
+        logbackLogger.addAppender(createAsyncAppender(loggerContext));
+      }
+    }
+    // Уровень из logging.level.* для этого логгера или его предка в com.thedan17 имеет приоритет
+    if (!hasConfiguredLevel(loggerContext, logbackLogger.getName())) {
+      logbackLogger.setLevel(Level.DEBUG);
+    }
+  }
+
+  /** Задан ли уровень явно у логгера {@code name} или у его предков внутри {@code com.thedan17}. */
+  private static boolean hasConfiguredLevel(LoggerContext loggerContext, String name) {
+    while (name.startsWith(APP_ROOT_LOGGER)) {
+      ch.qos.logback.classic.Logger logger = loggerContext.exists(name);
+      if (logger != null && logger.getLevel() != null) {
+        return true;
+      }
+      int dot = name.lastIndexOf('.');
+      if (dot < 0) {
+        break;
+      }
+      name = name.substring(0, dot);
+    }
+    return false;
+  }
+
+  private AsyncBatchingAppender createAsyncAppender(LoggerContext loggerContext) {
     String logDir = "logs";
     Path logDirPath = Paths.get(logDir);
     if (!Files.exists(logDirPath)) {
@@ -48,9 +84,10 @@ public class AppLoggerCore {
         throw new UncheckedIOException("Fatal: Logging app component initialization failed because path not reachable", e);
       }
     }
+    // Сброс буферов на диск выполняет AsyncBatchingAppender один раз на пакет событий
     RollingFileAppender<ILoggingEvent> rollingFileAppender = new RollingFileAppender<>();
     rollingFileAppender.setContext(loggerContext);
-    rollingFileAppender.setImmediateFlush(true);
+    rollingFileAppender.setImmediateFlush(false);
 
     // Настраиваем политику ротации по дате
     TimeBasedRollingPolicy<ILoggingEvent> rollingPolicy = new TimeBasedRollingPolicy<>();
@@ -64,6 +101,7 @@ public class AppLoggerCore {
 
     ConsoleAppender<ILoggingEvent> consoleAppender = new ConsoleAppender<>();
     consoleAppender.setContext(loggerContext);
+    consoleAppender.setImmediateFlush(false);
 
     rollingFileAppender.setName("AppFileAppender");
     consoleAppender.setName("AppConsoleAppender");
@@ -78,13 +116,38 @@ public class AppLoggerCore {
     consoleAppender.setEncoder(encoder);
     consoleAppender.start();
 
-    if (logbackLogger.getAppender("AppFileAppender") == null) {
-      logbackLogger.addAppender(rollingFileAppender);
+    AsyncBatchingAppender asyncAppender =
+        new AsyncBatchingAppender(ASYNC_QUEUE_CAPACITY, LogOverflowPolicy.DROP_LOW_LEVELS);
+    asyncAppender.setContext(loggerContext);
+    asyncAppender.setName(ASYNC_APPENDER_NAME);
+    asyncAppender.addTarget(rollingFileAppender);
+    asyncAppender.addTarget(consoleAppender);
+    asyncAppender.setBatchListener(new LogIndexWriter(rollingFileAppender::getFile));
+    asyncAppender.start();
+    return asyncAppender;
+  }
+
+  /** Политика переполнения очереди записи лога, общая для всех экземпляров. */
+  @Autowired
+  public void setOverflowPolicy(
+      @Value("${salesnet.logging.async.overflow:DROP_LOW_LEVELS}") LogOverflowPolicy policy) {
+    AsyncBatchingAppender appender = getAsyncAppender();
+    if (appender != null) {
+      appender.setOverflowPolicy(policy);
     }
-    if (logbackLogger.getAppender("AppConsoleAppender") == null) {
-      logbackLogger.addAppender(consoleAppender);
+  }
+
+  /** Счётчики очереди записи лога; {@code null}, если логгер не инициализирован. */
+  public LoggingStatistics getStatistics() {
+    AsyncBatchingAppender appender = getAsyncAppender();
+    return appender == null ? null : appender.getStatistics();
+  }
+
+  private AsyncBatchingAppender getAsyncAppender() {
+    if (logbackLogger == null) {
+      return null;
     }
-    logbackLogger.setLevel(Level.DEBUG);
+    return (AsyncBatchingAppender) logbackLogger.getAppender(ASYNC_APPENDER_NAME);
   }
 
   public void log(Level level, String message, Object... args) {
@@ -98,6 +161,11 @@ public class AppLoggerCore {
     }
   }
 
+  /** Включён ли уровень TRACE, для проверки до подготовки аргументов сообщения. */
+  public boolean isTraceEnabled() {
+    return logbackLogger.isTraceEnabled();
+  }
+
   public void trace(String format, Object... args) {
     logbackLogger.trace(format, args);
   }
@@ -0,0 +1,214 @@
+package com.thedan17.salesnet.util;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import com.thedan17.salesnet.core.object.data.LoggingStatistics;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Appender, который кладёт события в {@link MpscRingBuffer} и отдаёт их целевым appender'ам из
+ * одного фонового потока.
+ *
+ * <p>Поток записи забирает до {@value #MAX_BATCH} событий за раз и сбрасывает буферы целевых
+ * appender'ов один раз на пакет, поэтому у них должен быть выключен {@code immediateFlush}.
+ * Переполнение очереди обрабатывается согласно {@link LogOverflowPolicy}.
+ */
+public class AsyncBatchingAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+  private static final int MAX_BATCH = 512;
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+  private static final long FULL_QUEUE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+  private static final long STOP_TIMEOUT_MILLIS = 5_000;
+
+  private final MpscRingBuffer<ILoggingEvent> buffer;
+  private final int lowLevelDropThreshold;
+  private final List<OutputStreamAppender<ILoggingEvent>> targets = new ArrayList<>();
+  private volatile LogOverflowPolicy overflowPolicy;
+  private BatchListener batchListener;
+
+  private final LongAdder enqueued = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private final AtomicLong written = new AtomicLong();
+  private final AtomicLong batches = new AtomicLong();
+
+  private volatile Thread writer;
+  private volatile boolean writerParked = false;
+  private volatile boolean running = false;
+
+  /** Конструктор с ёмкостью очереди (округляется вверх до степени двойки). */
+  public AsyncBatchingAppender(int capacity, LogOverflowPolicy overflowPolicy) {
+    this.buffer = new MpscRingBuffer<>(capacity);
+    this.lowLevelDropThreshold = buffer.capacity() / 5 * 4;
+    this.overflowPolicy = overflowPolicy;
+  }
+
+  /** Добавление целевого appender'а; только до {@link #start()}. */
+  public void addTarget(OutputStreamAppender<ILoggingEvent> target) {
+    if (isStarted()) {
+      throw new IllegalStateException("Targets must be added before start");
+    }
+    targets.add(target);
+  }
+
+  /** Обработчик, вызываемый потоком записи перед каждым пакетом; только до {@link #start()}. */
+  public void setBatchListener(BatchListener batchListener) {
+    if (isStarted()) {
+      throw new IllegalStateException("Batch listener must be set before start");
+    }
+    this.batchListener = batchListener;
+  }
+
+  public void setOverflowPolicy(LogOverflowPolicy overflowPolicy) {
+    this.overflowPolicy = overflowPolicy;
+  }
+
+  @Override
+  public void start() {
+    if (isStarted()) {
+      return;
+    }
+    if (targets.isEmpty()) {
+      addError("No target appenders for " + getName());
+      return;
+    }
+    running = true;
+    Thread thread = new Thread(this::writeLoop, "app-log-writer");
+    thread.setDaemon(true);
+    writer = thread;
+    thread.start();
+    super.start();
+  }
+
+  @Override
+  protected void append(ILoggingEvent event) {
+    LogOverflowPolicy policy = overflowPolicy;
+    if (policy == LogOverflowPolicy.DROP_LOW_LEVELS
+        && event.getLevel().toInt() <= Level.DEBUG_INT
+        && buffer.size() >= lowLevelDropThreshold) {
+      dropped.increment();
+      return;
+    }
+    event.prepareForDeferredProcessing();
+    while (!buffer.offer(event)) {
+      if (policy == LogOverflowPolicy.DROP_LOW_LEVELS
+          || !running
+          || Thread.currentThread() == writer) {
+        dropped.increment();
+        return;
+      }
+      LockSupport.unpark(writer);
+      LockSupport.parkNanos(FULL_QUEUE_PARK_NANOS);
+    }
+    enqueued.increment();
+    if (writerParked) {
+      LockSupport.unpark(writer);
+    }
+  }
+
+  @Override
+  public void stop() {
+    if (!isStarted()) {
+      return;
+    }
+    super.stop();
+    running = false;
+    Thread thread = writer;
+    LockSupport.unpark(thread);
+    try {
+      thread.join(STOP_TIMEOUT_MILLIS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    targets.forEach(OutputStreamAppender::stop);
+    if (batchListener != null) {
+      batchListener.close();
+    }
+  }
+
+  /** Снимок счётчиков очереди. */
+  public LoggingStatistics getStatistics() {
+    return new LoggingStatistics(
+        overflowPolicy.name(),
+        buffer.capacity(),
+        buffer.size(),
+        enqueued.sum(),
+        dropped.sum(),
+        written.get(),
+        batches.get());
+  }
+
+  private void writeLoop() {
+    while (true) {
+      if (writeBatch() > 0) {
+        continue;
+      }
+      if (!running) {
+        return;
+      }
+      writerParked = true;
+      if (buffer.size() == 0 && running) {
+        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+      }
+      writerParked = false;
+    }
+  }
+
+  private int writeBatch() {
+    int count = 0;
+    ILoggingEvent event;
+    while (count < MAX_BATCH && (event = buffer.poll()) != null) {
+      if (count == 0 && batchListener != null) {
+        notifyBatchListener(event);
+      }
+      for (OutputStreamAppender<ILoggingEvent> target : targets) {
+        target.doAppend(event);
+      }
+      count++;
+    }
+    if (count > 0) {
+      flushTargets();
+      written.addAndGet(count);
+      batches.incrementAndGet();
+    }
+    return count;
+  }
+
+  private void notifyBatchListener(ILoggingEvent firstEvent) {
+    try {
+      batchListener.beforeBatch(firstEvent);
+    } catch (RuntimeException e) {
+      addError("Batch listener failed", e);
+    }
+  }
+
+  private void flushTargets() {
+    for (OutputStreamAppender<ILoggingEvent> target : targets) {
+      OutputStream stream = target.getOutputStream();
+      if (stream == null) {
+        continue;
+      }
+      try {
+        stream.flush();
+      } catch (IOException e) {
+        addError("Failed to flush " + target.getName(), e);
+      }
+    }
+  }
+
+  /** Обработчик пакетов записи, выполняется в потоке записи. */
+  public interface BatchListener {
+    /** Вызывается до записи пакета, все предыдущие пакеты уже сброшены на диск. */
+    void beforeBatch(ILoggingEvent firstEvent);
+
+    /** Освобождение ресурсов при остановке appender'а. */
+    default void close() {}
+  }
+}
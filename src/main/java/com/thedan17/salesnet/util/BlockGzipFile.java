@@ -0,0 +1,158 @@
+package com.thedan17.salesnet.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Файл из независимых gzip-блоков с таблицей смещений, по которой можно читать с любого места.
+ *
+ * <p>Каждый блок - отдельный gzip-member примерно из {@value #BLOCK_SIZE} байт исходного файла,
+ * обрезанный по концу строки, поэтому весь файл остаётся обычным gzip для любого клиента. Таблица
+ * хранится рядом в {@code <файл>.blk} парами {@code long} (смещение блока в исходном и сжатом
+ * файле), последняя пара - размеры исходного и сжатого файла.
+ */
+public final class BlockGzipFile {
+  /** Примерный размер блока исходного файла. */
+  public static final int BLOCK_SIZE = 256 * 1024;
+  /** Расширение сжатого файла. */
+  public static final String SUFFIX = ".gz";
+  private static final String TABLE_SUFFIX = ".blk";
+  private static final int STREAM_BUFFER_BYTES = 64 * 1024;
+
+  private final Path file;
+  private final long[] plainOffsets;
+  private final long[] compressedOffsets;
+
+  private BlockGzipFile(Path file, long[] plainOffsets, long[] compressedOffsets) {
+    this.file = file;
+    this.plainOffsets = plainOffsets;
+    this.compressedOffsets = compressedOffsets;
+  }
+
+  /** Файл таблицы блоков для сжатого файла. */
+  public static Path tableOf(Path compressed) {
+    return compressed.resolveSibling(compressed.getFileName() + TABLE_SUFFIX);
+  }
+
+  /** Является ли файл сжатым (по расширению). */
+  public static boolean isArchive(Path file) {
+    return file.getFileName().toString().endsWith(SUFFIX);
+  }
+
+  /** Исходный файл для сжатого: то же имя без {@value #SUFFIX}. */
+  public static Path plainOf(Path compressed) {
+    String name = compressed.getFileName().toString();
+    return compressed.resolveSibling(name.substring(0, name.length() - SUFFIX.length()));
+  }
+
+  /** Сжатие {@code source} в {@code target} с таблицей блоков. */
+  public static void compress(Path source, Path target) throws IOException {
+    ByteArrayOutputStream table = new ByteArrayOutputStream();
+    ByteBuffer entry = ByteBuffer.allocate(2 * Long.BYTES);
+    byte[] buffer = new byte[BLOCK_SIZE];
+    ByteArrayOutputStream block = new ByteArrayOutputStream(BLOCK_SIZE / 4);
+    long plainOffset = 0;
+    long compressedOffset = 0;
+    try (InputStream in = Files.newInputStream(source);
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(target))) {
+      int filled = 0;
+      while (true) {
+        int read = in.readNBytes(buffer, filled, buffer.length - filled);
+        filled += read;
+        if (filled == 0) {
+          break;
+        }
+        int blockLength = read == 0 ? filled : lastLineEnd(buffer, filled);
+        block.reset();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(block, STREAM_BUFFER_BYTES)) {
+          gzip.write(buffer, 0, blockLength);
+        }
+        block.writeTo(out);
+        table.write(entry.clear().putLong(plainOffset).putLong(compressedOffset).array());
+        plainOffset += blockLength;
+        compressedOffset += block.size();
+        System.arraycopy(buffer, blockLength, buffer, 0, filled - blockLength);
+        filled -= blockLength;
+      }
+    }
+    table.write(entry.clear().putLong(plainOffset).putLong(compressedOffset).array());
+    Files.write(tableOf(target), table.toByteArray());
+  }
+
+  /** Длина буфера до последнего перевода строки включительно; весь буфер, если его нет. */
+  private static int lastLineEnd(byte[] buffer, int length) {
+    for (int i = length - 1; i >= 0; i--) {
+      if (buffer[i] == '\n') {
+        return i + 1;
+      }
+    }
+    return length;
+  }
+
+  /** Открытие сжатого файла; без таблицы весь файл считается одним блоком. */
+  public static BlockGzipFile open(Path compressed) throws IOException {
+    Path table = tableOf(compressed);
+    if (!Files.isRegularFile(table)) {
+      long plainSize;
+      try (InputStream in = new GZIPInputStream(Files.newInputStream(compressed))) {
+        plainSize = in.transferTo(OutputStream.nullOutputStream());
+      }
+      return new BlockGzipFile(
+          compressed, new long[] {0, plainSize}, new long[] {0, Files.size(compressed)});
+    }
+    ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(table));
+    int count = bytes.remaining() / (2 * Long.BYTES);
+    long[] plainOffsets = new long[count];
+    long[] compressedOffsets = new long[count];
+    for (int i = 0; i < count; i++) {
+      plainOffsets[i] = bytes.getLong();
+      compressedOffsets[i] = bytes.getLong();
+    }
+    return new BlockGzipFile(compressed, plainOffsets, compressedOffsets);
+  }
+
+  /** Размер исходного файла. */
+  public long plainSize() {
+    return plainOffsets[plainOffsets.length - 1];
+  }
+
+  /** Смещения начала блоков в исходном файле. */
+  public long[] blockStarts() {
+    return Arrays.copyOf(plainOffsets, plainOffsets.length - 1);
+  }
+
+  /** Распакованное содержимое, начиная со смещения {@code offset} исходного файла. */
+  public InputStream openAt(long offset) throws IOException {
+    int block = Arrays.binarySearch(plainOffsets, 0, plainOffsets.length - 1, offset);
+    if (block < 0) {
+      block = Math.max(0, -block - 2);
+    }
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    InputStream in;
+    try {
+      channel.position(compressedOffsets[block]);
+      if (compressedOffsets[block] >= channel.size()) {
+        channel.close();
+        return InputStream.nullInputStream();
+      }
+      in = new GZIPInputStream(Channels.newInputStream(channel), STREAM_BUFFER_BYTES);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+    in.skipNBytes(Math.max(0, offset - plainOffsets[block]));
+    return in;
+  }
+}
@@ -0,0 +1,43 @@
+package com.thedan17.salesnet.util;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import java.io.IOException;
+import java.io.InputStream;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+/**
+ * Потоковое чтение элементов массового импорта из тела запроса.
+ *
+ * <p>Поддерживаются NDJSON (один JSON-объект на строку) и CSV с заголовком, имена колонок
+ * совпадают с полями DTO. Элементы разбираются по одному, тело запроса целиком не читается.
+ */
+@Component
+public class BulkImportReader {
+  public static final MediaType CSV = MediaType.parseMediaType("text/csv");
+  private final ObjectMapper objectMapper;
+  private final CsvMapper csvMapper = new CsvMapper();
+
+  /** Конструктор, использующий настроенный Spring {@code ObjectMapper} для NDJSON. */
+  public BulkImportReader(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Итератор по элементам тела запроса.
+   *
+   * @param contentType формат тела, NDJSON или CSV
+   */
+  public <T> MappingIterator<T> read(InputStream body, MediaType contentType, Class<T> type)
+      throws IOException {
+    ObjectReader reader =
+        CSV.includes(contentType)
+            ? csvMapper.readerFor(type).with(CsvSchema.emptySchema().withHeader())
+            : objectMapper.readerFor(type);
+    return reader.readValues(body);
+  }
+}
@@ -0,0 +1,59 @@
+package com.thedan17.salesnet.util;
+
+/**
+ * Политика вытеснения ключей для {@link CacheIdManager}.
+ *
+ * <p>Реализации обязаны быть потокобезопасными: {@link #recordAccess} вызывается при каждом
+ * попадании в кэш без внешних блокировок, остальные методы - под блокировками менеджера.
+ *
+ * @param <K> тип ключа кэша
+ */
+public interface CacheEvictionPolicy<K> {
+  /** Фиксация обращения к ключу, который уже находится в кэше. */
+  void recordAccess(K key);
+
+  /** Фиксация обращения к ключу, которого нет в кэше. */
+  default void recordMiss(K key) {
+    // большинству политик промахи не важны
+  }
+
+  /** Фиксация добавления ключа в кэш. */
+  void recordInsert(K key);
+
+  /** Ключ, который будет вытеснен следующим, либо {@code null}, если ключей нет. */
+  K peekVictim();
+
+  /** Извлечение ключа, который должен быть вытеснен, либо {@code null}, если ключей нет. */
+  K pollVictim();
+
+  /**
+   * Решение, стоит ли добавлять новый ключ в заполненный кэш ценой вытеснения {@code victim}.
+   *
+   * @param victim ключ-кандидат на вытеснение, может быть {@code null}
+   */
+  default boolean admit(K candidate, K victim) {
+    return true;
+  }
+
+  /** Сброс всей накопленной информации. */
+  void clear();
+
+  /** Доступные политики вытеснения. */
+  enum Type {
+    /** Вытесняются самые старые по времени добавления ключи. */
+    FIFO,
+    /** Вытесняются ключи, к которым дольше всего не обращались. */
+    LRU,
+    /** LRU-порядок и допуск новых ключей только при большей частоте обращений, чем у жертвы. */
+    TINY_LFU;
+
+    /** Создание политики для кэша с максимальным размером {@code capacity}. */
+    public <K> CacheEvictionPolicy<K> create(long capacity) {
+      return switch (this) {
+        case FIFO -> new OrderedEvictionPolicy<>(false);
+        case LRU -> new OrderedEvictionPolicy<>(true);
+        case TINY_LFU -> new TinyLfuEvictionPolicy<>(capacity);
+      };
+    }
+  }
+}
@@ -1,11 +1,14 @@
 package com.thedan17.salesnet.util;
 
-import java.util.HashMap;
+import com.thedan17.salesnet.core.object.data.CacheStatistics;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.Iterator;
 import java.util.Optional;
-import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
 
@@ -13,7 +16,22 @@ import java.util.function.Function;
  * Класс для хранения и последующего обновления кэша.
  *
  * <p>Изначально спроектирован для хранения результатов поиска, где каждому сочетанию параметров
- * соответствует список подходящих объектов. Предполагается использование в одном потоке
+ * соответствует список подходящих объектов. Безопасен для использования из нескольких потоков:
+ *
+ * <ul>
+ *   <li>Чтение ({@link #getCachedAction}) не берёт блокировок, все хранилища конкурентные
+ *   <li>Изменения записей ключа выполняются под блокировкой полосы (stripe), к которой относится
+ *       ключ, поэтому {@link #updateCache} блокирует только затрагиваемые ключи
+ *   <li>Очистка при переполнении выполняется одним потоком за раз
+ * </ul>
+ *
+ * <p>Какие ключи вытесняются при переполнении, определяет {@link CacheEvictionPolicy}, заданная
+ * при создании. Счётчики попаданий, промахов и вытеснений доступны через {@link
+ * #getStatistics()}.
+ *
+ * <p>Для кэшей поиска по подстроке можно подключить {@link SubstringKeyIndex} через {@link
+ * #setInvalidationIndex}, тогда {@link #updateCache} проверяет не все ключи, а только те, что
+ * могут совпасть с текстом сущности.
  *
  * <p>Перед работой необходимо задать функции через метод {@link CacheIdManager#setFunctionality},
  * если планируется использовать методы {@link CacheIdManager#doAction} или {@link
@@ -25,16 +43,27 @@ import java.util.function.Function;
  */
 public class CacheIdManager<K, O, I> {
   private static Short fullPercentage = 100;
+  private static final int STRIPES_AMOUNT = 64;
   private final Long cacheMaxSize;
   private final Short clearPercentage;
-  private final HashMap<K, Set<I>> cache = new HashMap<>();
-  private final Queue<K> history = new LinkedList<>();
-  private final HashMap<I, Set<K>> linkRepository = new HashMap<>();
-  private final HashMap<I, O> entityRepository = new HashMap<>();
+  private final ConcurrentHashMap<K, Set<I>> cache = new ConcurrentHashMap<>();
+  private final CacheEvictionPolicy<K> evictionPolicy;
+  private final String evictionPolicyName;
+  private final ConcurrentHashMap<I, Set<K>> linkRepository = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<I, O> entityRepository = new ConcurrentHashMap<>();
+  private final ReentrantLock[] keyLocks = new ReentrantLock[STRIPES_AMOUNT];
+  private final ReentrantLock trimLock = new ReentrantLock();
+  private final AtomicLong updateGeneration = new AtomicLong();
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
+  private final LongAdder rejectedCount = new LongAdder();
 
   private final Function<O, I> getId;
-  private Function<K, Set<O>> cacheableAction;
-  private BiPredicate<K, O> isPairValid;
+  private volatile Function<K, Set<O>> cacheableAction;
+  private volatile BiPredicate<K, O> isPairValid;
+  private volatile SubstringKeyIndex<K> invalidationIndex;
+  private volatile Function<O, String> entityText;
 
   private final AppLoggerCore logger = new AppLoggerCore();
 
@@ -45,8 +74,26 @@ public class CacheIdManager<K, O, I> {
     ENTITY_DELETED
   }
 
-  /** Конструктор для задания настроек класса. */
+  /** Конструктор для задания настроек класса, с политикой вытеснения {@code LRU}. */
   public CacheIdManager(Function<O, I> getIdFunc, long sizeOfCache, short clearPercentage) {
+    this(getIdFunc, sizeOfCache, clearPercentage, CacheEvictionPolicy.Type.LRU);
+  }
+
+  /** Конструктор для задания настроек класса, включая тип политики вытеснения. */
+  public CacheIdManager(
+      Function<O, I> getIdFunc,
+      long sizeOfCache,
+      short clearPercentage,
+      CacheEvictionPolicy.Type evictionType) {
+    this(getIdFunc, sizeOfCache, clearPercentage, evictionType.create(sizeOfCache));
+  }
+
+  /** Конструктор для задания настроек класса с собственной политикой вытеснения. */
+  public CacheIdManager(
+      Function<O, I> getIdFunc,
+      long sizeOfCache,
+      short clearPercentage,
+      CacheEvictionPolicy<K> evictionPolicy) {
     if (clearPercentage < 1 || clearPercentage > 100) {
       throw new IllegalArgumentException(
           "Clear percentage in CacheIdManager must be between 1 and 100");
@@ -54,6 +101,11 @@ public class CacheIdManager<K, O, I> {
     this.cacheMaxSize = sizeOfCache;
     this.clearPercentage = clearPercentage;
     this.getId = getIdFunc;
+    this.evictionPolicy = evictionPolicy;
+    this.evictionPolicyName = evictionPolicy.getClass().getSimpleName();
+    for (int i = 0; i < STRIPES_AMOUNT; i++) {
+      keyLocks[i] = new ReentrantLock();
+    }
     this.logger.debug("Object created");
   }
 
@@ -64,9 +116,29 @@ public class CacheIdManager<K, O, I> {
     logger.debug("Functionality set");
   }
 
+  /**
+   * Подключение индекса ключей-подстрок для точечной инвалидации.
+   *
+   * <p>Вызывается до начала работы с кэшем. Предполагается, что ключ совпадает с сущностью, только
+   * если текст сущности содержит текст ключа без учёта регистра.
+   *
+   * @param keyText функция получения подстроки из ключа
+   * @param entityText функция получения текста, в котором ищется подстрока, из сущности
+   */
+  public void setInvalidationIndex(Function<K, String> keyText, Function<O, String> entityText) {
+    SubstringKeyIndex<K> index = new SubstringKeyIndex<>(keyText);
+    cache.keySet().forEach(index::add);
+    this.entityText = entityText;
+    this.invalidationIndex = index;
+    logger.debug("Invalidation index set");
+  }
+
   /**
    * Метод получения результатов действия; если таковые имеются в кэше, то получаются оттуда.
    *
+   * <p>Результат, полученный в момент параллельного {@link #updateCache}, в кэш не сохраняется,
+   * так как мог быть вычислен по устаревшим данным.
+   *
    * @param isResultCaching влияет на то, сохранятся ли полученные данные в кэш при их отсутствии
    */
   public Set<O> doAction(K argument, boolean isResultCaching) {
@@ -78,10 +150,13 @@ public class CacheIdManager<K, O, I> {
       return cacheResult.get();
     }
     logger.debug("Cache miss");
+    missCount.increment();
+    evictionPolicy.recordMiss(argument);
+    long generation = updateGeneration.get();
     Set<O> actionResult = cacheableAction.apply(argument);
     if (isResultCaching) {
       logger.debug("Add cache");
-      addCache(argument, actionResult);
+      addCache(argument, actionResult, generation);
     }
     return actionResult;
   }
@@ -95,18 +170,25 @@ public class CacheIdManager<K, O, I> {
   }
 
   /**
-   * Прямое извлечение результата из имеющегося кэша.
+   * Прямое извлечение результата из имеющегося кэша, без блокировок.
+   *
+   * <p>Попадание учитывается в статистике и политике вытеснения.
    *
    * @return значение из кэша по параметру поиска, иначе {@code Optional.empty()}
    */
   public Optional<Set<O>> getCachedAction(K argument) {
     Set<I> resultInner = cache.get(argument);
-    Set<O> result = new HashSet<>();
     if (resultInner == null) {
       return Optional.empty();
     }
+    hitCount.increment();
+    evictionPolicy.recordAccess(argument);
+    Set<O> result = new HashSet<>();
     for (var resItem : resultInner) {
-      result.add(entityRepository.get(resItem));
+      O entity = entityRepository.get(resItem);
+      if (entity != null) { // сущность могла быть удалена параллельно
+        result.add(entity);
+      }
     }
     return Optional.of(result);
   }
@@ -117,48 +199,92 @@ public class CacheIdManager<K, O, I> {
    * <ul>
    *   <li>Если при добавлении кэш заполнен, то сначала очищает часть записей
    *   <li>Размер кэша и процент очищаемых записей заданы при создании объекта класса
+   *   <li>Политика вытеснения может не допустить новый ключ в заполненный кэш
    *   <li>Помимо самих записей добавляет быстрые ссылки на ключи, которые будут содержать значения
    * </ul>
    */
   public void addCache(K key, Set<O> results) {
-    trimCacheIfFull();
-    Set<I> resultsCopy = new HashSet<>();
+    if (!trimCacheIfFull(key)) {
+      return;
+    }
+    ReentrantLock lock = lockOf(key);
+    lock.lock();
+    try {
+      putCacheLocked(key, results);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Добавление кэша, только если с момента {@code generation} не было вызовов {@link
+   * #updateCache}.
+   */
+  private void addCache(K key, Set<O> results, long generation) {
+    if (!trimCacheIfFull(key)) {
+      return;
+    }
+    ReentrantLock lock = lockOf(key);
+    lock.lock();
+    try {
+      if (updateGeneration.get() != generation) {
+        logger.debug("Cache update happened while action was running, result not cached");
+        return;
+      }
+      putCacheLocked(key, results);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Запись результатов ключа; вызывается под блокировкой ключа. */
+  private void putCacheLocked(K key, Set<O> results) {
+    Set<I> resultsCopy = ConcurrentHashMap.newKeySet();
     for (O resItem : results) {
       I id = getId.apply(resItem);
       resultsCopy.add(id);
       entityRepository.put(id, resItem);
-      linkRepository.computeIfAbsent(id, k -> new HashSet<>()).add(key);
+      linkRepository.computeIfAbsent(id, k -> ConcurrentHashMap.newKeySet()).add(key);
+    }
+    if (cache.put(key, resultsCopy) == null) {
+      evictionPolicy.recordInsert(key);
+      SubstringKeyIndex<K> index = invalidationIndex;
+      if (index != null) {
+        index.add(key);
+      }
     }
-    cache.put(key, resultsCopy);
-    history.add(key);
   }
 
   /**
    * Актуализация кэша при изменении сущностей, которые могут находиться в результатах ключей.
    *
-   * <p>Значения из {@link UpdateReason} соответствуют операциям в БД.
+   * <p>Значения из {@link UpdateReason} соответствуют операциям в БД. Каждый проверяемый ключ
+   * блокируется отдельно и только на время изменения его записей.
    *
    * @param includeKeysWithoutEntity флаг, отвечающий за жёсткость актуализации кэша
    */
   public void updateCache(O entity, UpdateReason updateReason, boolean includeKeysWithoutEntity) {
+    updateCache(entity, updateReason, includeKeysWithoutEntity, isPairValid);
+  }
+
+  /**
+   * Аналог {@link #updateCache(Object, UpdateReason, boolean)} с проверкой пары, заданной на время
+   * одного обновления.
+   *
+   * <p>Позволяет один раз подготовить данные о сущности (например, загрузить связи из БД) и
+   * переиспользовать их для всех проверяемых ключей.
+   */
+  public void updateCache(
+      O entity,
+      UpdateReason updateReason,
+      boolean includeKeysWithoutEntity,
+      BiPredicate<K, O> isPairValid) {
     logger.debug("Entry to updating cache, reason: {}", updateReason.toString());
     logger.debug("Entity - {}", entity.toString());
-    logger.debug(
-        "Data: \nCache - {}\nHistory - {}\nLinks - {}\nEntities - {}",
-        cache,
-        history,
-        linkRepository,
-        entityRepository);
+    updateGeneration.incrementAndGet();
     // init
     I entityId = getId.apply(entity);
-    Set<K> baseKeys = new HashSet<>(cache.keySet());
-    if (linkRepository.containsKey(entityId)) {
-      logger.debug("Reverse cache with such id found");
-    } else {
-      logger.debug("Reverse cache with such id NOT found");
-    }
-    Set<K> possibleConflictKeys =
-        new HashSet<>(linkRepository.computeIfAbsent(entityId, k -> new HashSet<>()));
+    Set<K> possibleConflictKeys = new HashSet<>(linkRepository.getOrDefault(entityId, Set.of()));
     // keys with entity
     for (K key : possibleConflictKeys) {
       logger.debug("Entry to current key (possible conflict): {}", key.toString());
@@ -166,35 +292,51 @@ public class CacheIdManager<K, O, I> {
           (updateReason != UpdateReason.ENTITY_DELETED && isPairValid.test(key, entity));
       if (!shouldKeepPair) {
         logger.debug("Remove entity");
-        cache.get(key).remove(entityId);
-        linkRepository.get(entityId).remove(key);
+        ReentrantLock lock = lockOf(key);
+        lock.lock();
+        try {
+          Set<I> keyResults = cache.get(key);
+          if (keyResults != null) {
+            keyResults.remove(entityId);
+          }
+          Set<K> entityKeys = linkRepository.get(entityId);
+          if (entityKeys != null) {
+            entityKeys.remove(key);
+          }
+        } finally {
+          lock.unlock();
+        }
       }
-      baseKeys.remove(key);
     }
     // keys without entity
     if (updateReason == UpdateReason.ENTITY_DELETED) {
       linkRepository.remove(entityId);
       entityRepository.remove(entityId);
-    } else if (includeKeysWithoutEntity) {
-      for (K key : baseKeys) {
-        logger.debug("Entry to current key (without entity): {}", key.toString());
-        if (isPairValid.test(key, entity)) {
-          logger.debug("Add entity");
-          cache.get(key).add(entityId);
-          linkRepository.computeIfAbsent(entityId, en -> new HashSet<>()).add(key);
+      return;
+    }
+    entityRepository.put(entityId, entity);
+    if (includeKeysWithoutEntity) {
+      SubstringKeyIndex<K> index = invalidationIndex;
+      Iterable<K> candidateKeys =
+          index == null ? cache.keySet() : index.candidatesFor(entityText.apply(entity));
+      for (K key : candidateKeys) {
+        if (possibleConflictKeys.contains(key) || !isPairValid.test(key, entity)) {
+          continue;
+        }
+        logger.debug("Add entity to key (without entity): {}", key.toString());
+        ReentrantLock lock = lockOf(key);
+        lock.lock();
+        try {
+          Set<I> keyResults = cache.get(key);
+          if (keyResults != null) { // ключ мог быть вытеснен параллельно или не быть в кэше
+            keyResults.add(entityId);
+            linkRepository.computeIfAbsent(entityId, en -> ConcurrentHashMap.newKeySet()).add(key);
+          }
+        } finally {
+          lock.unlock();
         }
       }
     }
-    // final
-    switch (updateReason) {
-      case ENTITY_ADDED, ENTITY_EDITED:
-        entityRepository.put(entityId, entity);
-        break;
-      case ENTITY_DELETED:
-        entityRepository.remove(entityId);
-        break;
-      default:
-    }
   }
 
   /** Перегрузка для значения по умолчанию у {@link #updateCache(Object, UpdateReason, boolean)}. */
@@ -207,43 +349,126 @@ public class CacheIdManager<K, O, I> {
     updateCache(group, updateReason, true);
   }
 
-  /** Очищает весь кэш, связанный с объектом класса. */
+  /**
+   * Очищает весь кэш, связанный с объектом класса.
+   *
+   * <p>Берёт блокировки всех полос, чтобы не попасть между записью ключа в кэш и его учётом в
+   * политике вытеснения: иначе в кэше останется ключ, который политика никогда не вытеснит.
+   */
   public void clearAllCache() {
-    cache.clear();
-    history.clear();
-    linkRepository.clear();
+    trimLock.lock();
+    try {
+      for (ReentrantLock lock : keyLocks) {
+        lock.lock();
+      }
+      try {
+        updateGeneration.incrementAndGet();
+        cache.clear();
+        evictionPolicy.clear();
+        linkRepository.clear();
+        SubstringKeyIndex<K> index = invalidationIndex;
+        if (index != null) {
+          index.clear();
+        }
+      } finally {
+        for (int i = keyLocks.length - 1; i >= 0; i--) {
+          keyLocks[i].unlock();
+        }
+      }
+    } finally {
+      trimLock.unlock();
+    }
+  }
+
+  /** Текущее количество ключей в кэше. */
+  public int size() {
+    return cache.size();
+  }
+
+  /** Снимок счётчиков кэша для выбора подходящей политики вытеснения. */
+  public CacheStatistics getStatistics() {
+    return new CacheStatistics(
+        evictionPolicyName,
+        (long) cache.size(),
+        cacheMaxSize,
+        hitCount.sum(),
+        missCount.sum(),
+        evictionCount.sum(),
+        rejectedCount.sum());
+  }
+
+  private ReentrantLock lockOf(Object key) {
+    int hash = key.hashCode();
+    hash ^= (hash >>> 16);
+    return keyLocks[hash & (STRIPES_AMOUNT - 1)];
   }
 
-  /** Метод, который удаляет самые старые записи из кэша, определённый процент от размера. */
+  /** Метод, который вытесняет записи из кэша по политике, определённый процент от размера. */
   private void trimCache() {
-    long targetCacheSize = (cacheMaxSize * ((fullPercentage - clearPercentage) / fullPercentage));
+    long targetCacheSize = cacheMaxSize * (fullPercentage - clearPercentage) / fullPercentage;
     while (cache.size() > targetCacheSize) {
-      if (history.isEmpty()) { 
-        throw new IllegalStateException("Cache overflow clear is running despite cache is empty");
-      }
-      K cleaningKey = history.poll();
+      K cleaningKey = evictionPolicy.pollVictim();
       if (cleaningKey == null) {
-        throw new NullPointerException("Cache element in history is null");
+        // в кэше остались ключи, не учтённые политикой: вытесняется любой из них
+        Iterator<K> keys = cache.keySet().iterator();
+        if (!keys.hasNext()) {
+          return;
+        }
+        logger.warn("Eviction policy has no victim while cache is over target size");
+        cleaningKey = keys.next();
       }
-      Set<I> updatedLinks = cache.get(cleaningKey);
-      for (I linkKey : updatedLinks) {
-        linkRepository.get(linkKey).remove(cleaningKey);
+      ReentrantLock lock = lockOf(cleaningKey);
+      lock.lock();
+      try {
+        Set<I> updatedLinks = cache.remove(cleaningKey);
+        if (updatedLinks == null) {
+          continue;
+        }
+        evictionCount.increment();
+        SubstringKeyIndex<K> index = invalidationIndex;
+        if (index != null) {
+          index.remove(cleaningKey);
+        }
+        for (I linkKey : updatedLinks) {
+          Set<K> entityKeys = linkRepository.get(linkKey);
+          if (entityKeys != null) {
+            entityKeys.remove(cleaningKey);
+          }
+        }
+      } finally {
+        lock.unlock();
       }
-      cache.remove(cleaningKey);
     }
   }
 
   /**
-   * Проверка пула кэша на заполненность.
+   * Проверка пула кэша на заполненность перед добавлением {@code candidate}.
    *
-   * <p>Вызывает очистку кэша и выбрасывает исключение, если очистка не сработала, как ожидалось
+   * <p>Вызывает очистку кэша и повторяет её, пока кэш не станет меньше предельного размера.
+   * Очистку выполняет только один поток, остальные ожидают её завершения.
+   *
+   * @return {@code false}, если политика вытеснения не допустила ключ в заполненный кэш
    */
-  private void trimCacheIfFull() {
-    if (cache.size() >= cacheMaxSize) {
-      trimCache();
+  private boolean trimCacheIfFull(K candidate) {
+    if (cache.size() < cacheMaxSize || cache.containsKey(candidate)) {
+      return true;
+    }
+    trimLock.lock();
+    try {
       if (cache.size() >= cacheMaxSize) {
-        throw new IllegalStateException("Cache clearance failed when handling overflow");
+        if (!evictionPolicy.admit(candidate, evictionPolicy.peekVictim())) {
+          rejectedCount.increment();
+          logger.debug("Key rejected by eviction policy");
+          return false;
+        }
+        // пока идёт вытеснение, другие потоки добавляют ключи без trimLock, пока кэш не полон
+        do {
+          trimCache();
+        } while (cache.size() >= cacheMaxSize);
       }
+      return true;
+    } finally {
+      trimLock.unlock();
     }
   }
 }
@@ -1,12 +1,33 @@
 package com.thedan17.salesnet.util;
 
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Optional;
 import java.util.function.Supplier;
+import org.springframework.data.domain.Limit;
 
 /** Класс для статических вспомогательных методов, предназначенных для общего использования. */
 public class CommonUtil {
+  /** Размер страницы по курсору, если клиент его не указал. */
+  public static final int DEFAULT_PAGE_LIMIT = 100;
+
+  /** Максимальный размер страницы по курсору, для больших выборок есть потоковые эндпоинты. */
+  public static final int MAX_PAGE_LIMIT = 1000;
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  /** Экземпляр SHA-256 на поток: {@code MessageDigest} не потокобезопасен, а создавать его дорого. */
+  private static final ThreadLocal<MessageDigest> SHA_256 =
+      ThreadLocal.withInitial(
+          () -> {
+            try {
+              return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+              throw new IllegalStateException("No SHA-256 algorithm (with cause)", e);
+            }
+          });
+
   /** Конструктор для предотвращения создания экземпляра класса. */
   private CommonUtil() {
     throw new IllegalStateException("Utility class!");
@@ -35,24 +56,45 @@ public class CommonUtil {
     }
   }
 
-  /** Временный метод для хеширования пароля по методу SHA-256. */
+  /** Ограничение размера страницы по курсору с учётом значений по умолчанию. */
+  public static Limit pageLimit(Integer limit) {
+    return Limit.of(limit == null ? DEFAULT_PAGE_LIMIT : Math.min(limit, MAX_PAGE_LIMIT));
+  }
+
+  /**
+   * Несолёный SHA-256 строки в UTF-8 в шестнадцатеричном виде.
+   *
+   * <p>Для паролей не подходит, используется только для проверки старых хешей в {@link
+   * PasswordHasher}.
+   */
   public static String hashWithSha256(String data) {
-    MessageDigest digest;
-    try {
-      digest = MessageDigest.getInstance("SHA-256");
-    } catch (NoSuchAlgorithmException e) {
-      throw new IllegalStateException("No SHA-256 algorithm (with cause)", e);
-    }
-    byte[] hashBytes = digest.digest(data.getBytes());
-    StringBuilder hexString = new StringBuilder();
-    for (byte b : hashBytes) {
-      String hex = Integer.toHexString(0xff & b);
-      if (hex.length() == 1) {
-        hexString.append('0');
-      }
-      hexString.append(hex);
+    return toHex(SHA_256.get().digest(data.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /** Шестнадцатеричная запись байтов строчными буквами по таблице, без промежуточных строк. */
+  public static String toHex(byte[] bytes) {
+    char[] chars = new char[bytes.length * 2];
+    for (int i = 0; i < bytes.length; i++) {
+      chars[2 * i] = HEX_DIGITS[(bytes[i] >>> 4) & 0xf];
+      chars[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xf];
     }
-    return hexString.toString();
+    return new String(chars);
   }
 
+  /** Обёртка над {@code supplier}, вычисляющая значение при первом обращении и запоминающая его. */
+  public static <T> Supplier<T> memoize(Supplier<T> supplier) {
+    return new Supplier<>() {
+      private T value;
+      private boolean computed;
+
+      @Override
+      public synchronized T get() {
+        if (!computed) {
+          value = supplier.get();
+          computed = true;
+        }
+        return value;
+      }
+    };
+  }
 }
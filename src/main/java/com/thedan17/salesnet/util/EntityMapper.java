@@ -4,6 +4,7 @@ import com.thedan17.salesnet.core.object.dto.*;
 import com.thedan17.salesnet.core.object.entity.AccGroupLink;
 import com.thedan17.salesnet.core.object.entity.Account;
 import com.thedan17.salesnet.core.object.entity.Group;
+import com.thedan17.salesnet.core.object.entity.UrlStat;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -54,4 +55,7 @@ public interface EntityMapper {
   @Mapping(target = "groupId", expression = "java(accGroupLink.getGroup().getId())")
   @Mapping(target = "accountId", expression = "java(accGroupLink.getAccount().getId())")
   AccGroupLinkDto linkToDto(AccGroupLink accGroupLink);
+
+  /** Маппинг записи статистики обращений. */
+  UrlStatDto urlStatToDto(UrlStat urlStat);
 }
@@ -0,0 +1,83 @@
+package com.thedan17.salesnet.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Приблизительный счётчик частоты обращений к ключам (count-min sketch).
+ *
+ * <p>Хранит 4 строки 4-битных по смыслу счётчиков (не больше 15) шириной около
+ * {@code 8 * capacity}, значение ключа - минимум по строкам. После {@code 10 * capacity}
+ * обращений все счётчики делятся пополам, чтобы старая популярность постепенно забывалась.
+ */
+final class FrequencySketch<K> {
+  private static final int ROWS = 4;
+  private static final int MAX_FREQUENCY = 15;
+  private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+  private final AtomicIntegerArray table;
+  private final int rowMask;
+  private final int sampleSize;
+  private final AtomicInteger additions = new AtomicInteger();
+
+  FrequencySketch(long capacity) {
+    long desiredWidth = Math.max(64, Math.min(capacity * 8, 1 << 24));
+    int width = Integer.highestOneBit((int) desiredWidth - 1) << 1;
+    this.table = new AtomicIntegerArray(ROWS * width);
+    this.rowMask = width - 1;
+    this.sampleSize = (int) Math.min(Integer.MAX_VALUE / 2, 10 * Math.max(capacity, 16));
+  }
+
+  /** Увеличение частоты ключа. */
+  void increment(K key) {
+    int hash = spread(key.hashCode());
+    for (int row = 0; row < ROWS; row++) {
+      int index = indexOf(hash, row);
+      int current;
+      do {
+        current = table.get(index);
+      } while (current < MAX_FREQUENCY && !table.compareAndSet(index, current, current + 1));
+    }
+    if (additions.incrementAndGet() >= sampleSize) {
+      reset();
+    }
+  }
+
+  /** Оценка частоты ключа. */
+  int frequency(K key) {
+    int hash = spread(key.hashCode());
+    int result = MAX_FREQUENCY;
+    for (int row = 0; row < ROWS; row++) {
+      result = Math.min(result, table.get(indexOf(hash, row)));
+    }
+    return result;
+  }
+
+  /** Обнуление всех счётчиков. */
+  void clear() {
+    for (int i = 0; i < table.length(); i++) {
+      table.set(i, 0);
+    }
+    additions.set(0);
+  }
+
+  private synchronized void reset() {
+    if (additions.get() < sampleSize) {
+      return; // уже выполнено другим потоком
+    }
+    for (int i = 0; i < table.length(); i++) {
+      table.set(i, table.get(i) >>> 1);
+    }
+    additions.set(additions.get() / 2);
+  }
+
+  private int indexOf(int hash, int row) {
+    int mixed = (hash ^ SEEDS[row]) * SEEDS[(row + 1) % ROWS];
+    return row * (rowMask + 1) + ((mixed ^ (mixed >>> 15)) & rowMask);
+  }
+
+  private static int spread(int hash) {
+    hash ^= hash >>> 16;
+    hash *= 0x45D9F3B;
+    return hash ^ (hash >>> 16);
+  }
+}
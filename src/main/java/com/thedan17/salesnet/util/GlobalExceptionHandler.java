@@ -5,6 +5,7 @@ import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.util.Pair;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
@@ -58,6 +59,17 @@ public class GlobalExceptionHandler {
     return handleExceptionDefault(e, handlerMethod, HttpStatus.ACCEPTED);
   }
 
+  /** Перехват перегрузки очереди фоновых задач, клиенту сообщается время повтора. */
+  @ExceptionHandler(TaskQueueFullException.class)
+  public ResponseEntity<ProblemDetail> handleTaskQueueFull(
+          TaskQueueFullException e, HandlerMethod handlerMethod) {
+    ResponseEntity<ProblemDetail> response =
+        handleExceptionDefault(e, handlerMethod, HttpStatus.TOO_MANY_REQUESTS);
+    return ResponseEntity.status(response.getStatusCode())
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+        .body(response.getBody());
+  }
+
   /** Удержание всех остальных исключений. Предназначено для production. */
   //@ExceptionHandler(Exception.class)
   public void handleUnhandledException(Exception e, HandlerMethod handlerMethod) {
@@ -0,0 +1,87 @@
+package com.thedan17.salesnet.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Создание триграммного GIN-индекса по имени группы для стратегии поиска {@code TRIGRAM_INDEX}.
+ *
+ * <p>Индекс строится по {@code lower(name)}, поэтому ускоряет запросы {@code lower(name) LIKE
+ * '%...%'}. На БД, отличных от PostgreSQL, ничего не делает.
+ *
+ * <p>Индекс создаётся с {@code CONCURRENTLY}, чтобы построение на большой таблице не блокировало
+ * запись в {@code groups}. Такая команда не может выполняться в транзакции, поэтому выполняется на
+ * отдельном соединении в режиме autocommit. Прерванное построение оставляет невалидный индекс,
+ * который удаляется и строится заново.
+ */
+@Component
+public class GroupTrigramIndexInitializer {
+  private static final String CREATE_EXTENSION = "CREATE EXTENSION IF NOT EXISTS pg_trgm";
+  private static final String INDEX_NAME = "idx_groups_name_trgm";
+  private static final String CREATE_INDEX =
+      "CREATE INDEX CONCURRENTLY IF NOT EXISTS " + INDEX_NAME
+          + " ON groups USING gin (lower(name) gin_trgm_ops)";
+  private static final String DROP_INDEX = "DROP INDEX CONCURRENTLY IF EXISTS " + INDEX_NAME;
+  private static final String IS_INDEX_INVALID =
+      "SELECT NOT i.indisvalid FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid "
+          + "WHERE c.relname = '" + INDEX_NAME + "'";
+  private final DataSource dataSource;
+  private final boolean enabled;
+  private final AppLoggerCore logger = new AppLoggerCore();
+
+  /** Конструктор, создание индекса отключается свойством {@code ...trigram-index.enabled}. */
+  public GroupTrigramIndexInitializer(
+      DataSource dataSource,
+      @Value("${salesnet.search.group.trigram-index.enabled:true}") boolean enabled) {
+    this.dataSource = dataSource;
+    this.enabled = enabled;
+  }
+
+  /** Создание расширения и индекса после того, как Hibernate создал таблицы. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void createIndex() {
+    if (!enabled || !isPostgres()) {
+      return;
+    }
+    try (Connection connection = dataSource.getConnection()) {
+      boolean autoCommit = connection.getAutoCommit();
+      connection.setAutoCommit(true);
+      try {
+        JdbcTemplate jdbcTemplate =
+            new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+        jdbcTemplate.execute(CREATE_EXTENSION);
+        if (Boolean.TRUE.equals(
+            DataAccessUtils.singleResult(
+                jdbcTemplate.queryForList(IS_INDEX_INVALID, Boolean.class)))) {
+          logger.warn("Trigram index on groups.name is invalid, rebuilding it");
+          jdbcTemplate.execute(DROP_INDEX);
+        }
+        jdbcTemplate.execute(CREATE_INDEX);
+        logger.info("Trigram index on groups.name is ready");
+      } finally {
+        connection.setAutoCommit(autoCommit);
+      }
+    } catch (DataAccessException | SQLException e) {
+      // например, у пользователя БД нет прав на CREATE EXTENSION
+      logger.warn("Trigram index on groups.name not created: {}", e.getMessage());
+    }
+  }
+
+  private boolean isPostgres() {
+    try (Connection connection = dataSource.getConnection()) {
+      return "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+    } catch (SQLException e) {
+      logger.warn("Can't detect database type: {}", e.getMessage());
+      return false;
+    }
+  }
+}
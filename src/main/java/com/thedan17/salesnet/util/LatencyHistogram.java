@@ -0,0 +1,92 @@
+package com.thedan17.salesnet.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Лог-линейная гистограмма длительностей в микросекундах без блокировок.
+ *
+ * <p>Значения до {@value #SUB_BUCKETS} хранятся точно, дальше каждая степень двойки делится на
+ * {@value #SUB_BUCKETS} корзин, поэтому относительная погрешность не больше 1/16. Значения больше
+ * {@link #MAX_VALUE} (около 35 минут) учитываются в последней корзине.
+ */
+public final class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int MAX_VALUE_BITS = 31;
+  /** Наибольшее различимое значение. */
+  public static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+  /** Количество корзин гистограммы. */
+  public static final int BUCKET_COUNT = bucketIndex(MAX_VALUE) + 1;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+  private final AtomicLong max = new AtomicLong();
+
+  /** Учёт одного значения; отрицательные значения считаются нулём. */
+  public void record(long value) {
+    long clamped = Math.max(0, Math.min(value, MAX_VALUE));
+    counts.incrementAndGet(bucketIndex(clamped));
+    long currentMax = max.get();
+    while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+      currentMax = max.get();
+    }
+  }
+
+  /** Обнуление. Значения, записываемые одновременно с очисткой, могут быть потеряны. */
+  public void clear() {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts.set(i, 0);
+    }
+    max.set(0);
+  }
+
+  /**
+   * Прибавление корзин к массиву {@code target} длины {@link #BUCKET_COUNT}.
+   *
+   * @return максимальное записанное значение
+   */
+  public long addTo(long[] target) {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      target[i] += counts.get(i);
+    }
+    return max.get();
+  }
+
+  /** Номер корзины для неотрицательного значения не больше {@link #MAX_VALUE}. */
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+  }
+
+  /** Наибольшее значение, попадающее в корзину. */
+  static long highestValueIn(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = bucket / SUB_BUCKETS - 1;
+    long subBucket = bucket % SUB_BUCKETS + SUB_BUCKETS;
+    return ((subBucket + 1) << shift) - 1;
+  }
+
+  /**
+   * Значение перцентиля по накопленным корзинам: верхняя граница корзины, в которую попадает
+   * элемент с рангом {@code ceil(quantile * total)}, но не больше {@code max}.
+   */
+  public static long valueAtQuantile(long[] buckets, long total, long max, double quantile) {
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(quantile * total));
+    long seen = 0;
+    for (int i = 0; i < buckets.length; i++) {
+      seen += buckets[i];
+      if (seen >= rank) {
+        return Math.min(highestValueIn(i), max);
+      }
+    }
+    return max;
+  }
+}
@@ -0,0 +1,180 @@
+package com.thedan17.salesnet.util;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Фоновое сжатие завершённых файлов лога в {@link BlockGzipFile} и удаление старых архивов.
+ *
+ * <p>Сжимаются файлы прошедших дней, которые не менялись хотя бы {@link #QUIET_PERIOD}. Архив
+ * пишется во временный файл и переносится на место целиком, только после этого исходный файл
+ * удаляется; индекс {@link LogFileIndex} остаётся под прежним именем. Сжатие идёт в отдельном
+ * потоке, чтобы не задерживать остальные задачи {@code @Scheduled}, у которых один общий поток.
+ */
+@Component
+public class LogArchiver {
+  /** Минимальное время без изменений файла перед сжатием. */
+  public static final Duration QUIET_PERIOD = Duration.ofMinutes(1);
+  private static final Pattern LOG_FILE =
+      Pattern.compile("log-(\\d{4}-\\d{2}-\\d{2})\\.log(\\.gz)?(\\.blk|\\.idx)?");
+  private static final String TEMP_SUFFIX = ".tmp";
+
+  private final Path logDir;
+  private final int retentionDays;
+  private final Clock clock;
+  private final AtomicBoolean running = new AtomicBoolean(false);
+  private final ExecutorService executor =
+      Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "log-archiver");
+        thread.setDaemon(true);
+        return thread;
+      });
+  private final AppLoggerCore logger = new AppLoggerCore();
+
+  /** Конструктор для Spring с каталогом лога {@code AppLoggerCore}. */
+  @Autowired
+  public LogArchiver(@Value("${salesnet.logging.archive.retention-days:90}") int retentionDays) {
+    this(Paths.get("logs"), retentionDays, Clock.systemDefaultZone());
+  }
+
+  public LogArchiver(Path logDir, int retentionDays, Clock clock) {
+    if (retentionDays < 1) {
+      throw new IllegalArgumentException("Log retention must be at least one day");
+    }
+    this.logDir = logDir;
+    this.retentionDays = retentionDays;
+    this.clock = clock;
+  }
+
+  /** Запуск обслуживания архива в фоне, если предыдущий запуск уже закончился. */
+  @Scheduled(
+      initialDelay = 60_000,
+      fixedDelayString = "${salesnet.logging.archive.interval:3600000}")
+  public void scheduleArchiving() {
+    if (!running.compareAndSet(false, true)) {
+      return;
+    }
+    executor.execute(() -> {
+      try {
+        int compressed = compressRolled();
+        int deleted = deleteExpired();
+        if (compressed > 0 || deleted > 0) {
+          logger.info("Log archive: {} files compressed, {} files deleted", compressed, deleted);
+        }
+      } catch (Exception e) {
+        logger.error("Exception while archiving logs: " + e.getMessage());
+      } finally {
+        running.set(false);
+      }
+    });
+  }
+
+  /** Остановка потока сжатия; недописанный архив останется временным файлом и будет удалён. */
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Сжатие файлов лога прошедших дней.
+   *
+   * @return количество сжатых файлов
+   */
+  public synchronized int compressRolled() throws IOException {
+    LocalDate today = LocalDate.now(clock);
+    Instant quietSince = clock.instant().minus(QUIET_PERIOD);
+    int compressed = 0;
+    for (Path file : listLogDir()) {
+      String name = file.getFileName().toString();
+      if (name.endsWith(TEMP_SUFFIX) || name.endsWith(TEMP_SUFFIX + ".blk")) {
+        Files.deleteIfExists(file); // остаток прерванного сжатия
+        continue;
+      }
+      Matcher matcher = LOG_FILE.matcher(name);
+      if (!matcher.matches() || matcher.group(2) != null || matcher.group(3) != null) {
+        continue;
+      }
+      LocalDate day = parseDay(matcher.group(1));
+      if (day == null
+          || !day.isBefore(today)
+          || Files.getLastModifiedTime(file).toInstant().isAfter(quietSince)) {
+        continue;
+      }
+      compress(file);
+      compressed++;
+    }
+    return compressed;
+  }
+
+  private static void compress(Path file) throws IOException {
+    Path target = file.resolveSibling(file.getFileName() + BlockGzipFile.SUFFIX);
+    if (!Files.exists(target)) {
+      Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+      BlockGzipFile.compress(file, temp);
+      Files.move(
+          BlockGzipFile.tableOf(temp),
+          BlockGzipFile.tableOf(target),
+          StandardCopyOption.REPLACE_EXISTING);
+      Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+    Files.delete(file);
+  }
+
+  /**
+   * Удаление файлов лога, архивов и их индексов старше {@code retentionDays} дней.
+   *
+   * @return количество удалённых файлов
+   */
+  public synchronized int deleteExpired() throws IOException {
+    LocalDate oldestKept = LocalDate.now(clock).minusDays(retentionDays);
+    int deleted = 0;
+    for (Path file : listLogDir()) {
+      Matcher matcher = LOG_FILE.matcher(file.getFileName().toString());
+      if (!matcher.matches()) {
+        continue;
+      }
+      LocalDate day = parseDay(matcher.group(1));
+      if (day != null && day.isBefore(oldestKept) && Files.deleteIfExists(file)) {
+        deleted++;
+      }
+    }
+    return deleted;
+  }
+
+  private List<Path> listLogDir() throws IOException {
+    if (!Files.isDirectory(logDir)) {
+      return List.of();
+    }
+    try (Stream<Path> paths = Files.list(logDir)) {
+      return paths.filter(Files::isRegularFile).sorted().toList();
+    }
+  }
+
+  private static LocalDate parseDay(String text) {
+    try {
+      return LocalDate.parse(text);
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,234 @@
+package com.thedan17.salesnet.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+/**
+ * Разреженный индекс файла лога: метка времени события и смещение в байтах, с которого оно
+ * записано, примерно через каждые {@value #STRIDE_BYTES} байт.
+ *
+ * <p>Индекс пишется потоком записи лога в соседний файл {@code <лог>.idx} парами {@code long}.
+ * Для файлов без такого индекса (записанных до его появления) он строится чтением строк в точках
+ * с тем же шагом. События одного файла могут идти не строго по времени (время берётся в потоке,
+ * создавшем событие), поэтому границы расширяются на {@link #CLOCK_SKEW_MILLIS}.
+ *
+ * <p>Для сжатого лога ({@link BlockGzipFile}) смещения относятся к исходному файлу, индекс
+ * остаётся под именем исходного файла, а без него строится по началам блоков.
+ */
+public final class LogFileIndex {
+  /** Шаг индекса в байтах. */
+  public static final long STRIDE_BYTES = 64 * 1024;
+  /** Допустимое расхождение порядка записи и меток времени событий. */
+  public static final long CLOCK_SKEW_MILLIS = 1_000;
+  /** Начало строки события лога перед меткой времени. */
+  public static final String ENTRY_PREFIX = "APP [";
+  /** Формат метки времени в строке события. */
+  public static final DateTimeFormatter TIMESTAMP_FORMAT =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+  /** Длина метки времени в строке события. */
+  public static final int TIMESTAMP_LENGTH = 23;
+  static final String SIDECAR_SUFFIX = ".idx";
+  private static final int ENTRY_BYTES = 2 * Long.BYTES;
+  private static final int SAMPLE_WINDOW_BYTES = 2 * 1024;
+
+  private final long[] timestamps;
+  private final long[] offsets;
+
+  private LogFileIndex(long[] timestamps, long[] offsets) {
+    this.timestamps = timestamps;
+    this.offsets = offsets;
+    for (int i = 1; i < timestamps.length; i++) {
+      timestamps[i] = Math.max(timestamps[i], timestamps[i - 1]);
+    }
+  }
+
+  /** Файл индекса для файла лога; для сжатого - индекс исходного файла. */
+  public static Path sidecarOf(Path logFile) {
+    Path plain = BlockGzipFile.isArchive(logFile) ? BlockGzipFile.plainOf(logFile) : logFile;
+    return plain.resolveSibling(plain.getFileName() + SIDECAR_SUFFIX);
+  }
+
+  /**
+   * Загрузка индекса из соседнего файла; начало лога, записанное без индекса (до перезапуска с
+   * ним), и файлы без индекса индексируются по содержимому.
+   */
+  public static LogFileIndex load(Path logFile) throws IOException {
+    Path sidecar = sidecarOf(logFile);
+    if (!Files.isRegularFile(sidecar)) {
+      return sample(logFile, Long.MAX_VALUE);
+    }
+    LogFileIndex written = read(sidecar);
+    if (written.offsets.length > 0 && written.offsets[0] <= STRIDE_BYTES) {
+      return written;
+    }
+    long indexedFrom = written.offsets.length > 0 ? written.offsets[0] : Long.MAX_VALUE;
+    LogFileIndex head = sample(logFile, indexedFrom);
+    return new LogFileIndex(
+        concat(head.timestamps, written.timestamps), concat(head.offsets, written.offsets));
+  }
+
+  private static long[] concat(long[] first, long[] second) {
+    long[] result = Arrays.copyOf(first, first.length + second.length);
+    System.arraycopy(second, 0, result, first.length, second.length);
+    return result;
+  }
+
+  private static LogFileIndex read(Path sidecar) throws IOException {
+    byte[] bytes = Files.readAllBytes(sidecar);
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    int count = bytes.length / ENTRY_BYTES;
+    long[] timestamps = new long[count];
+    long[] offsets = new long[count];
+    for (int i = 0; i < count; i++) {
+      timestamps[i] = buffer.getLong();
+      offsets[i] = buffer.getLong();
+    }
+    return new LogFileIndex(timestamps, offsets);
+  }
+
+  /** Индексирование строк лога, начинающихся до смещения {@code limit}. */
+  private static LogFileIndex sample(Path logFile, long limit) throws IOException {
+    if (BlockGzipFile.isArchive(logFile)) {
+      return sampleBlocks(BlockGzipFile.open(logFile), limit);
+    }
+    try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+      long size = Math.min(channel.size(), limit);
+      int capacity = (int) (size / STRIDE_BYTES) + 1;
+      long[] timestamps = new long[capacity];
+      long[] offsets = new long[capacity];
+      int count = 0;
+      ByteBuffer window = ByteBuffer.allocate(SAMPLE_WINDOW_BYTES);
+      for (long position = 0; position < size; position += STRIDE_BYTES) {
+        window.clear();
+        channel.read(window, position);
+        byte[] bytes = window.array();
+        int length = window.position();
+        int firstLine = position == 0 ? 0 : nextLineStart(bytes, 0, length);
+        int lineStart = firstEntryStart(bytes, firstLine, length);
+        if (lineStart >= 0 && position + lineStart < size) {
+          timestamps[count] = parseTimestamp(bytes, lineStart);
+          offsets[count] = position + lineStart;
+          count++;
+        }
+      }
+      return new LogFileIndex(Arrays.copyOf(timestamps, count), Arrays.copyOf(offsets, count));
+    }
+  }
+
+  /** Индексирование первых строк событий в блоках сжатого лога; блоки начинаются со строки. */
+  private static LogFileIndex sampleBlocks(BlockGzipFile archive, long limit) throws IOException {
+    long[] starts = archive.blockStarts();
+    long[] timestamps = new long[starts.length];
+    long[] offsets = new long[starts.length];
+    int count = 0;
+    for (long start : starts) {
+      if (start >= limit) {
+        break;
+      }
+      byte[] bytes;
+      try (InputStream in = archive.openAt(start)) {
+        bytes = in.readNBytes(SAMPLE_WINDOW_BYTES);
+      }
+      int lineStart = firstEntryStart(bytes, 0, bytes.length);
+      if (lineStart >= 0 && start + lineStart < limit) {
+        timestamps[count] = parseTimestamp(bytes, lineStart);
+        offsets[count] = start + lineStart;
+        count++;
+      }
+    }
+    return new LogFileIndex(Arrays.copyOf(timestamps, count), Arrays.copyOf(offsets, count));
+  }
+
+  /** Начало первой целиком попавшей строки события, начиная со строки {@code lineStart}. */
+  private static int firstEntryStart(byte[] bytes, int lineStart, int length) {
+    while (lineStart >= 0 && lineStart + ENTRY_PREFIX.length() + TIMESTAMP_LENGTH <= length) {
+      if (parseTimestamp(bytes, lineStart) >= 0) {
+        return lineStart;
+      }
+      lineStart = nextLineStart(bytes, lineStart, length);
+    }
+    return -1;
+  }
+
+  private static int nextLineStart(byte[] bytes, int from, int length) {
+    for (int i = from; i < length; i++) {
+      if (bytes[i] == '\n') {
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
+  /** Метка времени строки события в миллисекундах, {@code -1} для строки продолжения. */
+  static long parseTimestamp(byte[] line, int start) {
+    if (!isEntryStart(line, start, line.length)) {
+      return -1;
+    }
+    String text =
+        new String(line, start + ENTRY_PREFIX.length(), TIMESTAMP_LENGTH, StandardCharsets.US_ASCII);
+    try {
+      return LocalDateTime.parse(text, TIMESTAMP_FORMAT)
+          .atZone(ZoneId.systemDefault())
+          .toInstant()
+          .toEpochMilli();
+    } catch (DateTimeParseException e) {
+      return -1;
+    }
+  }
+
+  /** Начинается ли с позиции {@code start} строка нового события. */
+  public static boolean isEntryStart(byte[] line, int start, int length) {
+    if (length - start < ENTRY_PREFIX.length() + TIMESTAMP_LENGTH) {
+      return false;
+    }
+    for (int i = 0; i < ENTRY_PREFIX.length(); i++) {
+      if (line[start + i] != ENTRY_PREFIX.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Смещение, до которого нет событий не раньше {@code fromMillis}; {@code 0}, если неизвестно. */
+  public long startOffset(long fromMillis) {
+    int index = lastIndexAtOrBefore(fromMillis - CLOCK_SKEW_MILLIS);
+    return index < 0 ? 0 : offsets[index];
+  }
+
+  /** Смещение, после которого нет событий раньше {@code toMillis}; {@code fileSize}, если неизвестно. */
+  public long endOffset(long toMillis, long fileSize) {
+    int index = lastIndexAtOrBefore(toMillis + CLOCK_SKEW_MILLIS) + 1;
+    return index < offsets.length ? Math.min(offsets[index], fileSize) : fileSize;
+  }
+
+  public int size() {
+    return offsets.length;
+  }
+
+  private int lastIndexAtOrBefore(long millis) {
+    int low = 0;
+    int high = timestamps.length - 1;
+    int result = -1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      if (timestamps[middle] <= millis) {
+        result = middle;
+        low = middle + 1;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,106 @@
+package com.thedan17.salesnet.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Утилита формирования ответа со скачиваемым файлом лога.
+ *
+ * <p>Обычный файл отдаётся как есть. Архив {@link BlockGzipFile} отдаётся без распаковки с {@code
+ * Content-Encoding: gzip}, если клиент его принимает, иначе распаковывается на лету. Запросы с
+ * {@code Range} обрабатывает Spring MVC для любого варианта.
+ */
+public class LogFileResponseFactory {
+
+  /** Переопределение дефолтного конструктора приватным для утилитного класса. */
+  private LogFileResponseFactory() {
+    // for preventing bad usage
+  }
+
+  /** Ответ с файлом лога {@code file} для клиента с заголовком {@code Accept-Encoding}. */
+  public static ResponseEntity<Resource> fromFile(Path file, String acceptEncoding)
+      throws IOException {
+    if (!BlockGzipFile.isArchive(file)) {
+      return response(file.getFileName().toString()).body(new FileSystemResource(file));
+    }
+    String plainName = BlockGzipFile.plainOf(file).getFileName().toString();
+    var response = response(plainName).header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (acceptsGzip(acceptEncoding)) {
+      return response
+          .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+          .body(new FileSystemResource(file));
+    }
+    return response.body(new DecompressedResource(BlockGzipFile.open(file), plainName));
+  }
+
+  private static ResponseEntity.BodyBuilder response(String fileName) {
+    return ResponseEntity.ok()
+        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=%s".formatted(fileName))
+        .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+        .contentType(MediaType.TEXT_PLAIN);
+  }
+
+  /** Принимает ли клиент gzip: есть в {@code Accept-Encoding} и не с {@code q=0}. */
+  static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.split(";");
+      String name = parts[0].trim();
+      if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+        continue;
+      }
+      boolean rejected = false;
+      for (int i = 1; i < parts.length; i++) {
+        String parameter = parts[i].trim().replace(" ", "");
+        rejected |= parameter.matches("q=0(\\.0*)?");
+      }
+      return !rejected;
+    }
+    return false;
+  }
+
+  /** Распакованное содержимое архива; известная длина позволяет Spring отдавать диапазоны. */
+  private static final class DecompressedResource extends AbstractResource {
+    private final BlockGzipFile archive;
+    private final String fileName;
+
+    private DecompressedResource(BlockGzipFile archive, String fileName) {
+      this.archive = archive;
+      this.fileName = fileName;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+      return archive.openAt(0);
+    }
+
+    @Override
+    public long contentLength() {
+      return archive.plainSize();
+    }
+
+    @Override
+    public String getFilename() {
+      return fileName;
+    }
+
+    @Override
+    public boolean exists() {
+      return true;
+    }
+
+    @Override
+    public String getDescription() {
+      return "Decompressed log " + fileName;
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package com.thedan17.salesnet.util;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Supplier;
+
+/**
+ * Запись {@link LogFileIndex} по ходу записи лога: перед пакетом событий, если с прошлой записи
+ * индекса файл вырос на {@link LogFileIndex#STRIDE_BYTES}, добавляет время первого события и
+ * текущий размер файла. Работает только в потоке записи {@link AsyncBatchingAppender}.
+ */
+final class LogIndexWriter implements AsyncBatchingAppender.BatchListener {
+  private final Supplier<String> activeFileName;
+  private final ByteBuffer entry = ByteBuffer.allocate(2 * Long.BYTES);
+  private Path currentLog;
+  private FileChannel sidecar;
+  private long lastIndexedOffset = -1;
+  private boolean failed = false;
+
+  /** Конструктор с источником имени текущего файла лога, которое меняется при ротации. */
+  LogIndexWriter(Supplier<String> activeFileName) {
+    this.activeFileName = activeFileName;
+  }
+
+  @Override
+  public void beforeBatch(ILoggingEvent firstEvent) {
+    if (failed) {
+      return;
+    }
+    try {
+      String fileName = activeFileName.get();
+      if (fileName == null) {
+        return;
+      }
+      Path log = Paths.get(fileName).toAbsolutePath();
+      if (!log.equals(currentLog)) {
+        switchTo(log);
+      }
+      long offset = sizeOf(log);
+      if (lastIndexedOffset < 0 || offset - lastIndexedOffset >= LogFileIndex.STRIDE_BYTES) {
+        entry.clear();
+        entry.putLong(firstEvent.getTimeStamp()).putLong(offset).flip();
+        while (entry.hasRemaining()) {
+          sidecar.write(entry);
+        }
+        lastIndexedOffset = offset;
+      }
+    } catch (IOException | RuntimeException e) {
+      // Индекс необязателен: без него запросы к логу строят его по содержимому файла
+      failed = true;
+      close();
+    }
+  }
+
+  private void switchTo(Path log) throws IOException {
+    close();
+    currentLog = log;
+    sidecar =
+        FileChannel.open(
+            LogFileIndex.sidecarOf(log),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    lastIndexedOffset = -1;
+    // недописанная при аварийной остановке запись затирается
+    long size = sidecar.size() - sidecar.size() % entry.capacity();
+    sidecar.position(size);
+    if (size > 0) {
+      ByteBuffer last = ByteBuffer.allocate(Long.BYTES);
+      sidecar.read(last, size - Long.BYTES);
+      lastIndexedOffset = last.flip().getLong();
+    }
+  }
+
+  private static long sizeOf(Path log) throws IOException {
+    try {
+      return Files.size(log);
+    } catch (NoSuchFileException e) {
+      return 0;
+    }
+  }
+
+  @Override
+  public void close() {
+    if (sidecar != null) {
+      try {
+        sidecar.close();
+      } catch (IOException ignored) {
+        // закрытие индекса не влияет на запись лога
+      }
+      sidecar = null;
+    }
+    currentLog = null;
+  }
+}
@@ -0,0 +1,16 @@
+package com.thedan17.salesnet.util;
+
+/**
+ * Поведение {@link AsyncBatchingAppender} при заполнении очереди событий.
+ *
+ * <p>Задаётся свойством {@code salesnet.logging.async.overflow}.
+ */
+public enum LogOverflowPolicy {
+  /**
+   * События TRACE и DEBUG отбрасываются, когда очередь заполнена на 80%; остальные - только при
+   * полностью заполненной очереди. Потоки запросов никогда не ждут записи лога.
+   */
+  DROP_LOW_LEVELS,
+  /** Поток, логирующий в заполненную очередь, ждёт освобождения места; события не теряются. */
+  BLOCK
+}
@@ -0,0 +1,295 @@
+package com.thedan17.salesnet.util;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Двунаправленный индекс членства в памяти: id групп аккаунта и id аккаунтов группы.
+ *
+ * <p>Каждая сторона хранит для ключа отсортированный массив {@code long}, поэтому проверка
+ * членства - двоичный поиск по меньшему из двух списков без обращения к БД.
+ *
+ * <p>Индекс заполняется между {@link #beginBuild()} и {@link #finishBuild()}. Загружаемые связи
+ * приходят в порядке id связи, поэтому добавляются в конец массивов, а сортируются один раз при
+ * завершении. Изменения, пришедшие за это время через {@link #add}, {@link #remove}, {@link
+ * #removeGroup} и {@link #removeAccount}, запоминаются, имеют приоритет над загружаемыми данными и
+ * применяются после сортировки.
+ */
+public class MembershipIndex {
+  /** Оценка памяти на элемент {@code HashMap}: узел, упакованный ключ и ячейка таблицы. */
+  private static final int MAP_ENTRY_BYTES = 32 + 16 + 8;
+
+  private final Map<Long, SortedLongSet> groupsByAccount = new HashMap<>();
+  private final Map<Long, SortedLongSet> accountsByGroup = new HashMap<>();
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  /** Итоговое состояние связей, изменённых во время заполнения: {@code true} - добавлена. */
+  private Map<Link, Boolean> changedWhileBuilding;
+  private Set<Long> groupsRemovedWhileBuilding;
+  private Set<Long> accountsRemovedWhileBuilding;
+  private long links = 0;
+  private volatile boolean ready = false;
+
+  /** Связь аккаунта с группой. */
+  private record Link(long accountId, long groupId) {}
+
+  /** Готов ли индекс отвечать на запросы. */
+  public boolean isReady() {
+    return ready;
+  }
+
+  /** Начало первоначального заполнения индекса. */
+  public void beginBuild() {
+    lock.writeLock().lock();
+    try {
+      changedWhileBuilding = new HashMap<>();
+      groupsRemovedWhileBuilding = new HashSet<>();
+      accountsRemovedWhileBuilding = new HashSet<>();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Загрузка порции связей; связи, изменённые во время заполнения, пропускаются.
+   *
+   * @param accountIds id аккаунтов
+   * @param groupIds id групп с теми же индексами, что и у {@code accountIds}
+   */
+  public void load(long[] accountIds, long[] groupIds, int count) {
+    lock.writeLock().lock();
+    try {
+      for (int i = 0; i < count; i++) {
+        if (changedWhileBuilding == null) {
+          addLocked(accountIds[i], groupIds[i]);
+        } else if (!changedWhileBuilding.containsKey(new Link(accountIds[i], groupIds[i]))
+            && !groupsRemovedWhileBuilding.contains(groupIds[i])
+            && !accountsRemovedWhileBuilding.contains(accountIds[i])) {
+          groupsByAccount.computeIfAbsent(accountIds[i], id -> new SortedLongSet())
+              .append(groupIds[i]);
+          accountsByGroup.computeIfAbsent(groupIds[i], id -> new SortedLongSet())
+              .append(accountIds[i]);
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Завершение заполнения, после которого индекс отвечает на запросы. */
+  public void finishBuild() {
+    lock.writeLock().lock();
+    try {
+      if (changedWhileBuilding == null) {
+        return;
+      }
+      groupsByAccount.values().forEach(SortedLongSet::sortAndTrim);
+      accountsByGroup.values().forEach(SortedLongSet::sortAndTrim);
+      links = 0;
+      for (SortedLongSet groups : groupsByAccount.values()) {
+        links += groups.size();
+      }
+      changedWhileBuilding.forEach(
+          (link, added) -> {
+            if (added) {
+              addLocked(link.accountId(), link.groupId());
+            } else {
+              removeLocked(link.accountId(), link.groupId());
+            }
+          });
+      groupsRemovedWhileBuilding.forEach(
+          groupId -> removeAllLocked(accountsByGroup, groupsByAccount, groupId));
+      accountsRemovedWhileBuilding.forEach(
+          accountId -> removeAllLocked(groupsByAccount, accountsByGroup, accountId));
+      changedWhileBuilding = null;
+      groupsRemovedWhileBuilding = null;
+      accountsRemovedWhileBuilding = null;
+      ready = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Добавление связи аккаунта с группой. */
+  public void add(long accountId, long groupId) {
+    lock.writeLock().lock();
+    try {
+      if (changedWhileBuilding != null) {
+        changedWhileBuilding.put(new Link(accountId, groupId), true);
+      } else {
+        addLocked(accountId, groupId);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Удаление связи аккаунта с группой. */
+  public void remove(long accountId, long groupId) {
+    lock.writeLock().lock();
+    try {
+      if (changedWhileBuilding != null) {
+        changedWhileBuilding.put(new Link(accountId, groupId), false);
+      } else {
+        removeLocked(accountId, groupId);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Удаление всех связей группы; id групп не переиспользуются. */
+  public void removeGroup(long groupId) {
+    lock.writeLock().lock();
+    try {
+      if (groupsRemovedWhileBuilding != null) {
+        groupsRemovedWhileBuilding.add(groupId);
+      } else {
+        removeAllLocked(accountsByGroup, groupsByAccount, groupId);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Удаление всех связей аккаунта; id аккаунтов не переиспользуются. */
+  public void removeAccount(long accountId) {
+    lock.writeLock().lock();
+    try {
+      if (accountsRemovedWhileBuilding != null) {
+        accountsRemovedWhileBuilding.add(accountId);
+      } else {
+        removeAllLocked(groupsByAccount, accountsByGroup, accountId);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Состоит ли аккаунт в группе. */
+  public boolean contains(long accountId, long groupId) {
+    lock.readLock().lock();
+    try {
+      SortedLongSet groups = groupsByAccount.get(accountId);
+      SortedLongSet accounts = accountsByGroup.get(groupId);
+      if (groups == null || accounts == null) {
+        return false;
+      }
+      return groups.size() <= accounts.size()
+          ? groups.contains(groupId)
+          : accounts.contains(accountId);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Отсортированные id групп аккаунта. */
+  public long[] groupsOf(long accountId) {
+    return copyOf(groupsByAccount, accountId);
+  }
+
+  /** Отсортированные id аккаунтов-участников группы. */
+  public long[] accountsOf(long groupId) {
+    return copyOf(accountsByGroup, groupId);
+  }
+
+  /** Количество аккаунтов, состоящих хотя бы в одной группе. */
+  public int accountCount() {
+    lock.readLock().lock();
+    try {
+      return groupsByAccount.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Количество групп хотя бы с одним участником. */
+  public int groupCount() {
+    lock.readLock().lock();
+    try {
+      return accountsByGroup.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Количество связей. */
+  public long linkCount() {
+    lock.readLock().lock();
+    try {
+      return links;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Оценка занимаемой памяти в байтах: массивы обеих сторон и элементы таблиц. */
+  public long estimatedBytes() {
+    lock.readLock().lock();
+    try {
+      return bytesOf(groupsByAccount) + bytesOf(accountsByGroup);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private static long bytesOf(Map<Long, SortedLongSet> side) {
+    long bytes = (long) Integer.highestOneBit(Math.max(side.size(), 1) * 2) * 4;
+    for (SortedLongSet set : side.values()) {
+      bytes += MAP_ENTRY_BYTES + set.estimatedBytes();
+    }
+    return bytes;
+  }
+
+  private long[] copyOf(Map<Long, SortedLongSet> side, long key) {
+    lock.readLock().lock();
+    try {
+      SortedLongSet set = side.get(key);
+      return set == null ? new long[0] : set.toArray();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Удаление ключа одной стороны и его значения из списков другой стороны. */
+  private void removeAllLocked(
+      Map<Long, SortedLongSet> side, Map<Long, SortedLongSet> otherSide, long key) {
+    SortedLongSet values = side.remove(key);
+    if (values == null) {
+      return;
+    }
+    for (int i = 0; i < values.size(); i++) {
+      SortedLongSet others = otherSide.get(values.get(i));
+      others.remove(key);
+      if (others.size() == 0) {
+        otherSide.remove(values.get(i));
+      }
+    }
+    links -= values.size();
+  }
+
+  private void removeLocked(long accountId, long groupId) {
+    SortedLongSet groups = groupsByAccount.get(accountId);
+    if (groups == null || !groups.remove(groupId)) {
+      return;
+    }
+    if (groups.size() == 0) {
+      groupsByAccount.remove(accountId);
+    }
+    SortedLongSet accounts = accountsByGroup.get(groupId);
+    accounts.remove(accountId);
+    if (accounts.size() == 0) {
+      accountsByGroup.remove(groupId);
+    }
+    links--;
+  }
+
+  private void addLocked(long accountId, long groupId) {
+    if (groupsByAccount.computeIfAbsent(accountId, id -> new SortedLongSet()).add(groupId)) {
+      accountsByGroup.computeIfAbsent(groupId, id -> new SortedLongSet()).add(accountId);
+      links++;
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package com.thedan17.salesnet.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ограниченная очередь без блокировок для многих писателей и одного читателя.
+ *
+ * <p>Каждая ячейка хранит номер позиции, для которой она свободна или заполнена: писатель
+ * занимает позицию CAS'ом по общему хвосту и публикует элемент записью номера ячейки, читатель
+ * забирает элементы по порядку позиций и освобождает ячейку на следующий круг.
+ */
+final class MpscRingBuffer<E> {
+  private final AtomicReferenceArray<E> elements;
+  private final AtomicLongArray sequences;
+  private final int mask;
+  private final AtomicLong tail = new AtomicLong();
+  /** Изменяется только читателем. */
+  private volatile long head = 0;
+
+  /** Ёмкость округляется вверх до степени двойки. */
+  MpscRingBuffer(int capacity) {
+    if (capacity < 2 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Capacity must be in [2, 2^30]");
+    }
+    int size = Integer.highestOneBit(capacity - 1) << 1;
+    this.elements = new AtomicReferenceArray<>(size);
+    this.sequences = new AtomicLongArray(size);
+    this.mask = size - 1;
+    for (int i = 0; i < size; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  /** Добавление элемента; {@code false}, если очередь заполнена. */
+  boolean offer(E element) {
+    while (true) {
+      long position = tail.get();
+      int index = (int) (position & mask);
+      long difference = sequences.get(index) - position;
+      if (difference == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          elements.lazySet(index, element);
+          sequences.set(index, position + 1);
+          return true;
+        }
+      } else if (difference < 0) {
+        return false;
+      }
+    }
+  }
+
+  /** Извлечение элемента единственным читателем; {@code null}, если опубликованных элементов нет. */
+  E poll() {
+    long position = head;
+    int index = (int) (position & mask);
+    if (sequences.get(index) != position + 1) {
+      return null;
+    }
+    E element = elements.get(index);
+    elements.lazySet(index, null);
+    sequences.set(index, position + mask + 1);
+    head = position + 1;
+    return element;
+  }
+
+  /** Приблизительное число элементов в очереди. */
+  int size() {
+    long size = tail.get() - head;
+    return (int) Math.max(0, Math.min(size, capacity()));
+  }
+
+  int capacity() {
+    return mask + 1;
+  }
+}
@@ -0,0 +1,86 @@
+package com.thedan17.salesnet.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Запись результатов потокового запроса к БД в ответ в формате NDJSON (один JSON на строку).
+ *
+ * <p>Строки пишутся в ответ по мере чтения из курсора, а контекст персистентности периодически
+ * очищается, поэтому расход памяти не зависит от размера таблицы.
+ */
+@Component
+public class NdjsonStreamWriter {
+  public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+  private static final int CLEAR_EVERY_ROWS = 500;
+  private final TransactionTemplate transactionTemplate;
+  private final EntityManager entityManager;
+  private final ObjectWriter objectWriter;
+
+  /** Конструктор; транзакция нужна, чтобы драйвер PostgreSQL читал курсором по fetch size. */
+  public NdjsonStreamWriter(
+      PlatformTransactionManager transactionManager,
+      EntityManager entityManager,
+      ObjectMapper objectMapper) {
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setReadOnly(true);
+    this.entityManager = entityManager;
+    this.objectWriter = objectMapper.writer();
+  }
+
+  /**
+   * Создание ответа, который построчно пишет сущности из потока, преобразуя их в DTO.
+   *
+   * @param query запрос, возвращающий {@code Stream} сущностей (вызывается внутри транзакции)
+   * @param mapper преобразование сущности в объект ответа
+   */
+  public <E, D> ResponseEntity<StreamingResponseBody> response(
+      Supplier<Stream<E>> query, Function<E, D> mapper) {
+    StreamingResponseBody body = outputStream -> write(outputStream, query, mapper);
+    return ResponseEntity.ok().contentType(NDJSON).body(body);
+  }
+
+  /** Запись сущностей из потока в {@code outputStream}, по одной JSON-строке на сущность. */
+  public <E, D> void write(
+      OutputStream outputStream, Supplier<Stream<E>> query, Function<E, D> mapper)
+      throws IOException {
+    OutputStream out = new BufferedOutputStream(outputStream);
+    try {
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            try (Stream<E> rows = query.get()) {
+              int rowCount = 0;
+              Iterator<E> iterator = rows.iterator();
+              while (iterator.hasNext()) {
+                out.write(objectWriter.writeValueAsBytes(mapper.apply(iterator.next())));
+                out.write('\n');
+                if (++rowCount % CLEAR_EVERY_ROWS == 0) {
+                  entityManager.clear();
+                  out.flush();
+                }
+              }
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    out.flush();
+  }
+}
@@ -0,0 +1,200 @@
+package com.thedan17.salesnet.util;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Индекс в памяти для поиска сущностей по подстроке текста без обращения к БД.
+ *
+ * <p>Для каждой триграммы текста (в нижнем регистре) хранится отсортированный массив id
+ * сущностей. Запрос выбирает самый короткий список среди триграмм подстроки и проверяет
+ * кандидатов по полному тексту, поэтому результат совпадает с {@code lower(text) LIKE '%q%'}.
+ *
+ * <p>Индекс заполняется между {@link #beginBuild()} и {@link #finishBuild()}; изменения, пришедшие
+ * за это время через {@link #put} и {@link #remove}, имеют приоритет над загружаемыми данными.
+ *
+ * @param <O> тип сущности
+ */
+public class NgramIndex<O> {
+  private static final int GRAM_LENGTH = 3;
+  private final Function<O, Long> getId;
+  private final Function<O, String> getText;
+  private final Map<Long, O> entities = new HashMap<>();
+  private final Map<Long, String> texts = new HashMap<>();
+  private final Map<Long, SortedLongSet> postings = new HashMap<>();
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private Set<Long> touchedWhileBuilding;
+  private volatile boolean ready = false;
+
+  /**
+   * Конструктор индекса.
+   *
+   * @param getId функция получения id сущности
+   * @param getText функция получения индексируемого текста сущности
+   */
+  public NgramIndex(Function<O, Long> getId, Function<O, String> getText) {
+    this.getId = getId;
+    this.getText = getText;
+  }
+
+  /** Готов ли индекс отвечать на запросы. */
+  public boolean isReady() {
+    return ready;
+  }
+
+  /** Количество проиндексированных сущностей. */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return entities.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Начало первоначального заполнения индекса. */
+  public void beginBuild() {
+    lock.writeLock().lock();
+    try {
+      touchedWhileBuilding = new HashSet<>();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Загрузка порции сущностей; сущности, изменённые во время заполнения, пропускаются. */
+  public void load(Collection<O> batch) {
+    lock.writeLock().lock();
+    try {
+      for (O entity : batch) {
+        Long id = getId.apply(entity);
+        if (touchedWhileBuilding == null || !touchedWhileBuilding.contains(id)) {
+          putLocked(id, entity);
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Завершение заполнения, после которого индекс отвечает на запросы. */
+  public void finishBuild() {
+    lock.writeLock().lock();
+    try {
+      touchedWhileBuilding = null;
+      postings.values().forEach(SortedLongSet::trim);
+      ready = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Добавление или обновление сущности. */
+  public void put(O entity) {
+    lock.writeLock().lock();
+    try {
+      Long id = getId.apply(entity);
+      if (touchedWhileBuilding != null) {
+        touchedWhileBuilding.add(id);
+      }
+      putLocked(id, entity);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Удаление сущности по id. */
+  public void remove(Long id) {
+    lock.writeLock().lock();
+    try {
+      if (touchedWhileBuilding != null) {
+        touchedWhileBuilding.add(id);
+      }
+      removeLocked(id);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Поиск сущностей, текст которых содержит подстроку без учёта регистра. */
+  public Set<O> search(String substring) {
+    String query = substring.toLowerCase(Locale.ROOT);
+    Set<O> results = new HashSet<>();
+    lock.readLock().lock();
+    try {
+      if (query.length() < GRAM_LENGTH) {
+        for (Map.Entry<Long, String> entry : texts.entrySet()) {
+          if (entry.getValue().contains(query)) {
+            results.add(entities.get(entry.getKey()));
+          }
+        }
+        return results;
+      }
+      SortedLongSet shortest = null;
+      for (int i = 0; i + GRAM_LENGTH <= query.length(); i++) {
+        SortedLongSet gramPostings = postings.get(gramOf(query, i));
+        if (gramPostings == null) {
+          return results;
+        }
+        if (shortest == null || gramPostings.size() < shortest.size()) {
+          shortest = gramPostings;
+        }
+      }
+      for (int i = 0; i < shortest.size(); i++) {
+        long id = shortest.get(i);
+        if (texts.get(id).contains(query)) {
+          results.add(entities.get(id));
+        }
+      }
+      return results;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void putLocked(Long id, O entity) {
+    removeLocked(id);
+    String text = getText.apply(entity);
+    text = text == null ? "" : text.toLowerCase(Locale.ROOT);
+    entities.put(id, entity);
+    texts.put(id, text);
+    for (long gram : gramsOf(text)) {
+      postings.computeIfAbsent(gram, g -> new SortedLongSet()).add(id);
+    }
+  }
+
+  private void removeLocked(Long id) {
+    String text = texts.remove(id);
+    if (text == null) {
+      return;
+    }
+    entities.remove(id);
+    for (long gram : gramsOf(text)) {
+      SortedLongSet gramPostings = postings.get(gram);
+      if (gramPostings != null && gramPostings.remove(id) && gramPostings.size() == 0) {
+        postings.remove(gram);
+      }
+    }
+  }
+
+  private static Set<Long> gramsOf(String text) {
+    Set<Long> grams = new HashSet<>();
+    for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+      grams.add(gramOf(text, i));
+    }
+    return grams;
+  }
+
+  /** Упаковка трёх символов в {@code long}, чтобы не хранить строку на каждую триграмму. */
+  private static long gramOf(String text, int from) {
+    return ((long) text.charAt(from) << 32)
+        | ((long) text.charAt(from + 1) << 16)
+        | text.charAt(from + 2);
+  }
+}
@@ -0,0 +1,111 @@
+package com.thedan17.salesnet.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Политика вытеснения на основе порядка ключей: FIFO (порядок добавления) или LRU (порядок
+ * обращений).
+ *
+ * <p>Обращения не меняют порядок сразу, а складываются в неблокирующий буфер, который переносится
+ * в порядок ключей под блокировкой - при его заполнении либо перед выбором жертвы. Благодаря этому
+ * попадания в кэш не ждут друг друга.
+ */
+public class OrderedEvictionPolicy<K> implements CacheEvictionPolicy<K> {
+  private static final int DRAIN_THRESHOLD = 64;
+  private final boolean accessOrder;
+  private final LinkedHashMap<K, Boolean> order;
+  private final Queue<K> accessBuffer = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger bufferedAmount = new AtomicInteger();
+  protected final ReentrantLock lock = new ReentrantLock();
+
+  /**
+   * Конструктор политики.
+   *
+   * @param accessOrder {@code true} для LRU, {@code false} для FIFO
+   */
+  public OrderedEvictionPolicy(boolean accessOrder) {
+    this.accessOrder = accessOrder;
+    this.order = new LinkedHashMap<>(16, 0.75f, accessOrder);
+  }
+
+  @Override
+  public void recordAccess(K key) {
+    if (!accessOrder) {
+      return;
+    }
+    accessBuffer.add(key);
+    if (bufferedAmount.incrementAndGet() >= DRAIN_THRESHOLD && lock.tryLock()) {
+      try {
+        drainBuffer();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  @Override
+  public void recordInsert(K key) {
+    lock.lock();
+    try {
+      drainBuffer();
+      order.put(key, Boolean.TRUE);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public K peekVictim() {
+    lock.lock();
+    try {
+      drainBuffer();
+      Iterator<K> iterator = order.keySet().iterator();
+      return iterator.hasNext() ? iterator.next() : null;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public K pollVictim() {
+    lock.lock();
+    try {
+      drainBuffer();
+      Iterator<K> iterator = order.keySet().iterator();
+      if (!iterator.hasNext()) {
+        return null;
+      }
+      K victim = iterator.next();
+      iterator.remove();
+      return victim;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    lock.lock();
+    try {
+      accessBuffer.clear();
+      bufferedAmount.set(0);
+      order.clear();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Перенос накопленных обращений в порядок ключей; вызывается под блокировкой. */
+  private void drainBuffer() {
+    K key;
+    while ((key = accessBuffer.poll()) != null) {
+      bufferedAmount.decrementAndGet();
+      order.get(key); // в access-order режиме перемещает ключ в конец
+    }
+  }
+}
@@ -9,6 +9,8 @@ public class PasswordCheckUtil {
   private static final Pattern UPPERCASE = Pattern.compile("[A-Z]");
   private static final Pattern LOWERCASE = Pattern.compile("[a-z]");
   private static final Pattern DIGIT = Pattern.compile("\\d");
+  private static final Pattern REPEATED_CHARS = Pattern.compile("(.)\\1{2,}");
+  private static final Pattern ALLOWED_CHARS = Pattern.compile("^\\w+$");
   public static final List<String> KEY_ROWS =
       List.of(
           "qwertyuiop", "poiuytrewq",
@@ -36,14 +38,14 @@ public class PasswordCheckUtil {
     if (password == null) {
       return true;
     }
-    return !Pattern.compile("(.)\\1{2,}").matcher(password).find();
+    return !REPEATED_CHARS.matcher(password).find();
   }
 
   /**
    * @return true, если пароль состоит исключительно из латинских A-Z/a-z, цифр 0-9 и символа _
    */
   public static boolean containsOnlyAllowedChars(String password) {
-    return password != null && password.matches("^\\w+$");
+    return password != null && ALLOWED_CHARS.matcher(password).matches();
   }
 
   public static boolean haveEnoughLength(String password) {
@@ -0,0 +1,247 @@
+package com.thedan17.salesnet.util;
+
+import com.thedan17.salesnet.core.object.data.HashingStatistics;
+import com.thedan17.salesnet.exception.TaskQueueFullException;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Хеширование паролей PBKDF2-HMAC-SHA256 с солью в формате {@code
+ * pbkdf2-sha256$<итерации>$<соль>$<хеш>}, соль и хеш записаны в Base64 без дополнения.
+ *
+ * <p>Количество итераций хранится в самом хеше, поэтому его можно повышать настройкой без потери
+ * старых паролей. Старые хеши - 64 шестнадцатеричных символа несолёного SHA-256 - по-прежнему
+ * проверяются, а {@link #needsRehash} сообщает, что их стоит пересчитать.
+ *
+ * <p>Вычисление намеренно дорогое, поэтому {@link #hash} выполняется на собственном пуле с
+ * ограниченной очередью: при всплеске регистраций лишние запросы получают {@link
+ * TaskQueueFullException}, а не занимают процессор без предела. Одновременных вычислений не больше
+ * числа потоков пула, в том числе через {@link #encode} из других пулов.
+ */
+@Component
+public class PasswordHasher {
+  /** Версия формата в начале хеша. */
+  public static final String PBKDF2_PREFIX = "pbkdf2-sha256";
+  private static final char SEPARATOR = '$';
+  private static final int SALT_BYTES = 16;
+  private static final int KEY_BITS = 256;
+  private static final int LEGACY_HASH_LENGTH = 64;
+  private static final ThreadLocal<SecretKeyFactory> KEY_FACTORY =
+      ThreadLocal.withInitial(
+          () -> {
+            try {
+              return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
+            } catch (NoSuchAlgorithmException e) {
+              throw new IllegalStateException("No PBKDF2WithHmacSHA256 algorithm", e);
+            }
+          });
+
+  private final int iterations;
+  private final int queueCapacity;
+  private final ThreadPoolExecutor executor;
+  /** Разрешения на вычисление хеша, по одному на поток пула хеширования. */
+  private final Semaphore hashingPermits;
+  private final SecureRandom random = new SecureRandom();
+  private final AtomicLong hashedCount = new AtomicLong();
+  private final AtomicLong hashingNanos = new AtomicLong();
+  private final AtomicLong rejectedCount = new AtomicLong();
+
+  /**
+   * Конструктор для автопривязки Spring.
+   *
+   * @param iterations количество итераций PBKDF2 для новых хешей
+   * @param workers количество потоков хеширования, {@code 0} - половина процессоров, чтобы
+   *     оставить ядра обработке запросов
+   * @param queueCapacity количество паролей, ожидающих свободного потока
+   */
+  @Autowired
+  public PasswordHasher(
+      @Value("${salesnet.security.password.iterations:210000}") int iterations,
+      @Value("${salesnet.security.password.hash-workers:0}") int workers,
+      @Value("${salesnet.security.password.hash-queue-capacity:256}") int queueCapacity) {
+    if (iterations < 1 || workers < 0 || queueCapacity < 1) {
+      throw new IllegalArgumentException(
+          "Hashing needs positive iterations and queue capacity, workers must not be negative");
+    }
+    this.iterations = iterations;
+    this.queueCapacity = queueCapacity;
+    int poolSize =
+        workers == 0 ? Math.max(1, Runtime.getRuntime().availableProcessors() / 2) : workers;
+    this.hashingPermits = new Semaphore(poolSize, true);
+    AtomicInteger counter = new AtomicInteger(0);
+    this.executor =
+        new ThreadPoolExecutor(
+            poolSize,
+            poolSize,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+              Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /** Остановка пула хеширования. */
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Хеширование пароля на пуле хеширования с ожиданием результата.
+   *
+   * @throws TaskQueueFullException если все потоки заняты и очередь заполнена
+   */
+  public String hash(String password) {
+    Future<String> future;
+    try {
+      future = executor.submit(() -> encode(password));
+    } catch (RejectedExecutionException e) {
+      rejectedCount.incrementAndGet();
+      throw new TaskQueueFullException(
+          "Password hashing queue is full (%d waiting), try again later".formatted(queueCapacity),
+          1);
+    }
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while hashing password", e);
+    } catch (ExecutionException e) {
+      throw e.getCause() instanceof RuntimeException cause
+          ? cause
+          : new IllegalStateException("Password hashing failed", e.getCause());
+    }
+  }
+
+  /**
+   * Хеширование пароля в вызывающем потоке с ожиданием свободного разрешения.
+   *
+   * <p>Для кода, выполняющегося в собственном пуле, например массовой регистрации: такие вызовы
+   * делят разрешения с потоками пула хеширования, поэтому не занимают больше ядер, чем задано
+   * {@code hash-workers}, и видны в {@link #getStatistics()}.
+   */
+  public String encode(String password) {
+    try {
+      hashingPermits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting to hash password", e);
+    }
+    try {
+      return encodeWithPermit(password);
+    } finally {
+      hashingPermits.release();
+    }
+  }
+
+  private String encodeWithPermit(String password) {
+    long start = System.nanoTime();
+    byte[] salt = new byte[SALT_BYTES];
+    random.nextBytes(salt);
+    byte[] hash = derive(password, salt, iterations, KEY_BITS);
+    Base64.Encoder base64 = Base64.getEncoder().withoutPadding();
+    String result =
+        PBKDF2_PREFIX
+            + SEPARATOR
+            + iterations
+            + SEPARATOR
+            + base64.encodeToString(salt)
+            + SEPARATOR
+            + base64.encodeToString(hash);
+    hashingNanos.addAndGet(System.nanoTime() - start);
+    hashedCount.incrementAndGet();
+    return result;
+  }
+
+  /** Проверка пароля по хешу любого поддерживаемого формата, в вызывающем потоке. */
+  public boolean verify(String password, String storedHash) {
+    if (password == null || storedHash == null) {
+      return false;
+    }
+    if (!storedHash.startsWith(PBKDF2_PREFIX + SEPARATOR)) {
+      return storedHash.length() == LEGACY_HASH_LENGTH
+          && MessageDigest.isEqual(
+              CommonUtil.hashWithSha256(password).getBytes(StandardCharsets.US_ASCII),
+              storedHash.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII));
+    }
+    String[] parts = storedHash.split("\\" + SEPARATOR);
+    if (parts.length != 4) {
+      return false;
+    }
+    try {
+      int storedIterations = Integer.parseInt(parts[1]);
+      byte[] salt = Base64.getDecoder().decode(parts[2]);
+      byte[] expected = Base64.getDecoder().decode(parts[3]);
+      if (storedIterations < 1 || expected.length == 0) {
+        return false;
+      }
+      return MessageDigest.isEqual(
+          expected, derive(password, salt, storedIterations, expected.length * Byte.SIZE));
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  /** Стоит ли пересчитать хеш: старый формат или меньше итераций, чем в настройке. */
+  public boolean needsRehash(String storedHash) {
+    if (storedHash == null || !storedHash.startsWith(PBKDF2_PREFIX + SEPARATOR)) {
+      return true;
+    }
+    int start = PBKDF2_PREFIX.length() + 1;
+    int end = storedHash.indexOf(SEPARATOR, start);
+    try {
+      return end < 0 || Integer.parseInt(storedHash.substring(start, end)) < iterations;
+    } catch (NumberFormatException e) {
+      return true;
+    }
+  }
+
+  private static byte[] derive(String password, byte[] salt, int iterations, int keyBits) {
+    PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, keyBits);
+    try {
+      return KEY_FACTORY.get().generateSecret(spec).getEncoded();
+    } catch (InvalidKeySpecException e) {
+      throw new IllegalStateException("Cannot derive password hash", e);
+    } finally {
+      spec.clearPassword();
+    }
+  }
+
+  /** Снимок состояния пула хеширования. */
+  public HashingStatistics getStatistics() {
+    long hashed = hashedCount.get();
+    return new HashingStatistics(
+        iterations,
+        executor.getMaximumPoolSize(),
+        executor.getMaximumPoolSize() - hashingPermits.availablePermits(),
+        queueCapacity,
+        executor.getQueue().size() + hashingPermits.getQueueLength(),
+        hashed,
+        rejectedCount.get(),
+        hashed == 0 ? 0.0 : hashingNanos.get() / 1_000_000.0 / hashed);
+  }
+}
@@ -0,0 +1,127 @@
+package com.thedan17.salesnet.util;
+
+import com.thedan17.salesnet.core.object.data.LatencyStatistics;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Гистограмма длительностей и счётчики статусов ответа одного endpoint'а со скользящим окном.
+ *
+ * <p>Время делится на интервалы длиной {@code slotDuration}, у каждого из последних {@code
+ * slotCount} интервалов свой слот; слот переиспользуется по кругу и обнуляется первым запросом
+ * нового интервала. Окно статистики складывается из целых слотов, поэтому окно в минуту при
+ * слотах по 15 секунд покрывает от 45 до 60 секунд. Отдельно хранится статистика за всё время.
+ */
+public class RollingLatencyHistogram {
+  private final Slot[] slots;
+  private final Slot total = new Slot();
+  private final long slotMillis;
+  private final LongSupplier clockMillis;
+
+  /** Конструктор с системными часами. */
+  public RollingLatencyHistogram(Duration slotDuration, int slotCount) {
+    this(slotDuration, slotCount, System::currentTimeMillis);
+  }
+
+  /** Конструктор с заданными часами, возвращающими миллисекунды. */
+  public RollingLatencyHistogram(Duration slotDuration, int slotCount, LongSupplier clockMillis) {
+    if (slotDuration.toMillis() <= 0 || slotCount <= 0) {
+      throw new IllegalArgumentException("Slot duration and slot count must be positive");
+    }
+    this.slotMillis = slotDuration.toMillis();
+    this.clockMillis = clockMillis;
+    this.slots = new Slot[slotCount];
+    for (int i = 0; i < slotCount; i++) {
+      slots[i] = new Slot();
+    }
+  }
+
+  /**
+   * Учёт одного запроса.
+   *
+   * @param sampled попадает ли длительность запроса в гистограмму; статус учитывается всегда
+   */
+  public void record(long micros, int status, boolean sampled) {
+    Slot slot = currentSlot(clockMillis.getAsLong() / slotMillis);
+    slot.record(micros, status, sampled);
+    total.record(micros, status, sampled);
+  }
+
+  /** Статистика за окно {@code window}, либо за всё время, если окно {@code null}. */
+  public LatencyStatistics snapshot(Duration window) {
+    long[] buckets = new long[LatencyHistogram.BUCKET_COUNT];
+    Map<Integer, Long> statuses = new TreeMap<>();
+    if (window == null) {
+      long max = total.addTo(buckets, statuses);
+      return toStatistics(buckets, max, statuses);
+    }
+    long now = clockMillis.getAsLong() / slotMillis;
+    long windowSlots = Math.min(slots.length, Math.max(1, window.toMillis() / slotMillis));
+    long max = 0;
+    for (Slot slot : slots) {
+      long epoch = slot.epoch.get();
+      if (epoch > now - windowSlots && epoch <= now) {
+        max = Math.max(max, slot.addTo(buckets, statuses));
+      }
+    }
+    return toStatistics(buckets, max, statuses);
+  }
+
+  private Slot currentSlot(long epoch) {
+    Slot slot = slots[(int) (epoch % slots.length)];
+    long slotEpoch = slot.epoch.get();
+    if (slotEpoch < epoch && slot.epoch.compareAndSet(slotEpoch, epoch)) {
+      slot.clear();
+    }
+    return slot;
+  }
+
+  private static LatencyStatistics toStatistics(
+      long[] buckets, long max, Map<Integer, Long> statuses) {
+    long sampled = 0;
+    for (long count : buckets) {
+      sampled += count;
+    }
+    long requests = statuses.values().stream().mapToLong(Long::longValue).sum();
+    return new LatencyStatistics(
+        requests,
+        sampled,
+        LatencyHistogram.valueAtQuantile(buckets, sampled, max, 0.50),
+        LatencyHistogram.valueAtQuantile(buckets, sampled, max, 0.95),
+        LatencyHistogram.valueAtQuantile(buckets, sampled, max, 0.99),
+        sampled == 0 ? 0 : max,
+        statuses);
+  }
+
+  private static final class Slot {
+    private final AtomicLong epoch = new AtomicLong(-1);
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    void record(long micros, int status, boolean sampled) {
+      LongAdder counter = statuses.get(status);
+      if (counter == null) {
+        counter = statuses.computeIfAbsent(status, s -> new LongAdder());
+      }
+      counter.increment();
+      if (sampled) {
+        histogram.record(micros);
+      }
+    }
+
+    void clear() {
+      histogram.clear();
+      statuses.clear();
+    }
+
+    long addTo(long[] buckets, Map<Integer, Long> statusTarget) {
+      statuses.forEach((status, count) -> statusTarget.merge(status, count.sum(), Long::sum));
+      return histogram.addTo(buckets);
+    }
+  }
+}
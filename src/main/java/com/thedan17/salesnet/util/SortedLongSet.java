@@ -0,0 +1,109 @@
+package com.thedan17.salesnet.util;
+
+import java.util.Arrays;
+
+/**
+ * Отсортированное множество {@code long} в массиве с запасом ёмкости для индексов в памяти.
+ *
+ * <p>Новые значения обычно больше имеющихся (id растут), поэтому добавление чаще всего идёт в
+ * конец без сдвига. Проверка наличия - двоичный поиск. Не потокобезопасно.
+ *
+ * <p>При массовой загрузке значений в произвольном порядке они добавляются через {@link #append}
+ * без упорядочивания, а затем один раз сортируются в {@link #sortAndTrim()}.
+ */
+final class SortedLongSet {
+  /** Заголовок объекта, ссылка на массив и размер, с выравниванием, в байтах. */
+  static final int OBJECT_BYTES = 24;
+  /** Заголовок массива {@code long[]} в байтах. */
+  static final int ARRAY_HEADER_BYTES = 16;
+
+  private long[] values = new long[2];
+  private int size = 0;
+
+  int size() {
+    return size;
+  }
+
+  long get(int index) {
+    return values[index];
+  }
+
+  boolean contains(long value) {
+    return Arrays.binarySearch(values, 0, size, value) >= 0;
+  }
+
+  /** Добавление значения; {@code false}, если оно уже есть. */
+  boolean add(long value) {
+    if (size > 0 && values[size - 1] >= value) {
+      int position = Arrays.binarySearch(values, 0, size, value);
+      if (position >= 0) {
+        return false;
+      }
+      insertAt(-position - 1, value);
+      return true;
+    }
+    insertAt(size, value);
+    return true;
+  }
+
+  /** Добавление в конец без упорядочивания; до {@link #sortAndTrim()} множество не отсортировано. */
+  void append(long value) {
+    if (size == values.length) {
+      values = Arrays.copyOf(values, values.length + (values.length >> 1) + 1);
+    }
+    values[size++] = value;
+  }
+
+  /** Сортировка и удаление повторов после {@link #append}, затем {@link #trim()}. */
+  void sortAndTrim() {
+    Arrays.sort(values, 0, size);
+    int unique = 0;
+    for (int i = 0; i < size; i++) {
+      if (unique == 0 || values[unique - 1] != values[i]) {
+        values[unique++] = values[i];
+      }
+    }
+    size = unique;
+    trim();
+  }
+
+  /** Удаление значения; {@code false}, если его не было. */
+  boolean remove(long value) {
+    int position = Arrays.binarySearch(values, 0, size, value);
+    if (position < 0) {
+      return false;
+    }
+    System.arraycopy(values, position + 1, values, position, size - position - 1);
+    size--;
+    return true;
+  }
+
+  long[] toArray() {
+    return Arrays.copyOf(values, size);
+  }
+
+  /**
+   * Освобождение лишней ёмкости после массовой загрузки с запасом в 1/8 размера, чтобы следующие
+   * добавления не копировали массив каждый раз.
+   */
+  void trim() {
+    int capacity = size + (size >> 3) + 1;
+    if (values.length > capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+  }
+
+  /** Занимаемая память в байтах вместе с запасом ёмкости массива. */
+  long estimatedBytes() {
+    return OBJECT_BYTES + ARRAY_HEADER_BYTES + (long) values.length * Long.BYTES;
+  }
+
+  private void insertAt(int position, long value) {
+    if (size == values.length) {
+      values = Arrays.copyOf(values, values.length + (values.length >> 1) + 1);
+    }
+    System.arraycopy(values, position, values, position + 1, size - position);
+    values[position] = value;
+    size++;
+  }
+}
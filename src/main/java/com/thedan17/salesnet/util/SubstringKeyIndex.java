@@ -0,0 +1,96 @@
+package com.thedan17.salesnet.util;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Индекс ключей-подстрок по триграммам для точечной инвалидации {@link CacheIdManager}.
+ *
+ * <p>Ключ может совпасть с текстом сущности, только если текст содержит все триграммы ключа, а
+ * значит, и первую из них. Поэтому каждый ключ хранится под своей первой триграммой, а
+ * кандидатами для текста являются ключи под триграммами этого текста. Ключи короче трёх символов
+ * хранятся отдельно и возвращаются всегда.
+ *
+ * @param <K> тип ключа кэша
+ */
+public class SubstringKeyIndex<K> {
+  private static final int GRAM_LENGTH = 3;
+  private final Function<K, String> keyText;
+  private final ConcurrentHashMap<String, Set<K>> keysByGram = new ConcurrentHashMap<>();
+  private final Set<K> shortKeys = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Конструктор индекса.
+   *
+   * @param keyText функция получения из ключа подстроки, по которой ищутся сущности
+   */
+  public SubstringKeyIndex(Function<K, String> keyText) {
+    this.keyText = keyText;
+  }
+
+  /** Добавление ключа в индекс. */
+  public void add(K key) {
+    String gram = firstGramOf(key);
+    if (gram == null) {
+      shortKeys.add(key);
+    } else {
+      // Добавление внутри compute, иначе remove другого ключа может убрать множество из карты
+      keysByGram.compute(
+          gram,
+          (g, keys) -> {
+            Set<K> gramKeys = keys == null ? ConcurrentHashMap.newKeySet() : keys;
+            gramKeys.add(key);
+            return gramKeys;
+          });
+    }
+  }
+
+  /** Удаление ключа из индекса. */
+  public void remove(K key) {
+    String gram = firstGramOf(key);
+    if (gram == null) {
+      shortKeys.remove(key);
+      return;
+    }
+    keysByGram.computeIfPresent(
+        gram,
+        (g, keys) -> {
+          keys.remove(key);
+          return keys.isEmpty() ? null : keys;
+        });
+  }
+
+  /** Очистка индекса. */
+  public void clear() {
+    keysByGram.clear();
+    shortKeys.clear();
+  }
+
+  /**
+   * Ключи, которые могут совпасть с текстом сущности.
+   *
+   * <p>Результат - надмножество совпадающих ключей, окончательная проверка остаётся за вызывающим.
+   */
+  public Set<K> candidatesFor(String entityText) {
+    Set<K> candidates = new HashSet<>(shortKeys);
+    if (entityText == null) {
+      return candidates;
+    }
+    String text = entityText.toLowerCase(Locale.ROOT);
+    for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+      Set<K> keys = keysByGram.get(text.substring(i, i + GRAM_LENGTH));
+      if (keys != null) {
+        candidates.addAll(keys);
+      }
+    }
+    return candidates;
+  }
+
+  private String firstGramOf(K key) {
+    String text = keyText.apply(key).toLowerCase(Locale.ROOT);
+    return text.length() < GRAM_LENGTH ? null : text.substring(0, GRAM_LENGTH);
+  }
+}
@@ -0,0 +1,261 @@
+package com.thedan17.salesnet.util;
+
+import com.thedan17.salesnet.core.object.data.AsyncTaskInfo;
+import com.thedan17.salesnet.exception.TaskQueueFullException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Выполнение фоновых задач на собственном пуле потоков с ограниченной очередью.
+ *
+ * <p>Если очередь заполнена, новая задача не принимается ({@link TaskQueueFullException}), а не
+ * копится в памяти. Выполнение ограничено таймаутом, задачу можно отменить; в обоих случаях поток
+ * задачи прерывается. Завершённая задача хранится {@code retention} и затем удаляется.
+ *
+ * <p>Об изменениях статуса сообщается подписчикам ({@link #subscribe}) в отдельном потоке
+ * уведомлений, поэтому ожидающие клиенты не занимают потоков, а медленные подписчики не задерживают
+ * выполнение задач.
+ *
+ * @param <I> параметры задачи
+ * @param <O> результат задачи
+ */
+public class TaskEngine<I, O> implements AutoCloseable {
+  /** Работа задачи; прерывание потока означает отмену или истечение таймаута. */
+  @FunctionalInterface
+  public interface Job<I, O> {
+    /** Выполнение задачи, прогресс сообщается через {@link AsyncTaskInfo#setProgress}. */
+    O run(AsyncTaskInfo<I, O> task) throws Exception;
+  }
+
+  private final Map<Integer, AsyncTaskInfo<I, O>> tasks = new ConcurrentHashMap<>();
+  private final Map<Integer, Future<?>> futures = new ConcurrentHashMap<>();
+  private final Map<Integer, Queue<Consumer<AsyncTaskInfo<I, O>>>> listeners =
+      new ConcurrentHashMap<>();
+  private final AtomicInteger idCounter = new AtomicInteger(0);
+  private final ThreadPoolExecutor executor;
+  /** Таймауты и удаление завершённых задач. */
+  private final ScheduledThreadPoolExecutor timer;
+  /** Вызов подписчиков по порядку изменений статуса. */
+  private final ExecutorService notifier;
+  private final int queueCapacity;
+  private final Duration timeout;
+  private final Duration retention;
+
+  /**
+   * Конструктор.
+   *
+   * @param name префикс имён потоков
+   * @param workers количество потоков выполнения
+   * @param queueCapacity количество задач, ожидающих свободного потока
+   */
+  public TaskEngine(
+      String name, int workers, int queueCapacity, Duration timeout, Duration retention) {
+    if (workers < 1 || queueCapacity < 1) {
+      throw new IllegalArgumentException("Task engine needs at least one worker and queue slot");
+    }
+    if (timeout.isNegative() || timeout.isZero() || retention.isNegative()) {
+      throw new IllegalArgumentException("Task timeout must be positive, retention not negative");
+    }
+    this.queueCapacity = queueCapacity;
+    this.timeout = timeout;
+    this.retention = retention;
+    this.executor =
+        new ThreadPoolExecutor(
+            workers,
+            workers,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            daemonThreads(name + "-worker-"));
+    this.timer = new ScheduledThreadPoolExecutor(1, daemonThreads(name + "-timer-"));
+    this.timer.setRemoveOnCancelPolicy(true);
+    this.notifier = Executors.newSingleThreadExecutor(daemonThreads(name + "-notifier-"));
+  }
+
+  private static ThreadFactory daemonThreads(String prefix) {
+    AtomicInteger counter = new AtomicInteger(0);
+    return runnable -> {
+      Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /**
+   * Постановка задачи в очередь.
+   *
+   * @throws TaskQueueFullException если все потоки заняты и очередь заполнена
+   */
+  public AsyncTaskInfo<I, O> submit(I params, Job<I, O> job) {
+    AsyncTaskInfo<I, O> task = new AsyncTaskInfo<>(idCounter.incrementAndGet(), params);
+    FutureTask<Void> future = new FutureTask<>(() -> execute(task, job), null);
+    tasks.put(task.getId(), task);
+    futures.put(task.getId(), future);
+    try {
+      executor.execute(future);
+    } catch (RejectedExecutionException e) {
+      tasks.remove(task.getId());
+      futures.remove(task.getId());
+      throw new TaskQueueFullException(
+          "Task queue is full (%d waiting), try again later".formatted(queueCapacity),
+          Math.max(1, timeout.toSeconds()));
+    }
+    return task;
+  }
+
+  private void execute(AsyncTaskInfo<I, O> task, Job<I, O> job) {
+    synchronized (task) {
+      if (task.isFinished()) {
+        return; // отменена в очереди
+      }
+      task.setStatus(AsyncTaskInfo.Status.RUNNING);
+    }
+    notifyListeners(task);
+    Future<?> timeoutFuture =
+        timer.schedule(
+            () -> stop(task, AsyncTaskInfo.Status.FAILED, "Timed out after " + timeout),
+            timeout.toMillis(),
+            TimeUnit.MILLISECONDS);
+    try {
+      O result = job.run(task);
+      finish(task, AsyncTaskInfo.Status.DONE, result, null);
+    } catch (InterruptedException e) {
+      // статус уже выставлен тем, кто прервал
+      finish(task, AsyncTaskInfo.Status.CANCELLED, null, "Interrupted");
+    } catch (Exception e) {
+      finish(task, AsyncTaskInfo.Status.FAILED, null, e.getMessage());
+    } finally {
+      timeoutFuture.cancel(false);
+    }
+  }
+
+  /** Завершение задачи, если она ещё не завершена, и планирование её удаления. */
+  private boolean finish(
+      AsyncTaskInfo<I, O> task, AsyncTaskInfo.Status status, O result, String error) {
+    synchronized (task) {
+      if (task.isFinished()) {
+        return false;
+      }
+      task.setResult(result);
+      task.setError(error);
+      if (status == AsyncTaskInfo.Status.DONE) {
+        task.setProgress(100);
+      }
+      task.setCompletedAt(Instant.now(), retention);
+      task.setStatus(status); // последним: завершённый статус виден вместе с результатом
+    }
+    futures.remove(task.getId());
+    notifyListeners(task);
+    timer.schedule(
+        () -> {
+          tasks.remove(task.getId(), task);
+          listeners.remove(task.getId());
+        },
+        retention.toMillis(),
+        TimeUnit.MILLISECONDS);
+    return true;
+  }
+
+  /** Завершение задачи с прерыванием её потока или удалением из очереди. */
+  private boolean stop(AsyncTaskInfo<I, O> task, AsyncTaskInfo.Status status, String reason) {
+    Future<?> future = futures.get(task.getId());
+    if (!finish(task, status, null, reason)) {
+      return false;
+    }
+    if (future != null) {
+      future.cancel(true);
+      executor.remove((Runnable) future);
+    }
+    return true;
+  }
+
+  /**
+   * Отмена задачи: ожидающая удаляется из очереди, выполняющаяся прерывается.
+   *
+   * @return {@code false}, если задачи нет или она уже завершена
+   */
+  public boolean cancel(int taskId) {
+    AsyncTaskInfo<I, O> task = tasks.get(taskId);
+    return task != null && stop(task, AsyncTaskInfo.Status.CANCELLED, "Cancelled");
+  }
+
+  /**
+   * Подписка на изменения статуса задачи. Подписчик вызывается в потоке уведомлений сразу с текущим
+   * состоянием и затем после каждого изменения статуса, в том числе завершения; повторный вызов с
+   * тем же статусом возможен.
+   *
+   * @return отмена подписки или {@code null}, если задачи нет
+   */
+  public Runnable subscribe(int taskId, Consumer<AsyncTaskInfo<I, O>> listener) {
+    AsyncTaskInfo<I, O> task = tasks.get(taskId);
+    if (task == null) {
+      return null;
+    }
+    Queue<Consumer<AsyncTaskInfo<I, O>>> taskListeners =
+        listeners.computeIfAbsent(taskId, id -> new ConcurrentLinkedQueue<>());
+    taskListeners.add(listener);
+    notifier.execute(() -> call(listener, task));
+    return () -> taskListeners.remove(listener);
+  }
+
+  private void notifyListeners(AsyncTaskInfo<I, O> task) {
+    // подписчики завершённой задачи больше не нужны, новые получат её состояние при подписке
+    Queue<Consumer<AsyncTaskInfo<I, O>>> taskListeners =
+        task.isFinished() ? listeners.remove(task.getId()) : listeners.get(task.getId());
+    if (taskListeners != null) {
+      notifier.execute(() -> taskListeners.forEach(listener -> call(listener, task)));
+    }
+  }
+
+  private static <I, O> void call(
+      Consumer<AsyncTaskInfo<I, O>> listener, AsyncTaskInfo<I, O> task) {
+    try {
+      listener.accept(task);
+    } catch (RuntimeException e) {
+      // ошибка одного подписчика (например, закрытое соединение) не мешает остальным
+    }
+  }
+
+  /** Задача по ID или {@code null}, если её нет или она уже удалена. */
+  public AsyncTaskInfo<I, O> get(int taskId) {
+    AsyncTaskInfo<I, O> task = tasks.get(taskId);
+    if (task != null) {
+      task.calcDuration();
+    }
+    return task;
+  }
+
+  public List<AsyncTaskInfo<I, O>> getAll() {
+    tasks.values().forEach(AsyncTaskInfo::calcDuration);
+    return List.copyOf(tasks.values());
+  }
+
+  /** Количество задач, ожидающих свободного потока. */
+  public int getQueuedCount() {
+    return executor.getQueue().size();
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    timer.shutdownNow();
+    notifier.shutdownNow();
+  }
+}
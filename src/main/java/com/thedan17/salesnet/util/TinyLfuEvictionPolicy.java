@@ -0,0 +1,40 @@
+package com.thedan17.salesnet.util;
+
+/**
+ * Политика вытеснения с учётом частоты обращений (упрощённый TinyLFU).
+ *
+ * <p>Порядок вытеснения - LRU, но новый ключ допускается в заполненный кэш, только если по оценке
+ * {@link FrequencySketch} к нему обращались чаще, чем к ключу-жертве. Так разовые запросы не
+ * вытесняют популярные.
+ */
+public class TinyLfuEvictionPolicy<K> extends OrderedEvictionPolicy<K> {
+  private final FrequencySketch<K> sketch;
+
+  /** Конструктор политики для кэша с максимальным размером {@code capacity}. */
+  public TinyLfuEvictionPolicy(long capacity) {
+    super(true);
+    this.sketch = new FrequencySketch<>(capacity);
+  }
+
+  @Override
+  public void recordAccess(K key) {
+    sketch.increment(key);
+    super.recordAccess(key);
+  }
+
+  @Override
+  public void recordMiss(K key) {
+    sketch.increment(key);
+  }
+
+  @Override
+  public boolean admit(K candidate, K victim) {
+    return victim == null || sketch.frequency(candidate) > sketch.frequency(victim);
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    sketch.clear();
+  }
+}
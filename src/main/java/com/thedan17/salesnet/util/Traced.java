@@ -0,0 +1,18 @@
+package com.thedan17.salesnet.util;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Пометка класса или метода для трассировки через {@link TracingInterceptor}.
+ *
+ * <p>Трассировка включается свойством {@code salesnet.tracing.enabled}; помимо помеченных методов
+ * трассируются методы, подходящие под выражение {@code salesnet.tracing.pointcut}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface Traced {}
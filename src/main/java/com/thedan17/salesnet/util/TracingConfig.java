@@ -0,0 +1,41 @@
+package com.thedan17.salesnet.util;
+
+import org.springframework.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Подключение {@link TracingInterceptor} к методам, выбранным выражением pointcut.
+ *
+ * <p>При {@code salesnet.tracing.enabled=false} советник не создаётся и прокси для трассировки не
+ * строятся вовсе.
+ */
+@Configuration
+@ConditionalOnProperty(name = "salesnet.tracing.enabled", havingValue = "true")
+public class TracingConfig {
+  private static final String TRACED_POINTCUT =
+      "@within(com.thedan17.salesnet.util.Traced) "
+          + "|| @annotation(com.thedan17.salesnet.util.Traced)";
+
+  /**
+   * Советник трассировки.
+   *
+   * @param pointcut дополнительное выражение AspectJ, например {@code within(com.pkg..*)}
+   * @param sampleRate доля трассируемых вызовов
+   * @param logArgs логировать ли аргументы вызовов
+   */
+  @Bean
+  public AspectJExpressionPointcutAdvisor tracingAdvisor(
+      AppLoggerCore logger,
+      @Value("${salesnet.tracing.pointcut:}") String pointcut,
+      @Value("${salesnet.tracing.sample-rate:1.0}") double sampleRate,
+      @Value("${salesnet.tracing.log-args:false}") boolean logArgs) {
+    AspectJExpressionPointcutAdvisor advisor = new AspectJExpressionPointcutAdvisor();
+    advisor.setExpression(
+        pointcut.isBlank() ? TRACED_POINTCUT : "(" + TRACED_POINTCUT + ") || (" + pointcut + ")");
+    advisor.setAdvice(new TracingInterceptor(logger, sampleRate, logArgs));
+    return advisor;
+  }
+}
@@ -0,0 +1,66 @@
+package com.thedan17.salesnet.util;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Трассировка вызовов методов: время выполнения и, при необходимости, аргументы.
+ *
+ * <p>Пока уровень TRACE выключен, вызов сразу передаётся дальше, без аллокаций. Короткие сигнатуры
+ * вычисляются один раз на {@link Method}, а в трассировку попадает доля вызовов {@code
+ * sampleRate}.
+ */
+public class TracingInterceptor implements MethodInterceptor {
+  private final AppLoggerCore logger;
+  private final double sampleRate;
+  private final boolean logArgs;
+  private final ConcurrentHashMap<Method, String> shortSignatures = new ConcurrentHashMap<>();
+
+  /**
+   * Конструктор интерцептора.
+   *
+   * @param sampleRate доля трассируемых вызовов, от 0 до 1
+   * @param logArgs логировать ли аргументы вызова
+   */
+  public TracingInterceptor(AppLoggerCore logger, double sampleRate, boolean logArgs) {
+    if (sampleRate < 0 || sampleRate > 1) {
+      throw new IllegalArgumentException("Sample rate must be in [0, 1]");
+    }
+    this.logger = logger;
+    this.sampleRate = sampleRate;
+    this.logArgs = logArgs;
+  }
+
+  @Override
+  public Object invoke(MethodInvocation invocation) throws Throwable {
+    if (!logger.isTraceEnabled()
+        || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+      return invocation.proceed();
+    }
+    String signature = shortSignature(invocation.getMethod());
+    if (logArgs) {
+      logger.trace(
+          "start of method \"{}\"  [args:{}]",
+          signature,
+          Arrays.toString(invocation.getArguments()));
+    }
+    long start = System.nanoTime();
+    try {
+      return invocation.proceed();
+    } finally {
+      logger.trace(
+          "end of method \"{}\"  [took:{}us]", signature, (System.nanoTime() - start) / 1000);
+    }
+  }
+
+  /** Короткая сигнатура метода, вычисляемая один раз. */
+  String shortSignature(Method method) {
+    return shortSignatures.computeIfAbsent(
+        method,
+        m -> AppLogEnricher.makeShortPackages(m.getDeclaringClass().getName(), m.getName()));
+  }
+}
@@ -1,29 +1,62 @@
 package com.thedan17.salesnet.util;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.LongAdder;
 import org.springframework.stereotype.Component;
 
+/**
+ * Счётчики обращений по шаблонам endpoint'ов.
+ *
+ * <p>Шаблоны регистрируются заранее при старте приложения, поэтому на каждый запрос приходится
+ * только чтение из {@link ConcurrentHashMap} без блокировок и инкремент {@link LongAdder}, который
+ * распределяет конкурентные увеличения по разным ячейкам. Незарегистрированные шаблоны
+ * добавляются при первом обращении.
+ */
 @Component
 public class UrlCounter {
-  private final ConcurrentMap<String, AtomicInteger> counters = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+  /** Регистрация шаблонов с нулевым счётчиком; уже существующие счётчики не меняются. */
+  public void registerAll(Collection<String> patterns) {
+    patterns.forEach(pattern -> counters.putIfAbsent(pattern, new LongAdder()));
+  }
 
   public void increment(String path) {
-    counters.computeIfAbsent(path, p -> new AtomicInteger(0)).incrementAndGet();
+    LongAdder counter = counters.get(path);
+    if (counter == null) {
+      counter = counters.computeIfAbsent(path, p -> new LongAdder());
+    }
+    counter.increment();
+  }
+
+  /** Прибавление обращений, например восстановленных из БД после перезапуска. */
+  public void add(String path, long hits) {
+    counters.computeIfAbsent(path, p -> new LongAdder()).add(hits);
   }
 
-  public int getCount(String path) {
-    return counters.getOrDefault(path, new AtomicInteger(-1)).get();
+  /** Количество обращений, {@code -1} для неизвестного шаблона. */
+  public long getCount(String path) {
+    LongAdder counter = counters.get(path);
+    return counter == null ? -1 : counter.sum();
   }
 
-  public Map<String, Integer> getAllCounts() {
-    return counters.entrySet().stream()
-            .collect(Collectors.toMap(
-                    Map.Entry::getKey,
-                    e -> e.getValue().get()
-            ));
+  /**
+   * Неизменяемая копия ненулевых счётчиков. Каждый счётчик читается один раз; запросы, идущие во
+   * время чтения, могут попасть в одни счётчики снимка и не попасть в другие.
+   */
+  public Map<String, Long> getAllCounts() {
+    Map<String, Long> result = new TreeMap<>();
+    counters.forEach((pattern, counter) -> {
+      long count = counter.sum();
+      if (count > 0) {
+        result.put(pattern, count);
+      }
+    });
+    return Collections.unmodifiableMap(result);
   }
 }
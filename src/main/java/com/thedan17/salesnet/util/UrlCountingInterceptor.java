@@ -1,25 +1,62 @@
 package com.thedan17.salesnet.util;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.HandlerMapping;
 
+/**
+ * Подсчёт запросов и их длительности по шаблонам endpoint'ов.
+ *
+ * <p>Длительность считается от {@code preHandle} первичного запроса до {@code afterCompletion};
+ * у асинхронных ответов (потоковая выдача) это {@code afterCompletion} повторной async-обработки,
+ * поэтому время записи тела ответа тоже учитывается.
+ */
 @Component
 public class UrlCountingInterceptor implements HandlerInterceptor {
+  private static final String START_NANOS_ATTRIBUTE =
+      UrlCountingInterceptor.class.getName() + ".startNanos";
+
   @Autowired
   private final UrlCounter counter;
+  @Autowired
+  private final UrlLatencyRecorder latencyRecorder;
 
-  public UrlCountingInterceptor(UrlCounter counter) {
+  public UrlCountingInterceptor(UrlCounter counter, UrlLatencyRecorder latencyRecorder) {
     this.counter = counter;
+    this.latencyRecorder = latencyRecorder;
   }
 
   @Override
   public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (request.getDispatcherType() != DispatcherType.REQUEST
+        || request.getAttribute(START_NANOS_ATTRIBUTE) != null) {
+      return true;
+    }
+    request.setAttribute(START_NANOS_ATTRIBUTE, System.nanoTime());
     String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
-    counter.increment(pattern);
+    if (pattern != null) {
+      counter.increment(pattern);
+    }
     return true;
   }
+
+  @Override
+  public void afterCompletion(
+      HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+    Object start = request.getAttribute(START_NANOS_ATTRIBUTE);
+    String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    if (!(start instanceof Long startNanos) || pattern == null) {
+      return;
+    }
+    int status = response.getStatus();
+    if (ex != null && status < HttpStatus.BAD_REQUEST.value()) {
+      status = HttpStatus.INTERNAL_SERVER_ERROR.value();
+    }
+    latencyRecorder.record(pattern, System.nanoTime() - startNanos, status);
+  }
 }
@@ -0,0 +1,61 @@
+package com.thedan17.salesnet.util;
+
+import com.thedan17.salesnet.core.object.data.LatencyStatistics;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Статистика длительности запросов и статусов ответа по шаблонам endpoint'ов.
+ *
+ * <p>Хранит последние 5 минут слотами по 15 секунд и статистику за всё время. В гистограммы
+ * попадает доля запросов {@code salesnet.stats.latency.sample-rate}, статусы считаются все.
+ */
+@Component
+public class UrlLatencyRecorder {
+  private static final Duration SLOT_DURATION = Duration.ofSeconds(15);
+  private static final int SLOT_COUNT = 20;
+
+  private final ConcurrentMap<String, RollingLatencyHistogram> histograms =
+      new ConcurrentHashMap<>();
+  private final double sampleRate;
+
+  /** Конструктор с долей запросов, попадающих в гистограммы, от 0 до 1. */
+  public UrlLatencyRecorder(
+      @Value("${salesnet.stats.latency.sample-rate:1.0}") double sampleRate) {
+    if (sampleRate < 0 || sampleRate > 1) {
+      throw new IllegalArgumentException("Latency sample rate must be in [0, 1]");
+    }
+    this.sampleRate = sampleRate;
+  }
+
+  /** Учёт завершённого запроса длительностью {@code nanos}. */
+  public void record(String pattern, long nanos, int status) {
+    RollingLatencyHistogram histogram = histograms.get(pattern);
+    if (histogram == null) {
+      histogram =
+          histograms.computeIfAbsent(
+              pattern, p -> new RollingLatencyHistogram(SLOT_DURATION, SLOT_COUNT));
+    }
+    boolean sampled = sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    histogram.record(nanos / 1000, status, sampled);
+  }
+
+  /** Статистика одного шаблона за окно ({@code null} - за всё время). */
+  public Optional<LatencyStatistics> getStatistics(String pattern, Duration window) {
+    return Optional.ofNullable(histograms.get(pattern)).map(h -> h.snapshot(window));
+  }
+
+  /** Статистика всех шаблонов, по которым были запросы, за окно ({@code null} - за всё время). */
+  public Map<String, LatencyStatistics> getAllStatistics(Duration window) {
+    Map<String, LatencyStatistics> result = new TreeMap<>();
+    histograms.forEach((pattern, histogram) -> result.put(pattern, histogram.snapshot(window)));
+    return result;
+  }
+}
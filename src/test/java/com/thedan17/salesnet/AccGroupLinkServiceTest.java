@@ -7,10 +7,12 @@ import com.thedan17.salesnet.core.dao.*;
 import com.thedan17.salesnet.core.object.dto.*;
 import com.thedan17.salesnet.core.object.entity.*;
 import com.thedan17.salesnet.core.service.AccGroupLinkService;
+import com.thedan17.salesnet.core.service.MembershipService;
 import com.thedan17.salesnet.exception.ContentNotFoundException;
 import com.thedan17.salesnet.util.EntityMapper;
 
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.util.*;
 
@@ -23,6 +25,7 @@ class AccGroupLinkServiceTest {
   private AccountRepository accountRepository;
   private AccGroupLinkRepository accGroupLinkRepository;
   private EntityMapper entityMapper;
+  private MembershipService membershipService;
   private AccGroupLinkService service;
 
   @BeforeEach
@@ -31,8 +34,9 @@ class AccGroupLinkServiceTest {
     accountRepository = mock(AccountRepository.class);
     accGroupLinkRepository = mock(AccGroupLinkRepository.class);
     entityMapper = mock(EntityMapper.class);
+    membershipService = mock(MembershipService.class);
 
-    service = new AccGroupLinkService(groupRepository, accountRepository, accGroupLinkRepository, entityMapper);
+    service = new AccGroupLinkService(groupRepository, accountRepository, accGroupLinkRepository, entityMapper, membershipService);
   }
 
   @Test
@@ -61,7 +65,44 @@ class AccGroupLinkServiceTest {
     assertEquals(returnedDto, result.get());
 
     verify(accGroupLinkRepository).save(accGroupLink);
-    assertTrue(group.getMembers().contains(accGroupLink));
+    assertTrue(group.getMembers().isEmpty());
+    verify(membershipService).linkAdded(1L, 2L);
+  }
+
+  @Test
+  void testLinkAccWithGroup_concurrentDuplicate_returnsEmpty() {
+    var dto = new AccGroupLinkCreateDto(1L, 2L, "");
+    var account = new Account(); account.setId(1L);
+    var group = new Group(); group.setId(2L);
+    var accGroupLink = new AccGroupLink();
+
+    when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+    when(groupRepository.findById(2L)).thenReturn(Optional.of(group));
+    when(entityMapper.createDtoToLink(dto)).thenReturn(accGroupLink);
+    when(accGroupLinkRepository.save(accGroupLink))
+        .thenThrow(new DataIntegrityViolationException("duplicate key"));
+    when(accGroupLinkRepository.existsByAccountIdAndGroupId(1L, 2L)).thenReturn(true);
+
+    assertTrue(service.linkAccWithGroup(dto).isEmpty());
+    verify(membershipService, never()).linkAdded(any(), any());
+  }
+
+  @Test
+  void testLinkAccWithGroup_groupDeletedBeforeInsert_throwsNotFound() {
+    var dto = new AccGroupLinkCreateDto(1L, 2L, "");
+    var account = new Account(); account.setId(1L);
+    var group = new Group(); group.setId(2L);
+    var accGroupLink = new AccGroupLink();
+
+    when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+    when(groupRepository.findById(2L)).thenReturn(Optional.of(group));
+    when(entityMapper.createDtoToLink(dto)).thenReturn(accGroupLink);
+    when(accGroupLinkRepository.save(accGroupLink))
+        .thenThrow(new DataIntegrityViolationException("foreign key violation"));
+    when(accGroupLinkRepository.existsByAccountIdAndGroupId(1L, 2L)).thenReturn(false);
+
+    assertThrows(ContentNotFoundException.class, () -> service.linkAccWithGroup(dto));
+    verify(membershipService, never()).linkAdded(any(), any());
   }
 
   @Test
@@ -95,32 +136,34 @@ class AccGroupLinkServiceTest {
     var account = new Account(); account.setId(1L);
     var group = new Group(); group.setMembers(new HashSet<>());
 
-    var existingLink = new AccGroupLink();
-    existingLink.setAccount(account);
-    group.getMembers().add(existingLink);
-
     when(groupRepository.findById(2L)).thenReturn(Optional.of(group));
     when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+    when(membershipService.isMember(1L, 2L)).thenReturn(true);
 
     var result = service.linkAccWithGroup(dto);
     assertTrue(result.isEmpty());
 
     verify(accGroupLinkRepository, never()).save(any());
+    verify(membershipService, never()).linkAdded(any(), any());
   }
 
   @Test
   void testDeleteLink_success() {
     var link = new AccGroupLink();
+    var account = new Account();
+    account.setId(1L);
     var group = new Group();
+    group.setId(2L);
     group.setMembers(new HashSet<>(List.of(link)));
     link.setGroup(group);
+    link.setAccount(account);
 
     when(accGroupLinkRepository.findById(10L)).thenReturn(Optional.of(link));
 
     service.deleteLink(10L);
 
-    assertFalse(group.getMembers().contains(link));
     verify(accGroupLinkRepository).delete(link);
+    verify(membershipService).linkRemoved(1L, 2L);
   }
 
   @Test
@@ -142,8 +185,8 @@ class AccGroupLinkServiceTest {
 
     service.unlinkAccWithGroup(1L, 2L);
 
-    assertFalse(group.getMembers().contains(link));
     verify(accGroupLinkRepository).delete(link);
+    verify(membershipService).linkRemoved(1L, 2L);
   }
 
   @Test
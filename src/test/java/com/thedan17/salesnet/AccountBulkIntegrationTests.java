@@ -0,0 +1,73 @@
+package com.thedan17.salesnet;
+
+import com.thedan17.salesnet.core.dao.AccountRepository;
+import com.thedan17.salesnet.core.object.data.BulkResultDetailed;
+import com.thedan17.salesnet.core.object.data.BulkResultShort;
+import com.thedan17.salesnet.core.object.dto.AccountSignupDto;
+import com.thedan17.salesnet.core.object.entity.Account;
+import com.thedan17.salesnet.core.service.AccountBulkService;
+import com.thedan17.salesnet.util.BulkImportReader;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AccountBulkIntegrationTests {
+  private static final String LOGIN_PREFIX = "bulk-it-";
+  @Autowired private AccountBulkService accountBulkService;
+  @Autowired private AccountRepository accountRepository;
+  @Autowired private BulkImportReader bulkImportReader;
+
+  @AfterEach
+  void cleanup() {
+    accountRepository.deleteAll(
+        accountRepository.findAll().stream()
+            .filter(account -> account.getLogin().startsWith(LOGIN_PREFIX))
+            .toList());
+  }
+
+  @Test
+  void shouldInsertValidAccountsAndRejectTakenLogins() {
+    List<AccountSignupDto> dtos = new ArrayList<>();
+    for (int i = 0; i < 2500; i++) {
+      dtos.add(new AccountSignupDto(
+          LOGIN_PREFIX + i, "user" + i + "@mail.com", "Valid_Pass7", "Name", "", "OOO"));
+    }
+    BulkResultDetailed first = accountBulkService.addAccountsBulk(dtos);
+    BulkResultDetailed second = accountBulkService.addAccountsBulk(dtos.subList(0, 10));
+
+    assertEquals(2500, first.getSuccessAmount());
+    assertEquals(10, second.getFailureAmount());
+    Account saved = accountRepository.findAll().stream()
+        .filter(account -> account.getLogin().equals(LOGIN_PREFIX + 42))
+        .findFirst()
+        .orElseThrow();
+    assertNotNull(saved.getPasswordHash());
+    assertNotNull(saved.getCreatedAt());
+  }
+
+  @Test
+  void shouldImportCsvStream() throws Exception {
+    String csv = "login,email,password,firstName,secondName,type\n"
+        + LOGIN_PREFIX + "csv1,csv1@mail.com,Valid_Pass7,Name,,OOO\n"
+        + LOGIN_PREFIX + "csv2,csv2@mail.com,Valid_Pass7,Name,,OOO\n";
+    List<BulkResultDetailed.ElementResult> results = new ArrayList<>();
+    try (var items = bulkImportReader.read(
+        new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+        BulkImportReader.CSV,
+        AccountSignupDto.class)) {
+      BulkResultShort total = accountBulkService.addAccountsStream(items, results::addAll);
+      assertEquals(2, total.getSuccessElements());
+    }
+    assertEquals(2, results.size());
+  }
+}
@@ -3,53 +3,59 @@ package com.thedan17.salesnet;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
-import com.thedan17.salesnet.core.dao.AccountRepository;
+import com.thedan17.salesnet.core.dao.AccountBatchRepository;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.thedan17.salesnet.core.object.data.BulkResultDetailed;
+import com.thedan17.salesnet.core.object.data.BulkResultShort;
 import com.thedan17.salesnet.core.object.dto.AccountSignupDto;
 import com.thedan17.salesnet.core.object.entity.Account;
 import com.thedan17.salesnet.core.service.AccountBulkService;
 import com.thedan17.salesnet.util.EntityMapper;
+import com.thedan17.salesnet.util.PasswordHasher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Collections;
+import java.util.Set;
 
 public class AccountBulkServiceTest {
 
-  AccountRepository accountRepository;
+  AccountBatchRepository accountBatchRepository;
   EntityMapper entityMapper;
   AccountBulkService service;
 
   @BeforeEach
   void setup() {
-    accountRepository = mock(AccountRepository.class);
+    accountBatchRepository = mock(AccountBatchRepository.class);
     entityMapper = mock(EntityMapper.class);
-    service = new AccountBulkService(accountRepository, entityMapper);
+    when(entityMapper.loginDtoToAccount(any())).thenAnswer(inv -> {
+      AccountSignupDto dto = inv.getArgument(0);
+      Account account = new Account();
+      account.setLogin(dto.getLogin());
+      return account;
+    });
+    service = new AccountBulkService(
+            accountBatchRepository, entityMapper, new PasswordHasher(1000, 1, 16),
+            mock(PlatformTransactionManager.class), 2);
   }
 
-  void testAddAccountsBulk_AllValid_SavesAccounts() {
-    AccountSignupDto dto = mock(AccountSignupDto.class);
-    Account account = new Account();
-    when(entityMapper.loginDtoToAccount(dto)).thenReturn(account);
-    when(dto.getPassword()).thenReturn("password123");
-    // Валидация срабатывает, считаем, что валидна
-    // Тут нет моков для валидатора, оставим его как есть, тк он статический
+  private static AccountSignupDto validDto(String login) {
+    return new AccountSignupDto(login, login + "@mail.com", "Valid_Pass7", "Name", "", "OOO");
+  }
 
-    List<AccountSignupDto> dtos = List.of(dto);
+  @Test
+  void testAddAccountsBulk_AllValid_SavesAccountsInBatches() {
+    List<AccountSignupDto> dtos = List.of(validDto("a1"), validDto("a2"), validDto("a3"));
 
     var result = service.addAccountsBulk(dtos);
 
-    // Проверка, что результат содержит SUCCESS
-    assertEquals(1, result.getResults().size());
-    assertEquals(BulkResultDetailed.ElementStatus.SUCCESS, result.getResults().get(0).getStatus());
-
-    // Проверяем, что save был вызван с правильным аккаунтом
-    verify(accountRepository).save(account);
-    // Проверим, что пароль был захеширован (примерно)
-    assertNotNull(account.getPasswordHash());
-    assertNotEquals("password123", account.getPasswordHash());
+    assertEquals(3, result.getSuccessAmount());
+    verify(accountBatchRepository, times(2)).findExistingLogins(any());
+    verify(accountBatchRepository, times(2)).insertAll(any());
   }
 
   @Test
@@ -61,10 +67,6 @@ public class AccountBulkServiceTest {
     dto.setType("Physical");
     dto.setSecondName("");
 
-    // Мокируем entityMapper для этого dto
-    Account account = new Account();
-    when(entityMapper.loginDtoToAccount(dto)).thenReturn(account);
-
     List<AccountSignupDto> dtos = List.of(dto);
 
     var result = service.addAccountsBulk(dtos);
@@ -73,45 +75,110 @@ public class AccountBulkServiceTest {
     assertEquals(1, result.getResults().size());
     assertEquals(BulkResultDetailed.ElementStatus.FAILURE, result.getResults().get(0).getStatus());
 
-    // save НЕ должен вызываться
-    verify(accountRepository, never()).save(any());
+    // вставка НЕ должна вызываться
+    verify(accountBatchRepository, never()).insertAll(any());
   }
 
   @Test
-  void testAddAccountsBulk_SaveThrowsException_RecordsFailure() {
-    AccountSignupDto dto = new AccountSignupDto();
-    dto.setLogin("validLogin");
-    dto.setPassword("validPassword");
-    dto.setType("Physical");
-    dto.setSecondName("");
-
-    Account account = new Account();
-    when(entityMapper.loginDtoToAccount(dto)).thenReturn(account);
-
-    List<AccountSignupDto> dtos = List.of(dto);
-
-    doThrow(new RuntimeException("DB error")).when(accountRepository).save(account);
+  void testAddAccountsBulk_ExistingAndRepeatedLogins_RecordsFailures() {
+    when(accountBatchRepository.findExistingLogins(any())).thenReturn(Set.of("taken"));
+    List<AccountSignupDto> dtos = List.of(validDto("free"), validDto("free"), validDto("taken"));
 
     var result = service.addAccountsBulk(dtos);
 
-    // Должна быть 2 записи: 1 успешная + 1 ошибка сохранения
-    assertEquals(1, result.getResults().size());
+    assertEquals(1, result.getSuccessAmount());
+    assertEquals(List.of(BulkResultDetailed.ElementStatus.SUCCESS,
+                    BulkResultDetailed.ElementStatus.FAILURE,
+                    BulkResultDetailed.ElementStatus.FAILURE),
+            result.getResults().stream().map(BulkResultDetailed.ElementResult::getStatus).toList());
+    verify(accountBatchRepository).insertAll(argThat(accounts -> accounts.size() == 1));
+  }
 
-    var failure = result.getResults().stream()
-            .filter(r -> r.getStatus() == BulkResultDetailed.ElementStatus.FAILURE)
-            .findFirst()
-            .orElse(null);
+  @Test
+  void testAddAccountsBulk_ParallelPool_KeepsIndexOrderAndFirstLogin() {
+    AccountBulkService parallelService = new AccountBulkService(
+            accountBatchRepository, entityMapper, new PasswordHasher(1000, 1, 16),
+            mock(PlatformTransactionManager.class), 100, 4);
+    List<AccountSignupDto> dtos = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      // каждый десятый элемент повторяет логин предыдущего
+      dtos.add(i % 10 == 9 ? validDto("u" + (i - 1)) : validDto("u" + i));
+    }
+    List<String> inserted = Collections.synchronizedList(new ArrayList<>());
+    doAnswer(inv -> {
+      List<Account> accounts = inv.getArgument(0);
+      accounts.forEach(account -> inserted.add(account.getLogin()));
+      return null;
+    }).when(accountBatchRepository).insertAll(any());
+
+    var result = parallelService.addAccountsBulk(dtos);
+    parallelService.shutdown();
+
+    for (int i = 0; i < dtos.size(); i++) {
+      var element = result.getResults().get(i);
+      assertEquals(i, element.getIndex());
+      assertEquals(i % 10 == 9 ? BulkResultDetailed.ElementStatus.FAILURE
+              : BulkResultDetailed.ElementStatus.SUCCESS, element.getStatus());
+    }
+    assertEquals(900, inserted.size());
+    assertEquals("u0", inserted.get(0));
+    assertEquals("u998", inserted.get(inserted.size() - 1));
+  }
 
-    assertNotNull(failure);
-    assertFalse(failure.getErrors().stream()
-            .anyMatch(e -> e.getSource().equals("database_saving") &&
-                    e.getMessage().contains("DB error")));
+  @Test
+  void testAddAccountsBulk_SaveThrowsException_RecordsFailure() {
+    List<List<String>> inserted = new ArrayList<>();
+    doAnswer(inv -> {
+      List<Account> accounts = inv.getArgument(0);
+      if (accounts.stream().anyMatch(account -> account.getLogin().equals("broken"))) {
+        throw new RuntimeException("DB error. Details");
+      }
+      inserted.add(accounts.stream().map(Account::getLogin).toList());
+      return null;
+    }).when(accountBatchRepository).insertAll(any());
+
+    var result = service.addAccountsBulk(List.of(validDto("ok"), validDto("broken")));
+
+    assertEquals(List.of(List.of("ok")), inserted);
+    var failure = result.getResults().get(1);
+    assertEquals(BulkResultDetailed.ElementStatus.FAILURE, failure.getStatus());
+    assertTrue(failure.getErrors().stream()
+            .anyMatch(e -> e.getSource().equals("database_saving")
+                    && e.getMessage().contains("DB error")));
+    assertEquals(BulkResultDetailed.ElementStatus.SUCCESS, result.getResults().get(0).getStatus());
   }
 
   @Test
   void testAddAccountsBulk_EmptyList_ReturnsEmptyResult() {
     var result = service.addAccountsBulk(Collections.emptyList());
     assertTrue(result.getResults().isEmpty());
-    verifyNoInteractions(accountRepository);
+    verifyNoInteractions(accountBatchRepository);
+  }
+
+  @Test
+  void testAddAccountsStream_WritesResultsPerChunkAndSkipsBadElements() throws Exception {
+    String ndjson = String.join("\n",
+            "{\"login\":\"s1\",\"email\":\"s1@mail.com\",\"password\":\"Valid_Pass7\","
+                    + "\"firstName\":\"N\",\"secondName\":\"\",\"type\":\"OOO\"}",
+            "{\"login\":[1,2]}",
+            "{\"login\":\"s2\",\"email\":\"s2@mail.com\",\"password\":\"Valid_Pass7\","
+                    + "\"firstName\":\"N\",\"secondName\":\"\",\"type\":\"OOO\"}",
+            "{\"login\":\"s3\",\"email\":\"bad\",\"password\":\"Valid_Pass7\","
+                    + "\"firstName\":\"N\",\"secondName\":\"\",\"type\":\"OOO\"}");
+    MappingIterator<AccountSignupDto> items = new ObjectMapper()
+            .readerFor(AccountSignupDto.class)
+            .readValues(ndjson);
+    List<List<BulkResultDetailed.ElementResult>> chunks = new ArrayList<>();
+
+    BulkResultShort total = service.addAccountsStream(items, chunks::add);
+
+    List<Long> indexes = chunks.stream()
+            .flatMap(List::stream)
+            .map(BulkResultDetailed.ElementResult::getIndex)
+            .toList();
+    assertEquals(List.of(0L, 1L, 2L, 3L), indexes);
+    assertEquals("parsing", chunks.get(1).get(0).getErrors().get(0).getSource());
+    assertEquals(2, total.getSuccessElements());
+    assertEquals(2, total.getFailureElements());
   }
 }
@@ -2,6 +2,7 @@ package com.thedan17.salesnet;
 
 import com.thedan17.salesnet.core.dao.AccGroupLinkRepository;
 import com.thedan17.salesnet.core.dao.AccountRepository;
+import com.thedan17.salesnet.core.dao.GroupRepository;
 import com.thedan17.salesnet.core.object.dto.AccountInfoDto;
 import com.thedan17.salesnet.core.object.dto.AccountSignupDto;
 import com.thedan17.salesnet.core.object.dto.AccountUpdateDto;
@@ -10,9 +11,11 @@ import com.thedan17.salesnet.core.object.entity.AccGroupLink;
 import com.thedan17.salesnet.core.object.entity.Account;
 import com.thedan17.salesnet.core.object.entity.Group;
 import com.thedan17.salesnet.core.service.AccountService;
+import com.thedan17.salesnet.core.service.MembershipService;
 import com.thedan17.salesnet.exception.ContentNotFoundException;
 import com.thedan17.salesnet.exception.SuchElementExistException;
 import com.thedan17.salesnet.util.EntityMapper;
+import com.thedan17.salesnet.util.PasswordHasher;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
@@ -47,6 +50,12 @@ class AccountServiceTest {
   private EntityMapper entityMapper;
   @Mock
   private AccGroupLinkRepository accGroupLinkRepository;
+  @Mock
+  private PasswordHasher passwordHasher;
+  @Mock
+  private GroupRepository groupRepository;
+  @Mock
+  private MembershipService membershipService;
   @InjectMocks
   private AccountService accountService;
 
@@ -134,6 +143,24 @@ class AccountServiceTest {
     assertThat(result2).isEmpty();
   }
 
+  @Test
+  void getAccountGroups_shouldUseMembershipIndex_whenReady() {
+    Account account = new Account();
+    Group group1 = new Group("groupname1", ""), group2 = new Group("groupname2", "");
+    group1.setId(4L);
+    group2.setId(7L);
+    GroupIdDto dto1 = new GroupIdDto(), dto2 = new GroupIdDto();
+
+    when(accountRepository.findById(32L)).thenReturn(Optional.of(account));
+    when(membershipService.getGroupIds(32L)).thenReturn(Optional.of(new long[] {4L, 7L}));
+    when(groupRepository.findAllById(List.of(4L, 7L))).thenReturn(List.of(group2, group1));
+    when(entityMapper.groupToIdDto(group1)).thenReturn(dto1);
+    when(entityMapper.groupToIdDto(group2)).thenReturn(dto2);
+
+    assertEquals(List.of(dto1, dto2), accountService.getAccountGroups(32L).orElseThrow());
+    verify(accGroupLinkRepository, never()).findByAccount(any());
+  }
+
   @Test
   void searchAccounts_shouldReturnEmpty_whenAllParamsNull() {
     List<AccountInfoDto> result = accountService.searchAccounts(null, null, null);
@@ -195,6 +222,7 @@ class AccountServiceTest {
     verify(accGroupLinkRepository, times(links.size())).delete(any());
     verify(accountRepository, times(2)).findById(id); // дважды вызывается
     verify(accountRepository, times(1)).deleteById(id);
+    verify(membershipService).accountRemoved(id);
 
     assertTrue(result);
   }
@@ -0,0 +1,119 @@
+package com.thedan17.salesnet;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.thedan17.salesnet.core.object.data.LoggingStatistics;
+import com.thedan17.salesnet.util.AsyncBatchingAppender;
+import com.thedan17.salesnet.util.LogOverflowPolicy;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncBatchingAppenderTests {
+  private final LoggerContext context = new LoggerContext();
+
+  AsyncBatchingAppenderTests() {
+    context.setMDCAdapter(new LogbackMDCAdapter());
+  }
+
+  private OutputStreamAppender<ILoggingEvent> target(OutputStream stream) {
+    PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+    encoder.setContext(context);
+    encoder.setPattern("%level %msg%n");
+    encoder.start();
+    OutputStreamAppender<ILoggingEvent> target = new OutputStreamAppender<>();
+    target.setContext(context);
+    target.setEncoder(encoder);
+    target.setImmediateFlush(false);
+    target.setOutputStream(stream);
+    target.start();
+    return target;
+  }
+
+  private AsyncBatchingAppender appender(
+      OutputStream stream, int capacity, LogOverflowPolicy policy) {
+    AsyncBatchingAppender appender = new AsyncBatchingAppender(capacity, policy);
+    appender.setContext(context);
+    appender.addTarget(target(stream));
+    appender.start();
+    return appender;
+  }
+
+  private ILoggingEvent event(Level level, String message) {
+    return new LoggingEvent(
+        AsyncBatchingAppenderTests.class.getName(),
+        context.getLogger("test"),
+        level,
+        message,
+        null,
+        null);
+  }
+
+  @Test
+  void blockPolicy_shouldWriteEveryEventFromAllThreads() throws InterruptedException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    AsyncBatchingAppender appender = appender(output, 64, LogOverflowPolicy.BLOCK);
+    Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      int thread = i;
+      threads[i] = new Thread(() -> {
+        for (int j = 0; j < 5_000; j++) {
+          appender.doAppend(event(Level.DEBUG, thread + "-" + j));
+        }
+      });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    appender.stop();
+
+    LoggingStatistics statistics = appender.getStatistics();
+    assertEquals(20_000L, statistics.getWrittenCount());
+    assertEquals(0L, statistics.getDroppedCount());
+    assertEquals(20_000, output.toString(StandardCharsets.UTF_8).lines().count());
+  }
+
+  @Test
+  void dropPolicy_shouldDropDebugBeforeErrors() throws InterruptedException {
+    CountDownLatch release = new CountDownLatch(1);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    OutputStream blockingStream = new OutputStream() {
+      @Override
+      public void write(int b) {
+        output.write(b);
+      }
+
+      @Override
+      public void write(byte[] bytes, int offset, int length) {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        output.write(bytes, offset, length);
+      }
+    };
+    AsyncBatchingAppender appender = appender(blockingStream, 16, LogOverflowPolicy.DROP_LOW_LEVELS);
+    for (int i = 0; i < 20; i++) {
+      appender.doAppend(event(Level.DEBUG, "debug-" + i));
+    }
+    appender.doAppend(event(Level.ERROR, "important"));
+    release.countDown();
+    appender.stop();
+
+    LoggingStatistics statistics = appender.getStatistics();
+    assertTrue(statistics.getDroppedCount() >= 7);
+    assertEquals(21L, statistics.getWrittenCount() + statistics.getDroppedCount());
+    assertTrue(output.toString(StandardCharsets.UTF_8).contains("ERROR important"));
+  }
+}
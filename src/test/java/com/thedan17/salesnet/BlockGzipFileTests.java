@@ -0,0 +1,71 @@
+package com.thedan17.salesnet;
+
+import com.thedan17.salesnet.util.BlockGzipFile;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockGzipFileTests {
+  @TempDir Path dir;
+  private Path source;
+  private Path compressed;
+  private byte[] content;
+
+  @BeforeEach
+  void setup() throws IOException {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 40_000; i++) {
+      text.append("line ").append(i).append(" of the test log\n");
+    }
+    content = text.toString().getBytes(StandardCharsets.UTF_8);
+    source = dir.resolve("log-2024-05-01.log");
+    compressed = dir.resolve("log-2024-05-01.log.gz");
+    Files.write(source, content);
+    BlockGzipFile.compress(source, compressed);
+  }
+
+  @Test
+  void compress_shouldStayReadableAsPlainGzip() throws IOException {
+    try (InputStream in = new GZIPInputStream(Files.newInputStream(compressed))) {
+      assertArrayEquals(content, in.readAllBytes());
+    }
+    assertTrue(Files.size(compressed) < content.length / 4);
+  }
+
+  @Test
+  void openAt_shouldReadFromAnyOffset() throws IOException {
+    BlockGzipFile archive = BlockGzipFile.open(compressed);
+    assertEquals(content.length, archive.plainSize());
+    long[] starts = archive.blockStarts();
+    assertTrue(starts.length > 1);
+    for (long start : starts) {
+      assertTrue(start == 0 || content[(int) start - 1] == '\n'); // блоки начинаются со строки
+    }
+
+    int offset = content.length - 12_345;
+    try (InputStream in = archive.openAt(offset)) {
+      byte[] tail = in.readAllBytes();
+      assertEquals(12_345, tail.length);
+      assertEquals(content[offset], tail[0]);
+      assertEquals(content[content.length - 1], tail[tail.length - 1]);
+    }
+  }
+
+  @Test
+  void open_withoutTable_shouldTreatFileAsOneBlock() throws IOException {
+    Files.delete(BlockGzipFile.tableOf(compressed));
+    BlockGzipFile archive = BlockGzipFile.open(compressed);
+    assertEquals(content.length, archive.plainSize());
+    try (InputStream in = archive.openAt(100)) {
+      assertEquals(content.length - 100, in.readAllBytes().length);
+    }
+  }
+}
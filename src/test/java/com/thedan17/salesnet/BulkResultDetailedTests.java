@@ -173,4 +173,39 @@ public class BulkResultDetailedTests {
             original.getResults().get(3).getErrors().size() + addErrorList.size(),
             modified.getResults().get(3).getErrors().size());
   }
+
+  @Test
+  void shouldMoveCountersWhenSuccessBecomesFailure() {
+    BulkResultDetailed result = createHavingDataObject();
+    result.addResult(1, "item", item -> createAdditionalElementVErrors());
+    assertEquals(4, result.getTotalAmount());
+    assertEquals(1, result.getSuccessAmount());
+    assertEquals(3, result.getFailureAmount());
+  }
+
+  @Test
+  void shouldMergeConcurrentWorkersInAnyOrder() throws Exception {
+    BulkResultDetailed merged = new BulkResultDetailed(1000);
+    List<Thread> workers = new ArrayList<>();
+    for (int w = 0; w < 4; w++) {
+      int worker = w;
+      workers.add(new Thread(() -> {
+        BulkResultDetailed part = new BulkResultDetailed();
+        for (long i = worker; i < 1000; i += 4) {
+          part.addResult(i % 2 == 0 ? createSuccessElementResult(i) : createFailureElementResult(i));
+        }
+        merged.merge(part);
+      }));
+    }
+    for (Thread worker : workers) {
+      worker.start();
+    }
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    assertEquals(1000, merged.getTotalAmount());
+    assertEquals(500, merged.getSuccessAmount());
+    assertEquals(500, merged.getFailureAmount());
+    assertEquals(1000, merged.getResults().size());
+  }
 }
@@ -1,6 +1,22 @@
 package com.thedan17.salesnet;
 
+import com.thedan17.salesnet.core.object.data.CacheStatistics;
+import com.thedan17.salesnet.util.CacheEvictionPolicy;
 import com.thedan17.salesnet.util.CacheIdManager;
+import com.thedan17.salesnet.util.OrderedEvictionPolicy;
+import com.thedan17.salesnet.util.SubstringKeyIndex;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
@@ -49,5 +65,270 @@ public class CacheIdManagerTests {
     );
   }
 
+  /** Сущность для нагрузочных тестов: id и изменяемое имя. */
+  record Item(Long id, String name) {}
 
+  private CacheIdManager<String, Item, Long> createItemCache(
+      long size, AtomicInteger actionCalls) {
+    CacheIdManager<String, Item, Long> manager =
+        new CacheIdManager<>(Item::id, size, (short) 10);
+    manager.setFunctionality(
+        key -> {
+          actionCalls.incrementAndGet();
+          Set<Item> result = new HashSet<>();
+          for (long i = 0; i < 20; i++) {
+            String name = "item" + i;
+            if (name.contains(key)) {
+              result.add(new Item(i, name));
+            }
+          }
+          return result;
+        },
+        (key, item) -> item.name().contains(key));
+    return manager;
+  }
+
+  @Test
+  void shouldKeepInvariantsUnderConcurrentAccess() throws Exception {
+    AtomicInteger actionCalls = new AtomicInteger();
+    CacheIdManager<String, Item, Long> manager = createItemCache(50L, actionCalls);
+    int threads = 16;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      futures.add(executor.submit(() -> {
+        start.await();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < 5_000; i++) {
+          int op = random.nextInt(10);
+          long id = random.nextLong(20);
+          if (op == 0) {
+            manager.hardUpdateCache(
+                new Item(id, "item" + id), CacheIdManager.UpdateReason.ENTITY_EDITED);
+          } else {
+            // результат поиска не должен пропадать, пока другие потоки вытесняют ключи
+            String key = "item" + random.nextInt(100);
+            Set<Long> actual = new HashSet<>();
+            manager.doAction(key).forEach(item -> actual.add(item.id()));
+            assertEquals(expectedItemIds(key), actual, "Search diverged for key " + key);
+          }
+        }
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(60, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    assertTrue(manager.size() <= 50);
+    for (int k = 0; k < 100; k++) {
+      String key = "item" + k;
+      Optional<Set<Item>> cached = manager.getCachedAction(key);
+      if (cached.isPresent()) {
+        Set<Long> actual = new HashSet<>();
+        cached.get().forEach(item -> actual.add(item.id()));
+        assertEquals(expectedItemIds(key), actual, "Cached result diverged for key " + key);
+      }
+    }
+  }
+
+  private static Set<Long> expectedItemIds(String key) {
+    Set<Long> expected = new HashSet<>();
+    for (long i = 0; i < 20; i++) {
+      if (("item" + i).contains(key)) {
+        expected.add(i);
+      }
+    }
+    return expected;
+  }
+
+  @Test
+  void shouldServeHitsWithoutCallingAction() {
+    AtomicInteger actionCalls = new AtomicInteger();
+    CacheIdManager<String, Item, Long> manager = createItemCache(10L, actionCalls);
+    manager.doAction("item1");
+    manager.doAction("item1");
+    assertEquals(1, actionCalls.get());
+    assertEquals(11, manager.doAction("item1").size()); // item1, item10..item19
+  }
+
+  private CacheIdManager<Integer, Integer, Integer> createIntCache(
+      long size, CacheEvictionPolicy.Type type) {
+    CacheIdManager<Integer, Integer, Integer> manager =
+        new CacheIdManager<>(obj -> obj, size, (short) 10, type);
+    manager.setFunctionality(Set::of, (key, obj) -> key.equals(obj));
+    return manager;
+  }
+
+  @Test
+  void shouldTrimOnlyClearPercentageOnOverflow() {
+    CacheIdManager<Integer, Integer, Integer> manager =
+        createIntCache(100L, CacheEvictionPolicy.Type.FIFO);
+    for (int i = 0; i < 100; i++) {
+      manager.doAction(i);
+    }
+    manager.doAction(100);
+    assertEquals(91, manager.size());
+    assertTrue(manager.getCachedAction(0).isEmpty());
+    assertTrue(manager.getCachedAction(10).isPresent());
+    assertEquals(10L, manager.getStatistics().getEvictionCount());
+  }
+
+  @Test
+  void shouldEvictUntrackedKeysWhenPolicyHasNoVictim() {
+    CacheIdManager<Integer, Integer, Integer> manager =
+        new CacheIdManager<>(
+            obj -> obj,
+            100L,
+            (short) 10,
+            new OrderedEvictionPolicy<Integer>(false) {
+              @Override
+              public void recordInsert(Integer key) {
+                // ключи кэша не учитываются политикой, как после гонки с очисткой
+              }
+            });
+    manager.setFunctionality(Set::of, (key, obj) -> key.equals(obj));
+    for (int i = 0; i <= 100; i++) {
+      manager.doAction(i);
+    }
+    assertEquals(91, manager.size());
+    assertEquals(10L, manager.getStatistics().getEvictionCount());
+  }
+
+  @Test
+  void shouldKeepUntrackedKeysOutWhenClearingConcurrently() throws Exception {
+    CacheIdManager<Integer, Integer, Integer> manager =
+        createIntCache(50L, CacheEvictionPolicy.Type.LRU);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < 3; t++) {
+      futures.add(
+          executor.submit(
+              () -> {
+                for (int i = 0; i < 20_000; i++) {
+                  manager.doAction(ThreadLocalRandom.current().nextInt(200));
+                }
+              }));
+    }
+    futures.add(
+        executor.submit(
+            () -> {
+              for (int i = 0; i < 2_000; i++) {
+                manager.clearAllCache();
+              }
+            }));
+    for (Future<?> future : futures) {
+      future.get(60, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+    assertTrue(manager.size() <= 50);
+  }
+
+  @Test
+  void shouldKeepRecentlyUsedKeysWithLru() {
+    CacheIdManager<Integer, Integer, Integer> manager =
+        createIntCache(10L, CacheEvictionPolicy.Type.LRU);
+    for (int i = 0; i < 10; i++) {
+      manager.doAction(i);
+    }
+    manager.doAction(0); // ключ 0 становится самым свежим
+    manager.doAction(10);
+    assertTrue(manager.getCachedAction(0).isPresent());
+    assertTrue(manager.getCachedAction(1).isEmpty());
+  }
+
+  @Test
+  void shouldRejectOneOffKeysWithTinyLfu() {
+    CacheIdManager<Integer, Integer, Integer> manager =
+        createIntCache(10L, CacheEvictionPolicy.Type.TINY_LFU);
+    for (int round = 0; round < 5; round++) {
+      for (int i = 0; i < 10; i++) {
+        manager.doAction(i);
+      }
+    }
+    for (int i = 1000; i < 1050; i++) {
+      manager.doAction(i);
+    }
+    for (int i = 0; i < 10; i++) {
+      assertTrue(manager.getCachedAction(i).isPresent());
+    }
+    CacheStatistics statistics = manager.getStatistics();
+    assertEquals(50L, statistics.getRejectedCount());
+    assertEquals(0L, statistics.getEvictionCount());
+  }
+
+  @Test
+  void shouldCountHitsAndMisses() {
+    CacheIdManager<Integer, Integer, Integer> manager =
+        createIntCache(10L, CacheEvictionPolicy.Type.LRU);
+    manager.doAction(1);
+    manager.doAction(1);
+    manager.doAction(1);
+    manager.doAction(2);
+    CacheStatistics statistics = manager.getStatistics();
+    assertEquals(2L, statistics.getHitCount());
+    assertEquals(2L, statistics.getMissCount());
+    assertEquals(0.5, statistics.getHitRate());
+    assertEquals("OrderedEvictionPolicy", statistics.getEvictionPolicy());
+  }
+
+  @Test
+  void shouldCheckOnlyIndexedCandidatesOnUpdate() {
+    CacheIdManager<String, Item, Long> manager =
+        new CacheIdManager<>(Item::id, 100L, (short) 10);
+    AtomicInteger pairChecks = new AtomicInteger();
+    manager.setFunctionality(
+        key -> new HashSet<>(),
+        (key, item) -> {
+          pairChecks.incrementAndGet();
+          return item.name().toLowerCase().contains(key);
+        });
+    manager.setInvalidationIndex(key -> key, Item::name);
+    for (int i = 0; i < 50; i++) {
+      manager.doAction("key" + i);
+    }
+    manager.doAction("sal");
+    manager.doAction("ales");
+    manager.doAction("ab");
+
+    manager.updateCache(
+        new Item(1L, "Big Sales"), CacheIdManager.UpdateReason.ENTITY_ADDED, true);
+
+    assertTrue(pairChecks.get() <= 3);
+    assertEquals(1, manager.getCachedAction("sal").orElseThrow().size());
+    assertEquals(1, manager.getCachedAction("ales").orElseThrow().size());
+    assertTrue(manager.getCachedAction("ab").orElseThrow().isEmpty());
+    assertTrue(manager.getCachedAction("key1").orElseThrow().isEmpty());
+  }
+
+  @Test
+  void shouldNotLoseKeysSharingGramUnderConcurrentAddAndRemove() throws Exception {
+    SubstringKeyIndex<String> index = new SubstringKeyIndex<>(key -> key);
+    int threads = 4;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      String prefix = "sal" + t + "-";
+      futures.add(executor.submit(() -> {
+        start.await();
+        for (int i = 0; i < 50_000; i++) {
+          String key = prefix + i;
+          index.add(key);
+          assertTrue(index.candidatesFor("Big Sales " + key).contains(key), "Lost key " + key);
+          index.remove(key);
+        }
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(60, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+    assertTrue(index.candidatesFor("sales").isEmpty());
+  }
 }
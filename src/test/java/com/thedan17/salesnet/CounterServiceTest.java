@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.data.util.Pair;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -26,33 +27,56 @@ class CounterServiceTest {
 
   @Test
   void getAllUrlCounters_shouldReturnCorrectMap() {
-    Map<String, Integer> mockMap = Map.of("google.com", 10, "openai.com", 5);
+    Map<String, Long> mockMap = Map.of("google.com", 10L, "openai.com", 5L);
     when(urlCounterMock.getAllCounts()).thenReturn(mockMap);
 
-    Map<String, Integer> result = counterService.getAllUrlCounters();
+    Map<String, Long> result = counterService.getAllUrlCounters();
     assertEquals(mockMap, result);
     verify(urlCounterMock, times(1)).getAllCounts();
   }
 
   @Test
   void getCurrentUrlCounter_shouldReturnPair_whenCounterExists() {
-    when(urlCounterMock.getCount("openai.com")).thenReturn(42);
+    when(urlCounterMock.getCount("openai.com")).thenReturn(42L);
 
-    Optional<Pair<String, Integer>> result =
+    Optional<Pair<String, Long>> result =
         counterService.getCurrentUrlCounter("openai.com");
 
     assertTrue(result.isPresent());
     assertEquals("openai.com", result.get().getFirst());
-    assertEquals(42, result.get().getSecond());
+    assertEquals(42L, result.get().getSecond());
     verify(urlCounterMock).getCount("openai.com");
   }
 
   @Test
   void getCurrentUrlCounter_shouldReturnEmpty_whenCounterMissing() {
-    when(urlCounterMock.getCount("unknown.com")).thenReturn(-1);
+    when(urlCounterMock.getCount("unknown.com")).thenReturn(-1L);
 
-    Optional<Pair<String, Integer>> result = counterService.getCurrentUrlCounter("unknown.com");
+    Optional<Pair<String, Long>> result = counterService.getCurrentUrlCounter("unknown.com");
 
     assertTrue(result.isEmpty());
   }
+
+  @Test
+  void urlCounter_shouldCountConcurrentIncrements() throws InterruptedException {
+    UrlCounter urlCounter = new UrlCounter();
+    urlCounter.registerAll(List.of("/api/a", "/api/b"));
+    Thread[] threads = new Thread[8];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(() -> {
+        for (int j = 0; j < 10_000; j++) {
+          urlCounter.increment("/api/a");
+        }
+      });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(80_000L, urlCounter.getCount("/api/a"));
+    assertEquals(0L, urlCounter.getCount("/api/b"));
+    assertEquals(-1L, urlCounter.getCount("/api/c"));
+    assertEquals(Map.of("/api/a", 80_000L), urlCounter.getAllCounts());
+  }
 }
@@ -5,18 +5,20 @@ import com.thedan17.salesnet.core.service.DebugTaskService;
 import com.thedan17.salesnet.exception.ContentNotFoundException;
 import com.thedan17.salesnet.exception.RequestIgnoreNeededException;
 import com.thedan17.salesnet.util.AppLoggerCore;
+import com.thedan17.salesnet.util.TaskEngine;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.lang.reflect.Method;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.Instant;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -30,33 +32,14 @@ class DebugTaskServiceTest {
 
   @BeforeEach
   void setUp() {
-    debugTaskService = spy(new DebugTaskService());
+    TaskEngine<LocalDate, Path> engine =
+        new TaskEngine<>("test-task", 1, 4, Duration.ofSeconds(10), Duration.ofMinutes(5));
+    debugTaskService = spy(new DebugTaskService(engine, Duration.ZERO, Duration.ofMinutes(1)));
   }
 
-  @Test
-  void cleanupOldTasks_shouldNotRemoveCompletedButRecent() {
-    AsyncTaskInfo<LocalDate, Path> recent = new AsyncTaskInfo<>(7, LocalDate.now());
-    recent.setStatus(AsyncTaskInfo.Status.DONE);
-    recent.setCompletedAt(Instant.now()); // новое
-
-    debugTaskService.tasks.put(7, recent);
-
-    debugTaskService.cleanupOldTasks();
-
-    assertTrue(debugTaskService.tasks.containsKey(7)); // НЕ удалён
-  }
-
-  @Test
-  void cleanupOldTasks_shouldNotRemoveNotYetCompletedEvenIfOld() {
-    AsyncTaskInfo<LocalDate, Path> pending = new AsyncTaskInfo<>(8, LocalDate.now());
-    pending.setStatus(AsyncTaskInfo.Status.RUNNING); // или PENDING
-    pending.setCompletedAt(Instant.now().minusSeconds(600)); // старый
-
-    debugTaskService.tasks.put(8, pending);
-
-    debugTaskService.cleanupOldTasks();
-
-    assertTrue(debugTaskService.tasks.containsKey(8)); // НЕ удалён
+  @AfterEach
+  void tearDown() {
+    debugTaskService.shutdown();
   }
 
   // 1) getLogByDate(LocalDate)
@@ -95,21 +78,48 @@ class DebugTaskServiceTest {
 
   // 3) getLogNewTask(LocalDate)
   @Test
-  void getLogNewTask_shouldRegisterAndRunTask() {
-    LocalDate date = LocalDate.now();
-    // подменяем асинхронность:
-    try (MockedStatic<CompletableFuture> cf = mockStatic(CompletableFuture.class)) {
-      cf.when(() -> CompletableFuture.runAsync(any(Runnable.class)))
-              .thenAnswer(inv -> { ((Runnable)inv.getArgument(0)).run(); return null; });
-
-      Integer id = debugTaskService.getLogNewTask(date);
-      AsyncTaskInfo<LocalDate, Path> info = debugTaskService.getTaskInfo(id);
-
-      assertEquals(id, info.getId());
-      assertEquals(date, info.getParams());
-      // статус либо RUNNING→DONE/FAILED, но минимум не NEW:
-      assertNotEquals(AsyncTaskInfo.Status.PENDING, info.getStatus());
+  void getLogNewTask_shouldRegisterAndRunTask() throws Exception {
+    LocalDate date = LocalDate.of(1999, 1, 1);
+    Integer id = debugTaskService.getLogNewTask(date);
+    AsyncTaskInfo<LocalDate, Path> info = debugTaskService.getTaskInfo(id);
+
+    assertEquals(id, info.getId());
+    assertEquals(date, info.getParams());
+    for (int i = 0; i < 100 && !info.isFinished(); i++) {
+      Thread.sleep(20);
     }
+    // файла лога за эту дату нет
+    assertEquals(AsyncTaskInfo.Status.FAILED, info.getStatus());
+    assertNull(debugTaskService.getLogFile(id));
+    assertNotNull(info.getMinutesUntilDeletion());
+  }
+
+  @Test
+  void cancelTask_shouldKeepFinishedTaskUnchanged() throws Exception {
+    Integer id = debugTaskService.getLogNewTask(LocalDate.of(1999, 1, 1));
+    AsyncTaskInfo<LocalDate, Path> info = debugTaskService.getTaskInfo(id);
+    for (int i = 0; i < 100 && !info.isFinished(); i++) {
+      Thread.sleep(20);
+    }
+    assertEquals(AsyncTaskInfo.Status.FAILED, debugTaskService.cancelTask(id).getStatus());
+    assertThrows(ContentNotFoundException.class, () -> debugTaskService.cancelTask(999));
+  }
+
+  @Test
+  void awaitStatusChange_shouldCompleteWhenTaskFinishes() throws Exception {
+    Integer id = debugTaskService.getLogNewTask(LocalDate.of(1999, 1, 1));
+    DeferredResult<AsyncTaskInfo<LocalDate, Path>> result =
+        debugTaskService.awaitStatusChange(id, AsyncTaskInfo.Status.PENDING, Duration.ofSeconds(5));
+    for (int i = 0; i < 100 && !result.hasResult(); i++) {
+      Thread.sleep(20);
+    }
+    assertTrue(result.hasResult());
+    assertNotEquals(
+        AsyncTaskInfo.Status.PENDING,
+        ((AsyncTaskInfo<?, ?>) result.getResult()).getStatus());
+    assertThrows(
+        ContentNotFoundException.class,
+        () -> debugTaskService.awaitStatusChange(999, null, Duration.ofSeconds(1)));
   }
 
   // 4) getTaskInfo(Integer)
@@ -142,25 +152,4 @@ class DebugTaskServiceTest {
     info.setStatus(AsyncTaskInfo.Status.FAILED);
     assertEquals(p, debugTaskService.getLogFile(4));
   }
-
-  // 6) cleanupOldTasks() и лямбда
-  @Test
-  void cleanupOldTasks_shouldRemoveOldCompleted() {
-    // вставляем задачу старую
-    AsyncTaskInfo<LocalDate, Path> old = new AsyncTaskInfo<>(5, LocalDate.now());
-    old.setStatus(AsyncTaskInfo.Status.DONE);
-    old.setCompletedAt(Instant.now().minusSeconds(600)); // старше 5 мин
-    debugTaskService.tasks.put(5, old);
-
-    // и свежую
-    AsyncTaskInfo<LocalDate, Path> fresh = new AsyncTaskInfo<>(6, LocalDate.now());
-    fresh.setStatus(AsyncTaskInfo.Status.DONE);
-    fresh.setCompletedAt(Instant.now());
-    debugTaskService.tasks.put(6, fresh);
-
-    debugTaskService.cleanupOldTasks();
-
-    assertFalse(debugTaskService.tasks.containsKey(5));
-    assertTrue(debugTaskService.tasks.containsKey(6));
-  }
 }
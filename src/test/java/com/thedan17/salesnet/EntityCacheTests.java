@@ -0,0 +1,77 @@
+package com.thedan17.salesnet;
+
+import com.thedan17.salesnet.core.dao.GroupRepository;
+import com.thedan17.salesnet.core.dao.GroupSearchRepository;
+import com.thedan17.salesnet.core.object.data.EntityCacheStatistics;
+import com.thedan17.salesnet.core.object.entity.Group;
+import com.thedan17.salesnet.core.service.EntityCacheService;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class EntityCacheTests {
+  @Autowired private GroupRepository groupRepository;
+  @Autowired private GroupSearchRepository groupSearchRepository;
+  @Autowired private EntityCacheService entityCacheService;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+  @Autowired private PlatformTransactionManager transactionManager;
+  private final List<Long> savedIds = new ArrayList<>();
+
+  @AfterEach
+  void cleanup() {
+    groupRepository.deleteAllById(savedIds);
+    savedIds.clear();
+  }
+
+  private Group save(String name) {
+    Group group = groupRepository.save(new Group(name, ""));
+    savedIds.add(group.getId());
+    return group;
+  }
+
+  private int searchCount(String substring) {
+    return new TransactionTemplate(transactionManager)
+        .execute(status -> groupSearchRepository.findByNameSubstringJpql(substring).size());
+  }
+
+  @Test
+  void findById_shouldBeServedFromSecondLevelCache() {
+    Long id = save("entity-cache-find").getId();
+    entityManagerFactory.getCache().evictAll();
+    long hitsBefore = entityCacheService.getStatistics().get("group").getHitCount();
+
+    groupRepository.findById(id);
+    groupRepository.findById(id);
+
+    EntityCacheStatistics statistics = entityCacheService.getStatistics().get("group");
+    assertEquals(hitsBefore + 1, statistics.getHitCount());
+    assertTrue(entityManagerFactory.getCache().contains(Group.class, id));
+    assertEquals(20000L, statistics.getMaxSize());
+  }
+
+  @Test
+  void searchQuery_shouldBeCachedUntilGroupsChange() {
+    save("entity-cache-query one");
+    assertEquals(1, searchCount("entity-cache-query"));
+    long hitsBefore =
+        entityCacheService.getStatistics().get(EntityCacheService.QUERY_RESULTS).getHitCount();
+
+    assertEquals(1, searchCount("entity-cache-query"));
+    assertEquals(hitsBefore + 1,
+        entityCacheService.getStatistics().get(EntityCacheService.QUERY_RESULTS).getHitCount());
+
+    save("entity-cache-query two");
+    assertEquals(2, searchCount("entity-cache-query"));
+  }
+}
@@ -6,6 +6,10 @@ import com.thedan17.salesnet.core.object.dto.GroupIdDto;
 import com.thedan17.salesnet.core.object.entity.AccGroupLink;
 import com.thedan17.salesnet.core.object.entity.Group;
 import com.thedan17.salesnet.core.service.GroupSearchCacheService;
+import com.thedan17.salesnet.core.service.MembershipService;
+import com.thedan17.salesnet.core.object.data.MembershipRow;
+import com.thedan17.salesnet.core.object.data.GroupSearchStrategy;
+import com.thedan17.salesnet.util.CacheEvictionPolicy;
 import com.thedan17.salesnet.util.CacheIdManager;
 import com.thedan17.salesnet.util.EntityMapper;
 import java.util.Optional;
@@ -24,6 +28,8 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import org.mockito.*;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.util.Pair;
 
 import java.util.*;
@@ -48,6 +54,7 @@ class GroupSearchCacheServiceTest {
   GroupSearchRepository groupSearchRepository;
   AccGroupLinkRepository accGroupLinkRepository;
   EntityMapper entityMapper;
+  MembershipService membershipService;
 
   GroupSearchCacheService service;
 
@@ -56,8 +63,11 @@ class GroupSearchCacheServiceTest {
     groupSearchRepository = mock(GroupSearchRepository.class);
     accGroupLinkRepository = mock(AccGroupLinkRepository.class);
     entityMapper = mock(EntityMapper.class);
+    membershipService = new MembershipService(accGroupLinkRepository);
 
-    service = new GroupSearchCacheService(groupSearchRepository, accGroupLinkRepository, entityMapper);
+    service =
+        new GroupSearchCacheService(
+            groupSearchRepository, accGroupLinkRepository, entityMapper, membershipService);
   }
 
   @Test
@@ -130,4 +140,109 @@ class GroupSearchCacheServiceTest {
 
     // Без доступа к внутренним полям проверить сложно, но можно добавить package-private геттеры в сервис для тестов (если архитектура позволяет)
   }
+
+  @Test
+  void testUpdateExistingCache_loadsMembersOncePerUpdate() {
+    Group group = new Group();
+    group.setId(1L);
+    group.setName("Test Group");
+    when(groupSearchRepository.findByNameInAccJpql(anyString(), anyLong()))
+        .thenReturn(new HashSet<>());
+    when(accGroupLinkRepository.findAccountIdsByGroupId(1L)).thenReturn(List.of(10L));
+    when(entityMapper.groupToIdDto(any())).thenReturn(new GroupIdDto());
+    service.searchGroups("test", 10L);
+    service.searchGroups("group", 10L);
+    service.searchGroups("test", 20L);
+    service.searchGroups("other", 10L);
+
+    service.updateExistingCache(group, CacheIdManager.UpdateReason.ENTITY_ADDED);
+
+    verify(accGroupLinkRepository, times(1)).findAccountIdsByGroupId(1L);
+    verify(accGroupLinkRepository, never()).existsByAccountIdAndGroupId(anyLong(), anyLong());
+    assertEquals(1, service.searchGroups("test", 10L).orElseThrow().size());
+    assertEquals(1, service.searchGroups("group", 10L).orElseThrow().size());
+    assertTrue(service.searchGroups("test", 20L).orElseThrow().isEmpty());
+    assertTrue(service.searchGroups("other", 10L).orElseThrow().isEmpty());
+  }
+
+  @Test
+  void testUpdateExistingCache_usesMembershipIndexWhenReady() {
+    when(accGroupLinkRepository.findMembershipRowsAfter(eq(0L), any()))
+        .thenReturn(List.of(new MembershipRow(5L, 10L, 1L)));
+    membershipService.buildIndex();
+    Group group = new Group();
+    group.setId(1L);
+    group.setName("Test Group");
+    when(groupSearchRepository.findByNameInAccJpql(anyString(), anyLong()))
+        .thenReturn(new HashSet<>());
+    when(entityMapper.groupToIdDto(any())).thenReturn(new GroupIdDto());
+    service.searchGroups("test", 10L);
+    service.searchGroups("test", 20L);
+
+    service.updateExistingCache(group, CacheIdManager.UpdateReason.ENTITY_ADDED);
+
+    verify(accGroupLinkRepository, never()).findAccountIdsByGroupId(anyLong());
+    verify(accGroupLinkRepository, never()).existsByAccountIdAndGroupId(anyLong(), anyLong());
+    assertEquals(1, service.searchGroups("test", 10L).orElseThrow().size());
+    assertTrue(service.searchGroups("test", 20L).orElseThrow().isEmpty());
+  }
+
+  @Test
+  void testSearchGroups_usesConfiguredStrategy() {
+    GroupSearchCacheService trigramService =
+        new GroupSearchCacheService(
+            groupSearchRepository,
+            accGroupLinkRepository,
+            entityMapper,
+            membershipService,
+            CacheEvictionPolicy.Type.LRU,
+            CacheEvictionPolicy.Type.LRU,
+            GroupSearchStrategy.TRIGRAM_INDEX);
+    when(groupSearchRepository.findByNameSubstringTrigram("test")).thenReturn(new HashSet<>());
+    when(groupSearchRepository.findByNameInAccTrigram("test", 1L)).thenReturn(new HashSet<>());
+
+    trigramService.searchGroups("Test", null);
+    trigramService.searchGroups("Test", 1L);
+
+    verify(groupSearchRepository).findByNameSubstringTrigram("test");
+    verify(groupSearchRepository).findByNameInAccTrigram("test", 1L);
+    verify(groupSearchRepository, never()).findByNameSubstringJpql(anyString());
+    verify(groupSearchRepository, never()).findByNameInAccJpql(anyString(), anyLong());
+  }
+
+  @Test
+  void testSearchGroups_inMemoryIndexDoesNotQueryDatabase() {
+    GroupSearchCacheService indexService =
+        new GroupSearchCacheService(
+            groupSearchRepository,
+            accGroupLinkRepository,
+            entityMapper,
+            membershipService,
+            CacheEvictionPolicy.Type.LRU,
+            CacheEvictionPolicy.Type.LRU,
+            GroupSearchStrategy.IN_MEMORY_INDEX);
+    Group sales = new Group("Big Sales", "");
+    sales.setId(1L);
+    Group other = new Group("Other", "");
+    other.setId(2L);
+    when(groupSearchRepository.findAll(any(Pageable.class)))
+        .thenReturn(new PageImpl<>(List.of(sales, other)));
+    when(entityMapper.groupToIdDto(any()))
+        .thenAnswer(inv -> {
+          GroupIdDto dto = new GroupIdDto();
+          dto.setId(((Group) inv.getArgument(0)).getId());
+          return dto;
+        });
+    indexService.buildNameIndex();
+
+    assertEquals(1, indexService.searchGroups("SALES", null).orElseThrow().size());
+    Group renamed = new Group("Sales team", "");
+    renamed.setId(2L);
+    indexService.updateExistingCache(renamed, CacheIdManager.UpdateReason.ENTITY_EDITED);
+    indexService.updateExistingCache(sales, CacheIdManager.UpdateReason.ENTITY_DELETED);
+
+    assertEquals(1, indexService.searchGroups("sales", null).orElseThrow().size());
+    assertEquals(1, indexService.searchGroups("team", null).orElseThrow().size());
+    verify(groupSearchRepository, never()).findByNameSubstringJpql(anyString());
+  }
 }
@@ -10,6 +10,7 @@ import com.thedan17.salesnet.core.object.dto.GroupIdDto;
 import com.thedan17.salesnet.core.dao.GroupRepository;
 import com.thedan17.salesnet.core.service.GroupService;
 import com.thedan17.salesnet.core.service.GroupSearchCacheService;
+import com.thedan17.salesnet.core.service.MembershipService;
 import com.thedan17.salesnet.exception.SuchElementExistException;
 import com.thedan17.salesnet.util.CacheIdManager;
 import com.thedan17.salesnet.util.EntityMapper;
@@ -34,6 +35,7 @@ class GroupServiceTest {
   @Mock private GroupRepository groupDao;
   @Mock private EntityMapper entityMapper;
   @Mock private GroupSearchCacheService groupSearchCacheService;
+  @Mock private MembershipService membershipService;
 
   @InjectMocks private GroupService groupService;
 
@@ -80,6 +82,7 @@ class GroupServiceTest {
     assertTrue(result);
     verify(groupDao).deleteById(1L);
     verify(groupSearchCacheService).updateExistingCache(group, CacheIdManager.UpdateReason.ENTITY_DELETED);
+    verify(membershipService).groupRemoved(1L);
   }
 
   @Test
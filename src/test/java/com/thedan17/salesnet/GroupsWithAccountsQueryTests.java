@@ -0,0 +1,90 @@
+package com.thedan17.salesnet;
+
+import com.thedan17.salesnet.core.dao.AccGroupLinkRepository;
+import com.thedan17.salesnet.core.dao.AccountRepository;
+import com.thedan17.salesnet.core.dao.GroupRepository;
+import com.thedan17.salesnet.core.object.dto.GroupAccountsDto;
+import com.thedan17.salesnet.core.object.entity.AccGroupLink;
+import com.thedan17.salesnet.core.object.entity.Account;
+import com.thedan17.salesnet.core.object.entity.Group;
+import com.thedan17.salesnet.core.service.AccGroupLinkService;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class GroupsWithAccountsQueryTests {
+  @Autowired private AccGroupLinkService accGroupLinkService;
+  @Autowired private GroupRepository groupRepository;
+  @Autowired private AccountRepository accountRepository;
+  @Autowired private AccGroupLinkRepository accGroupLinkRepository;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+  private Statistics statistics;
+  private final List<Group> groups = new ArrayList<>();
+  private final List<Account> accounts = new ArrayList<>();
+  private final List<AccGroupLink> links = new ArrayList<>();
+
+  @BeforeEach
+  void setup() {
+    for (int g = 0; g < 4; g++) {
+      Group group = groupRepository.save(new Group("members-" + g, ""));
+      groups.add(group);
+      for (int a = 0; a < g; a++) {
+        Account account = new Account();
+        account.setLogin("member-" + g + "-" + a);
+        account.setFirstName("Member");
+        account = accountRepository.save(account);
+        accounts.add(account);
+        AccGroupLink link = new AccGroupLink();
+        link.setGroup(group);
+        link.setAccount(account);
+        links.add(accGroupLinkRepository.save(link));
+      }
+    }
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @AfterEach
+  void cleanup() {
+    accGroupLinkRepository.deleteAll(links);
+    groupRepository.deleteAll(groups);
+    accountRepository.deleteAll(accounts);
+  }
+
+  @Test
+  void shouldLoadAllGroupsWithOneStatement() {
+    List<GroupAccountsDto> result = accGroupLinkService.getAllGroupsAccounts(null, null);
+
+    assertEquals(1, statistics.getPrepareStatementCount());
+    assertEquals(
+        List.of(0, 1, 2, 3),
+        result.stream()
+            .filter(dto -> dto.getName().startsWith("members-"))
+            .map(dto -> dto.getAccounts().size())
+            .toList());
+  }
+
+  @Test
+  void shouldLoadGroupPageWithTwoStatements() {
+    Long beforeFirst = groups.get(0).getId() - 1;
+    List<GroupAccountsDto> firstPage = accGroupLinkService.getAllGroupsAccounts(beforeFirst, 2);
+    List<GroupAccountsDto> secondPage =
+        accGroupLinkService.getAllGroupsAccounts(firstPage.get(1).getId(), 2);
+
+    assertEquals(4, statistics.getPrepareStatementCount());
+    assertEquals(List.of(0, 1), firstPage.stream().map(dto -> dto.getAccounts().size()).toList());
+    assertEquals(List.of(2, 3), secondPage.stream().map(dto -> dto.getAccounts().size()).toList());
+  }
+}
@@ -0,0 +1,66 @@
+package com.thedan17.salesnet;
+
+import com.thedan17.salesnet.core.dao.GroupRepository;
+import com.thedan17.salesnet.core.object.entity.Group;
+import com.thedan17.salesnet.util.CommonUtil;
+import com.thedan17.salesnet.util.EntityMapper;
+import com.thedan17.salesnet.util.NdjsonStreamWriter;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class KeysetStreamingTests {
+  @Autowired private GroupRepository groupRepository;
+  @Autowired private NdjsonStreamWriter ndjsonStreamWriter;
+  @Autowired private EntityMapper entityMapper;
+  private final List<Long> savedIds = new ArrayList<>();
+
+  @BeforeEach
+  void setup() {
+    for (int i = 0; i < 5; i++) {
+      savedIds.add(groupRepository.save(new Group("keyset-" + i, "")).getId());
+    }
+  }
+
+  @AfterEach
+  void cleanup() {
+    groupRepository.deleteAllById(savedIds);
+    savedIds.clear();
+  }
+
+  @Test
+  void shouldReturnPagesAfterCursor() {
+    List<Group> firstPage =
+        groupRepository.findByIdGreaterThanOrderByIdAsc(
+            savedIds.get(0) - 1, CommonUtil.pageLimit(2));
+    assertEquals(List.of(savedIds.get(0), savedIds.get(1)),
+        firstPage.stream().map(Group::getId).toList());
+    List<Group> nextPage =
+        groupRepository.findByIdGreaterThanOrderByIdAsc(
+            firstPage.get(1).getId(), CommonUtil.pageLimit(10));
+    assertEquals(savedIds.subList(2, 5), nextPage.stream().map(Group::getId).toList());
+  }
+
+  @Test
+  void shouldWriteOneJsonLinePerRow() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ndjsonStreamWriter.write(out, groupRepository::streamAllOrderById, entityMapper::groupToIdDto);
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    long ours = Arrays.stream(lines).filter(line -> line.contains("keyset-")).count();
+    assertEquals(groupRepository.count(), lines.length);
+    assertEquals(5, ours);
+    assertTrue(lines[0].startsWith("{"));
+  }
+}
@@ -0,0 +1,67 @@
+package com.thedan17.salesnet;
+
+import com.thedan17.salesnet.core.object.data.LatencyStatistics;
+import com.thedan17.salesnet.util.LatencyHistogram;
+import com.thedan17.salesnet.util.RollingLatencyHistogram;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTests {
+
+  @Test
+  void percentiles_shouldStayWithinRelativeError() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    Random random = new Random(17);
+    long[] values = new long[100_000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = (long) Math.exp(random.nextDouble() * 14);
+      histogram.record(values[i]);
+    }
+    Arrays.sort(values);
+    long[] buckets = new long[LatencyHistogram.BUCKET_COUNT];
+    long max = histogram.addTo(buckets);
+
+    assertEquals(values[values.length - 1], max);
+    for (double quantile : new double[] {0.5, 0.95, 0.99}) {
+      long exact = values[(int) Math.ceil(quantile * values.length) - 1];
+      long estimated = LatencyHistogram.valueAtQuantile(buckets, values.length, max, quantile);
+      assertTrue(estimated >= exact, "quantile " + quantile);
+      assertTrue(estimated <= exact + exact / 16 + 1, "quantile " + quantile);
+    }
+  }
+
+  @Test
+  void rollingWindow_shouldForgetExpiredSlotsButKeepTotals() {
+    AtomicLong clock = new AtomicLong(0);
+    RollingLatencyHistogram histogram =
+        new RollingLatencyHistogram(Duration.ofSeconds(15), 20, clock::get);
+    histogram.record(5_000, 200, true);
+    histogram.record(7_000, 404, true);
+    clock.set(Duration.ofMinutes(2).toMillis());
+    histogram.record(100, 200, true);
+    histogram.record(300, 200, false);
+
+    LatencyStatistics lastMinute = histogram.snapshot(Duration.ofMinutes(1));
+    assertEquals(2, lastMinute.getRequestCount());
+    assertEquals(1, lastMinute.getSampledCount());
+    assertEquals(100, lastMinute.getMaxMicros());
+    assertEquals(2L, lastMinute.getStatusCounts().get(200));
+    assertNull(lastMinute.getStatusCounts().get(404));
+
+    LatencyStatistics lastFiveMinutes = histogram.snapshot(Duration.ofMinutes(5));
+    assertEquals(4, lastFiveMinutes.getRequestCount());
+    assertEquals(7_000, lastFiveMinutes.getMaxMicros());
+
+    clock.set(Duration.ofMinutes(10).toMillis());
+    assertEquals(0, histogram.snapshot(Duration.ofMinutes(5)).getRequestCount());
+    LatencyStatistics total = histogram.snapshot(null);
+    assertEquals(4, total.getRequestCount());
+    assertEquals(1L, total.getStatusCounts().get(404));
+    assertEquals(7_000, total.getMaxMicros());
+  }
+}
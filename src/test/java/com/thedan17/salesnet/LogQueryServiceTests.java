@@ -0,0 +1,122 @@
+package com.thedan17.salesnet;
+
+import ch.qos.logback.classic.Level;
+import com.thedan17.salesnet.core.object.data.LogSlice;
+import com.thedan17.salesnet.core.service.LogQueryService;
+import com.thedan17.salesnet.util.LogArchiver;
+import com.thedan17.salesnet.util.LogFileIndex;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogQueryServiceTests {
+  private static final LocalDateTime DAY_START = LocalDateTime.of(2024, 5, 1, 0, 0);
+
+  @TempDir Path logDir;
+  private LogQueryService service;
+
+  private static String line(LocalDateTime time, String level, String message) {
+    return "APP [%s] [main] %-5s c.t.salesnet.util.AppLoggerCore - %s%n"
+        .formatted(LogFileIndex.TIMESTAMP_FORMAT.format(time), level, message);
+  }
+
+  @BeforeEach
+  void setup() throws IOException {
+    StringBuilder content = new StringBuilder();
+    for (int second = 0; second < 3600; second++) {
+      LocalDateTime time = DAY_START.plusSeconds(second);
+      content.append(line(time, second % 100 == 0 ? "ERROR" : "DEBUG", "event " + second));
+      if (second % 100 == 0) {
+        content.append("java.lang.IllegalStateException: failure ").append(second).append('\n');
+      }
+    }
+    Files.writeString(logDir.resolve("log-2024-05-01.log"), content);
+    Files.writeString(logDir.resolve("other.log"), line(DAY_START, "INFO", "ignored"));
+    service = new LogQueryService(logDir);
+  }
+
+  @Test
+  void findSlices_shouldCoverExactlyTheRequestedInterval() throws IOException {
+    List<LogSlice> slices =
+        service.findSlices(DAY_START.plusSeconds(1000), DAY_START.plusSeconds(1010));
+    assertEquals(1, slices.size());
+
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    service.transferSlices(slices, Channels.newChannel(output));
+    List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+    assertEquals(11, lines.size());
+    assertTrue(lines.get(0).endsWith("event 1000"));
+    assertTrue(lines.get(1).contains("failure 1000"));
+    assertTrue(lines.get(10).endsWith("event 1009"));
+  }
+
+  @Test
+  void writeFiltered_shouldKeepLevelAndContinuationLines() throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    service.writeFiltered(
+        DAY_START.plusSeconds(150), DAY_START.plusHours(2), Level.WARN, "AppLoggerCore", output);
+
+    List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+    assertEquals(68, lines.size());
+    assertTrue(lines.get(0).endsWith("event 200"));
+    assertTrue(lines.get(1).contains("failure 200"));
+
+    ByteArrayOutputStream none = new ByteArrayOutputStream();
+    service.writeFiltered(DAY_START, DAY_START.plusHours(1), null, "NoSuchLogger", none);
+    assertEquals(0, none.size());
+  }
+
+  @Test
+  void archivedDay_shouldBeQueriedLikePlainFile() throws IOException {
+    Path log = logDir.resolve("log-2024-05-01.log");
+    String plain = Files.readString(log);
+    Files.setLastModifiedTime(log, FileTime.from(DAY_START.toInstant(ZoneOffset.UTC)));
+    Instant nextDay = DAY_START.plusDays(1).toInstant(ZoneOffset.UTC);
+    LogArchiver archiver = new LogArchiver(logDir, 90, Clock.fixed(nextDay, ZoneOffset.UTC));
+    assertEquals(1, archiver.compressRolled());
+    assertFalse(Files.exists(log));
+    assertTrue(Files.exists(logDir.resolve("log-2024-05-01.log.gz")));
+
+    List<LogSlice> slices =
+        service.findSlices(DAY_START.plusSeconds(1000), DAY_START.plusSeconds(1010));
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    service.transferSlices(slices, Channels.newChannel(output));
+    int start = plain.indexOf(line(DAY_START.plusSeconds(1000), "ERROR", "event 1000"));
+    int end = plain.indexOf(line(DAY_START.plusSeconds(1010), "DEBUG", "event 1010"));
+    assertEquals(plain.substring(start, end), output.toString(StandardCharsets.UTF_8));
+
+    ByteArrayOutputStream filtered = new ByteArrayOutputStream();
+    service.writeFiltered(
+        DAY_START.plusSeconds(150), DAY_START.plusHours(2), Level.WARN, "AppLoggerCore", filtered);
+    assertEquals(68, filtered.toString(StandardCharsets.UTF_8).lines().count());
+  }
+
+  @Test
+  void deleteExpired_shouldRemoveArchivesPastRetention() throws IOException {
+    Path oldArchive = logDir.resolve("log-2024-01-01.log.gz");
+    Path oldIndex = logDir.resolve("log-2024-01-01.log.idx");
+    Files.write(oldArchive, new byte[0]);
+    Files.write(oldIndex, new byte[0]);
+    Instant now = DAY_START.plusDays(1).toInstant(ZoneOffset.UTC);
+    LogArchiver archiver = new LogArchiver(logDir, 90, Clock.fixed(now, ZoneOffset.UTC));
+
+    assertEquals(2, archiver.deleteExpired());
+    assertFalse(Files.exists(oldArchive));
+    assertTrue(Files.exists(logDir.resolve("log-2024-05-01.log")));
+    assertTrue(Files.exists(logDir.resolve("other.log")));
+  }
+}
@@ -0,0 +1,76 @@
+package com.thedan17.salesnet;
+
+import com.thedan17.salesnet.util.MembershipIndex;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MembershipIndexTests {
+  @Test
+  void addAndRemove_shouldKeepBothSidesConsistent() {
+    MembershipIndex index = new MembershipIndex();
+    index.add(1L, 10L);
+    index.add(1L, 5L);
+    index.add(2L, 10L);
+    index.add(2L, 10L);
+
+    assertTrue(index.contains(1L, 10L));
+    assertFalse(index.contains(2L, 5L));
+    assertArrayEquals(new long[] {5L, 10L}, index.groupsOf(1L));
+    assertArrayEquals(new long[] {1L, 2L}, index.accountsOf(10L));
+    assertEquals(3, index.linkCount());
+
+    index.remove(1L, 10L);
+    assertFalse(index.contains(1L, 10L));
+    assertArrayEquals(new long[] {2L}, index.accountsOf(10L));
+
+    index.removeGroup(10L);
+    assertArrayEquals(new long[0], index.accountsOf(10L));
+    assertArrayEquals(new long[0], index.groupsOf(2L));
+    assertEquals(1, index.accountCount());
+
+    index.removeAccount(1L);
+    assertEquals(0, index.linkCount());
+    assertEquals(0, index.groupCount());
+  }
+
+  @Test
+  void changesDuringBuild_shouldWinOverLoadedLinks() {
+    MembershipIndex index = new MembershipIndex();
+    index.beginBuild();
+    index.remove(1L, 10L);
+    index.removeGroup(20L);
+    index.removeAccount(3L);
+    index.add(4L, 40L);
+    index.load(new long[] {1L, 2L, 2L, 3L, 4L}, new long[] {10L, 10L, 20L, 30L, 40L}, 5);
+    index.finishBuild();
+
+    assertTrue(index.isReady());
+    assertFalse(index.contains(1L, 10L));
+    assertTrue(index.contains(2L, 10L));
+    assertFalse(index.contains(2L, 20L));
+    assertFalse(index.contains(3L, 30L));
+    assertTrue(index.contains(4L, 40L));
+    assertEquals(2, index.linkCount());
+    assertTrue(index.estimatedBytes() > 0);
+  }
+
+  @Test
+  void load_shouldSortAndDedupeOutOfOrderLinks() {
+    MembershipIndex index = new MembershipIndex();
+    index.beginBuild();
+    index.load(new long[] {9L, 3L, 7L, 3L}, new long[] {1L, 1L, 1L, 1L}, 4);
+    index.load(new long[] {1L, 3L}, new long[] {1L, 2L}, 2);
+    index.remove(7L, 1L);
+    index.finishBuild();
+
+    assertArrayEquals(new long[] {1L, 3L, 9L}, index.accountsOf(1L));
+    assertArrayEquals(new long[] {1L, 2L}, index.groupsOf(3L));
+    assertEquals(4, index.linkCount());
+
+    index.add(5L, 1L);
+    index.add(2L, 1L);
+    assertArrayEquals(new long[] {1L, 2L, 3L, 5L, 9L}, index.accountsOf(1L));
+    assertEquals(6, index.linkCount());
+  }
+}
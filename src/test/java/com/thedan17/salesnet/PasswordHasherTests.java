@@ -0,0 +1,100 @@
+package com.thedan17.salesnet;
+
+import com.thedan17.salesnet.core.object.data.HashingStatistics;
+import com.thedan17.salesnet.util.CommonUtil;
+import com.thedan17.salesnet.util.PasswordHasher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTests {
+  private final PasswordHasher hasher = new PasswordHasher(1000, 2, 4);
+
+  @AfterEach
+  void shutdown() {
+    hasher.shutdown();
+  }
+
+  @Test
+  void hash_shouldBeSaltedVersionedAndVerifiable() {
+    String first = hasher.hash("Valid_Pass7");
+    String second = hasher.hash("Valid_Pass7");
+
+    assertTrue(first.startsWith("pbkdf2-sha256$1000$"));
+    assertEquals(4, first.split("\\$").length);
+    assertNotEquals(first, second);
+    assertTrue(hasher.verify("Valid_Pass7", first));
+    assertTrue(hasher.verify("Valid_Pass7", second));
+    assertFalse(hasher.verify("Valid_Pass8", first));
+    assertFalse(hasher.needsRehash(first));
+    assertEquals(2, hasher.getStatistics().getHashedCount());
+  }
+
+  @Test
+  void verify_shouldAcceptLegacySha256Hashes() {
+    String legacy = CommonUtil.hashWithSha256("Valid_Pass7");
+
+    assertTrue(hasher.verify("Valid_Pass7", legacy));
+    assertTrue(hasher.verify("Valid_Pass7", legacy.toUpperCase()));
+    assertFalse(hasher.verify("Valid_Pass8", legacy));
+    assertTrue(hasher.needsRehash(legacy));
+  }
+
+  @Test
+  void needsRehash_shouldDetectFewerIterations() {
+    PasswordHasher stronger = new PasswordHasher(2000, 1, 1);
+    String weaker = hasher.encode("Valid_Pass7");
+
+    assertTrue(stronger.needsRehash(weaker));
+    assertTrue(stronger.verify("Valid_Pass7", weaker));
+    stronger.shutdown();
+  }
+
+  @Test
+  void encode_shouldShareWorkerLimitWithPool() throws Exception {
+    PasswordHasher single = new PasswordHasher(100_000, 1, 4);
+    ExecutorService callers = Executors.newFixedThreadPool(3);
+    List<Future<String>> hashes = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      hashes.add(callers.submit(() -> single.encode("Valid_Pass7")));
+    }
+    int maxActive = 0;
+    int maxQueued = 0;
+    while (!hashes.stream().allMatch(Future::isDone)) {
+      HashingStatistics statistics = single.getStatistics();
+      maxActive = Math.max(maxActive, statistics.getActive());
+      maxQueued = Math.max(maxQueued, statistics.getQueued());
+      Thread.sleep(1);
+    }
+    for (Future<String> hash : hashes) {
+      assertTrue(single.verify("Valid_Pass7", hash.get()));
+    }
+    callers.shutdown();
+    single.shutdown();
+
+    assertEquals(1, maxActive);
+    assertTrue(maxQueued >= 1);
+    assertEquals(3, single.getStatistics().getHashedCount());
+  }
+
+  @Test
+  void verify_shouldRejectMalformedHashes() {
+    assertFalse(hasher.verify("Valid_Pass7", null));
+    assertFalse(hasher.verify("Valid_Pass7", "pbkdf2-sha256$x$AAAA$AAAA"));
+    assertFalse(hasher.verify("Valid_Pass7", "pbkdf2-sha256$1000$AAAA"));
+    assertFalse(hasher.verify("Valid_Pass7", "pbkdf2-sha256$1000$@@@@$AAAA"));
+    assertFalse(hasher.verify("Valid_Pass7", "plain"));
+  }
+
+  @Test
+  void toHex_shouldMatchTwoDigitLowercase() {
+    assertEquals("00017f80ff", CommonUtil.toHex(new byte[] {0, 1, 127, -128, -1}));
+    assertEquals("", CommonUtil.toHex(new byte[0]));
+  }
+}
@@ -0,0 +1,87 @@
+package com.thedan17.salesnet;
+
+import com.thedan17.salesnet.core.object.dto.AccountSignupDto;
+import com.thedan17.salesnet.core.validation.PasswordPolicy;
+import com.thedan17.salesnet.core.validation.ValidationError;
+import com.thedan17.salesnet.util.PasswordCheckUtil;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordPolicyTests {
+  /** Ошибки по отдельным проверкам {@link PasswordCheckUtil}, как до появления политики. */
+  private static List<ValidationError> legacyValidate(String password) {
+    List<String> messages = new ArrayList<>();
+    if (!PasswordCheckUtil.haveEnoughLength(password)) {
+      messages.add("Password length should be not less than 8");
+    }
+    if (!PasswordCheckUtil.containsOnlyAllowedChars(password)) {
+      messages.add("Password may contain only latin characters, numbers, and underscores");
+    }
+    if (!PasswordCheckUtil.containsDigit(password)) {
+      messages.add("Password should contain at least one digit");
+    }
+    if (!PasswordCheckUtil.containsLowerCase(password)) {
+      messages.add("Password should contain at least one lowercase letter");
+    }
+    if (!PasswordCheckUtil.containsUpperCase(password)) {
+      messages.add("Password should contain at least one uppercase letter");
+    }
+    if (!PasswordCheckUtil.doesNotContainSequences(password)) {
+      messages.add("Password should not contain sequences like 'qwerty'");
+    }
+    if (!PasswordCheckUtil.doesNotContainRepeatedChars(password)) {
+      messages.add("Password should not contain sequences like '12345'");
+    }
+    return messages.stream()
+        .map(message -> new ValidationError(AccountSignupDto.Fields.password, message))
+        .toList();
+  }
+
+  @ParameterizedTest
+  @NullAndEmptySource
+  @ValueSource(strings = {
+    "Valid_Pass9", "LolQweRty1", "wewewe_A1", "qwqwe_Ab1", "aaa_Bc90", "ewq", "\n\n\nAb1",
+    "Passİop12", "πρΣA1", "😀😀😀", "Zyx_48Ab"
+  })
+  void validate_shouldMatchSeparateChecks(String password) {
+    assertEquals(legacyValidate(password), PasswordPolicy.DEFAULT.validate(password));
+  }
+
+  @Test
+  void validate_shouldMatchSeparateChecksOnRandomPasswords() {
+    String alphabet = "qwertyuiopasdfghjklzxcvbnmQWERTYUIOPASDFGHJKLZXCVBNM0123456789_-#\n "
+        + "İΣρπK";
+    Random random = new Random(17);
+    for (int i = 0; i < 200_000; i++) {
+      char[] chars = new char[random.nextInt(14)];
+      for (int j = 0; j < chars.length; j++) {
+        // короткий алфавит чаще даёт последовательности и повторы
+        int bound = random.nextBoolean() ? 8 : alphabet.length();
+        chars[j] = alphabet.charAt(random.nextInt(bound));
+      }
+      String password = new String(chars);
+      assertEquals(legacyValidate(password), PasswordPolicy.DEFAULT.validate(password), password);
+    }
+  }
+
+  @Test
+  void customPolicy_shouldUseItsOwnRules() {
+    PasswordPolicy policy = new PasswordPolicy(4, 4, 2, List.of("abcd"));
+    int violations = policy.violations("xAbcd1");
+    assertEquals(PasswordPolicy.Rule.SEQUENCES.bit(), violations);
+    assertEquals(PasswordPolicy.Rule.REPEATED_CHARS.bit(), policy.violations("Xy11"));
+    assertEquals(0, policy.violations("Abc1"));
+    assertThrows(IllegalArgumentException.class, () -> new PasswordPolicy(8, 1, 3, List.of()));
+    assertThrows(
+        IllegalArgumentException.class, () -> new PasswordPolicy(4, 3, 2, List.of("abc", "xbz")));
+    assertThrows(IllegalArgumentException.class, () -> new PasswordPolicy(4, 3, 2, List.of("abca")));
+    assertEquals(0, new PasswordPolicy(4, 3, 3, List.of("abc", "cba")).violations("Acb1"));
+  }
+}
@@ -0,0 +1,128 @@
+package com.thedan17.salesnet;
+
+import com.thedan17.salesnet.core.object.data.AsyncTaskInfo;
+import com.thedan17.salesnet.exception.TaskQueueFullException;
+import com.thedan17.salesnet.util.TaskEngine;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskEngineTests {
+  private final CountDownLatch release = new CountDownLatch(1);
+  private TaskEngine<String, String> engine;
+
+  /** Задача, ждущая {@link #release}. */
+  private String blocking(AsyncTaskInfo<String, String> task) throws InterruptedException {
+    task.setProgress(50);
+    release.await();
+    return task.getParams().toUpperCase();
+  }
+
+  private static void awaitFinished(AsyncTaskInfo<?, ?> task) throws InterruptedException {
+    for (int i = 0; i < 200 && !task.isFinished(); i++) {
+      Thread.sleep(10);
+    }
+    assertTrue(task.isFinished());
+  }
+
+  private static void awaitStatus(AsyncTaskInfo<?, ?> task, AsyncTaskInfo.Status status)
+      throws InterruptedException {
+    for (int i = 0; i < 200 && task.getStatus() != status; i++) {
+      Thread.sleep(10);
+    }
+    assertEquals(status, task.getStatus());
+  }
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    engine.close();
+  }
+
+  @Test
+  void submit_shouldRejectWhenQueueIsFull() throws InterruptedException {
+    engine = new TaskEngine<>("test", 1, 1, Duration.ofMinutes(1), Duration.ofMinutes(1));
+    AsyncTaskInfo<String, String> running = engine.submit("a", this::blocking);
+    awaitStatus(running, AsyncTaskInfo.Status.RUNNING);
+    AsyncTaskInfo<String, String> queued = engine.submit("b", this::blocking);
+
+    TaskQueueFullException e =
+        assertThrows(TaskQueueFullException.class, () -> engine.submit("c", this::blocking));
+    assertEquals(60, e.getRetryAfterSeconds());
+    assertEquals(2, engine.getAll().size());
+    assertEquals(50, running.getProgress());
+
+    release.countDown();
+    awaitFinished(queued);
+    assertEquals(AsyncTaskInfo.Status.DONE, running.getStatus());
+    assertEquals("B", queued.getResult());
+    assertEquals(100, queued.getProgress());
+  }
+
+  @Test
+  void cancel_shouldInterruptRunningAndDropQueuedTasks() throws InterruptedException {
+    engine = new TaskEngine<>("test", 1, 1, Duration.ofMinutes(1), Duration.ofMinutes(1));
+    AsyncTaskInfo<String, String> running = engine.submit("a", this::blocking);
+    awaitStatus(running, AsyncTaskInfo.Status.RUNNING);
+    AsyncTaskInfo<String, String> queued = engine.submit("b", this::blocking);
+
+    assertTrue(engine.cancel(queued.getId()));
+    assertEquals(0, engine.getQueuedCount());
+    assertTrue(engine.cancel(running.getId()));
+    assertFalse(engine.cancel(running.getId()));
+    assertEquals(AsyncTaskInfo.Status.CANCELLED, running.getStatus());
+    assertEquals(AsyncTaskInfo.Status.CANCELLED, queued.getStatus());
+
+    // поток освобождён прерыванием, следующая задача выполняется
+    AsyncTaskInfo<String, String> next = engine.submit("c", task -> "done");
+    awaitFinished(next);
+    assertEquals("done", next.getResult());
+  }
+
+  @Test
+  void timeout_shouldFailTaskAndRemoveItAfterRetention() throws InterruptedException {
+    engine = new TaskEngine<>("test", 1, 1, Duration.ofMillis(100), Duration.ofMillis(200));
+    AsyncTaskInfo<String, String> task = engine.submit("a", this::blocking);
+
+    awaitFinished(task);
+    assertEquals(AsyncTaskInfo.Status.FAILED, task.getStatus());
+    assertTrue(task.getError().startsWith("Timed out"));
+    assertNotNull(engine.get(task.getId()));
+
+    TimeUnit.MILLISECONDS.sleep(500);
+    assertNull(engine.get(task.getId()));
+  }
+
+  @Test
+  void subscribe_shouldReportCurrentStateAndEveryStatusChange() throws InterruptedException {
+    engine = new TaskEngine<>("test", 1, 1, Duration.ofMinutes(1), Duration.ofMinutes(1));
+    AsyncTaskInfo<String, String> task = engine.submit("a", this::blocking);
+    awaitStatus(task, AsyncTaskInfo.Status.RUNNING);
+    List<AsyncTaskInfo.Status> seen = new CopyOnWriteArrayList<>();
+    CountDownLatch notified = new CountDownLatch(1);
+    CountDownLatch finished = new CountDownLatch(1);
+    Runnable unsubscribe = engine.subscribe(task.getId(), info -> {
+      // статус читается один раз: задача может завершиться во время вызова
+      AsyncTaskInfo.Status status = info.getStatus();
+      seen.add(status);
+      notified.countDown();
+      if (status == AsyncTaskInfo.Status.DONE) {
+        finished.countDown();
+      }
+    });
+
+    assertTrue(notified.await(2, TimeUnit.SECONDS));
+    release.countDown();
+    assertTrue(finished.await(2, TimeUnit.SECONDS));
+    assertEquals(AsyncTaskInfo.Status.RUNNING, seen.get(0));
+    assertEquals(AsyncTaskInfo.Status.DONE, seen.get(seen.size() - 1));
+    assertNotNull(unsubscribe);
+    assertNull(engine.subscribe(999, info -> {}));
+  }
+}
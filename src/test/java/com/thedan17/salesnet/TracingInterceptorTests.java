@@ -0,0 +1,80 @@
+package com.thedan17.salesnet;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import com.thedan17.salesnet.util.AppLoggerCore;
+import com.thedan17.salesnet.util.TracingInterceptor;
+import java.util.function.UnaryOperator;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.ProxyFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TracingInterceptorTests {
+  @SuppressWarnings("unchecked")
+  private UnaryOperator<String> tracedTarget(AppLoggerCore logger, double sampleRate) {
+    ProxyFactory factory = new ProxyFactory(UnaryOperator.identity());
+    factory.addInterface(UnaryOperator.class);
+    factory.addAdvice(new TracingInterceptor(logger, sampleRate, false));
+    return (UnaryOperator<String>) factory.getProxy();
+  }
+
+  @Test
+  void shouldSkipEverythingWhenTraceDisabled() {
+    AppLoggerCore logger = mock(AppLoggerCore.class);
+    when(logger.isTraceEnabled()).thenReturn(false);
+
+    assertEquals("value", tracedTarget(logger, 1.0).apply("value"));
+    verify(logger, never()).trace(anyString(), any(Object[].class));
+  }
+
+  @Test
+  void shouldLogSpanWhenTraceEnabled() {
+    AppLoggerCore logger = mock(AppLoggerCore.class);
+    when(logger.isTraceEnabled()).thenReturn(true);
+    UnaryOperator<String> traced = tracedTarget(logger, 1.0);
+
+    traced.apply("first");
+    traced.apply("second");
+    verify(logger, times(2)).trace(anyString(), any(), any());
+  }
+
+  @Test
+  void shouldNotLogWithZeroSampleRate() {
+    AppLoggerCore logger = mock(AppLoggerCore.class);
+    when(logger.isTraceEnabled()).thenReturn(true);
+
+    assertEquals("value", tracedTarget(logger, 0.0).apply("value"));
+    verify(logger, never()).trace(anyString(), any(), any());
+    assertThrows(IllegalArgumentException.class, () -> new TracingInterceptor(logger, 2.0, false));
+  }
+
+  @Test
+  void shouldTraceWhenTraceLevelSetOnPackageAncestor() {
+    LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+    Logger appRoot = context.getLogger("com.thedan17");
+    Logger coreLogger = context.getLogger(AppLoggerCore.class);
+    Level appRootLevel = appRoot.getLevel();
+    Level coreLevel = coreLogger.getLevel();
+    try {
+      appRoot.setLevel(Level.TRACE);
+      coreLogger.setLevel(null);
+      AppLoggerCore logger = spy(new AppLoggerCore());
+
+      assertTrue(logger.isTraceEnabled());
+      tracedTarget(logger, 1.0).apply("value");
+      verify(logger).trace(anyString(), any(), any());
+
+      appRoot.setLevel(null);
+      coreLogger.setLevel(null);
+      assertFalse(new AppLoggerCore().isTraceEnabled());
+      assertEquals(Level.DEBUG, coreLogger.getLevel());
+    } finally {
+      appRoot.setLevel(appRootLevel);
+      coreLogger.setLevel(coreLevel);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package com.thedan17.salesnet;
+
+import com.thedan17.salesnet.core.dao.UrlStatRepository;
+import com.thedan17.salesnet.core.object.dto.UrlStatDto;
+import com.thedan17.salesnet.core.object.entity.UrlStat;
+import com.thedan17.salesnet.core.service.UrlStatsService;
+import com.thedan17.salesnet.util.EntityMapper;
+import com.thedan17.salesnet.util.UrlCounter;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UrlStatsServiceTests {
+  private static final String PATTERN = "/test/url-stats/{id}";
+  private static final LocalDateTime FROM = LocalDateTime.of(2000, 1, 1, 0, 0);
+  private static final LocalDateTime TO = LocalDateTime.of(2100, 1, 1, 0, 0);
+
+  @Autowired private UrlStatRepository urlStatRepository;
+  @Autowired private EntityMapper entityMapper;
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @AfterEach
+  void cleanup() {
+    urlStatRepository.deleteAll(urlStatRepository.findHistory(PATTERN, FROM, TO));
+  }
+
+  private UrlStatsService newService(UrlCounter counter) {
+    UrlStatsService service =
+        new UrlStatsService(
+            counter, urlStatRepository, entityMapper, transactionManager, Duration.ofHours(1));
+    service.restoreCounts();
+    return service;
+  }
+
+  @Test
+  void flush_shouldPersistOnlyDeltasAndSurviveRestart() {
+    UrlCounter counter = new UrlCounter();
+    UrlStatsService service = newService(counter);
+    counter.increment(PATTERN);
+    counter.increment(PATTERN);
+
+    assertEquals(1, service.flush());
+    assertEquals(0, service.flush());
+    counter.increment(PATTERN);
+    assertEquals(1, service.flush());
+
+    List<UrlStat> rows = urlStatRepository.findHistory(PATTERN, FROM, TO);
+    assertEquals(1, rows.size());
+    assertEquals(3L, rows.get(0).getHits());
+
+    UrlCounter restartedCounter = new UrlCounter();
+    UrlStatsService restarted = newService(restartedCounter);
+    assertEquals(3L, restartedCounter.getCount(PATTERN));
+    assertEquals(0, restarted.flush());
+  }
+
+  @Test
+  void getHistory_shouldReturnBucketsInRange() {
+    LocalDateTime hour = LocalDateTime.of(2024, 5, 1, 10, 0);
+    urlStatRepository.save(new UrlStat(null, PATTERN, hour, 5L));
+    urlStatRepository.save(new UrlStat(null, PATTERN, hour.plusHours(1), 7L));
+    UrlStatsService service = newService(new UrlCounter());
+
+    List<UrlStatDto> history = service.getHistory(PATTERN, hour, hour.plusHours(1));
+    assertEquals(1, history.size());
+    assertEquals(5L, history.get(0).getHits());
+    assertEquals(hour, history.get(0).getBucketStart());
+    assertEquals(2, service.getHistory(PATTERN, hour, hour.plusHours(2)).size());
+  }
+}